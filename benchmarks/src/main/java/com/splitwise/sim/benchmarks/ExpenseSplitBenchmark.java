@@ -0,0 +1,78 @@
+package com.splitwise.sim.benchmarks;
+
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.expense.ExpenseParticipant;
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.monitoring.BusinessMetrics;
+import com.splitwise.sim.service.ExpenseSplitService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Share calculation for the three split types
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpenseSplitBenchmark {
+
+    @Param({"2", "10", "50"})
+    private int participants;
+
+    // The split math touches no repository
+    private final ExpenseSplitService service = new ExpenseSplitService(null, null, null, null, null,
+            new BusinessMetrics(new SimpleMeterRegistry()), null, null, null);
+
+    private CreateExpenseRequest equal;
+    private CreateExpenseRequest exact;
+    private CreateExpenseRequest percentage;
+
+    @Setup
+    public void setUp() {
+        BigDecimal amount = new BigDecimal("1234.56");
+        long amountCents = 123_456;
+
+        Set<Long> ids = new LinkedHashSet<>();
+        List<ExpenseParticipant> exactShares = new ArrayList<>();
+        List<ExpenseParticipant> percentageShares = new ArrayList<>();
+        long remainingCents = amountCents;
+        int remainingPercent = 100;
+
+        for (long id = 1; id <= participants; id++) {
+            ids.add(id);
+            boolean last = id == participants;
+            long cents = last ? remainingCents : amountCents / participants;
+            int percent = last ? remainingPercent : 100 / participants;
+            remainingCents -= cents;
+            remainingPercent -= percent;
+            exactShares.add(new ExpenseParticipant(id, BigDecimal.valueOf(cents, 2), null));
+            percentageShares.add(new ExpenseParticipant(id, null, BigDecimal.valueOf(percent)));
+        }
+
+        equal = new CreateExpenseRequest("Dinner", amount, 1L, "EQUAL", ids, null);
+        exact = new CreateExpenseRequest("Dinner", amount, 1L, "EXACT", null, exactShares);
+        percentage = new CreateExpenseRequest("Dinner", amount, 1L, "PERCENTAGE", null, percentageShares);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> splitEqually() {
+        return service.calculateShares(Expense.SplitType.EQUAL, equal);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> splitExactly() {
+        return service.calculateShares(Expense.SplitType.EXACT, exact);
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> splitByPercentage() {
+        return service.calculateShares(Expense.SplitType.PERCENTAGE, percentage);
+    }
+}
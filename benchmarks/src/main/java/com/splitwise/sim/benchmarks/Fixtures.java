@@ -0,0 +1,99 @@
+package com.splitwise.sim.benchmarks;
+
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.entity.User;
+import com.splitwise.sim.service.BalanceCheckpointService;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * In-memory stand-ins for the repositories, so service code runs without a database
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            users.add(User.builder().id(id).username("user" + id).email("user" + id + "@bench.test").build());
+        }
+        return users;
+    }
+
+    static Group group(long id, List<User> members) {
+        return Group.builder().id(id).name("Group " + id).members(new HashSet<>(members)).build();
+    }
+
+    /**
+     * Net balances of the given users that sum to zero, like real group balances
+     */
+    static Map<Long, BigDecimal> balances(List<User> users, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        long total = 0;
+        for (int i = 0; i < users.size() - 1; i++) {
+            long cents = random.nextLong(-50_000, 50_000);
+            balances.put(users.get(i).getId(), BigDecimal.valueOf(cents, 2));
+            total += cents;
+        }
+        balances.put(users.get(users.size() - 1).getId(), BigDecimal.valueOf(-total, 2));
+        return balances;
+    }
+
+    /**
+     * A repository proxy backed by the given users and group. findById, findAllById and
+     * getReferenceById are answered from memory; any other call fails.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<Long, ?> byId) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "findById":
+                    return Optional.ofNullable(byId.get((Long) args[0]));
+                case "getReferenceById":
+                    return byId.get((Long) args[0]);
+                case "findAllById": {
+                    List<Object> found = new ArrayList<>();
+                    for (Object id : (Iterable<?>) args[0]) {
+                        Object entity = byId.get((Long) id);
+                        if (entity != null) {
+                            found.add(entity);
+                        }
+                    }
+                    return found;
+                }
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return type.getSimpleName() + " fixture";
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    static Map<Long, User> byId(List<User> users) {
+        Map<Long, User> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        return byId;
+    }
+
+    /**
+     * Serves a fixed balance map instead of reading the ledger
+     */
+    static BalanceCheckpointService balanceService(Map<Long, BigDecimal> balances) {
+        return new BalanceCheckpointService(null, null, null, null, null) {
+            @Override
+            public Map<Long, BigDecimal> groupBalancesAsOf(Group group, LocalDateTime asOf) {
+                return new HashMap<>(balances);
+            }
+        };
+    }
+}
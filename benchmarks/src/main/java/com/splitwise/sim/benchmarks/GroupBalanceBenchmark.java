@@ -0,0 +1,62 @@
+package com.splitwise.sim.benchmarks;
+
+import com.splitwise.sim.dto.analytics.GroupDebtDto;
+import com.splitwise.sim.dto.group.BalanceResponse;
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.entity.User;
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.repository.UserRepository;
+import com.splitwise.sim.service.AnalyticsService;
+import com.splitwise.sim.service.BalanceCheckpointService;
+import com.splitwise.sim.service.GroupService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group balance rendering and debt matching over in-memory balances.
+ * Ledger reads are stubbed out, so this measures only the Java side of the two endpoints.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupBalanceBenchmark {
+
+    private static final long GROUP_ID = 1L;
+
+    @Param({"5", "50", "500"})
+    private int members;
+
+    private GroupService groupService;
+    private AnalyticsService analyticsService;
+
+    @Setup
+    public void setUp() {
+        List<User> users = Fixtures.users(members);
+        Group group = Fixtures.group(GROUP_ID, users);
+        Map<Long, BigDecimal> balances = Fixtures.balances(users, 42L);
+
+        UserRepository userRepository = Fixtures.repository(UserRepository.class, Fixtures.byId(users));
+        GroupRepository groupRepository = Fixtures.repository(GroupRepository.class, Map.of(GROUP_ID, group));
+        BalanceCheckpointService balanceService = Fixtures.balanceService(balances);
+
+        groupService = new GroupService(groupRepository, userRepository, null, balanceService, null, null);
+        analyticsService = new AnalyticsService(null, groupRepository, userRepository, balanceService);
+    }
+
+    @Benchmark
+    public List<BalanceResponse> calculateGroupBalance() {
+        return groupService.calculateGroupBalance(GROUP_ID);
+    }
+
+    @Benchmark
+    public List<GroupDebtDto> calculateGroupDebts() {
+        return analyticsService.calculateGroupDebts(GROUP_ID);
+    }
+}
@@ -0,0 +1,52 @@
+package com.splitwise.sim.benchmarks;
+
+import com.splitwise.sim.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and per-request validation cost
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider();
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        set("jwtSecret", SECRET);
+        set("jwtExpirationMs", 86_400_000L);
+        token = tokenProvider.generateTokenFromUsername("bench_user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateTokenFromUsername("bench_user");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return tokenProvider.getUsernameFromToken(token);
+    }
+
+    private void set(String name, Object value) throws ReflectiveOperationException {
+        Field field = JwtTokenProvider.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(tokenProvider, value);
+    }
+}
@@ -2,12 +2,18 @@ package com.splitwise.sim;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
-@SpringBootApplication
+// R2DBC is only used by the reactive reads, which build their own pool (ReactiveReadConfig);
+// Boot's R2DBC setup would turn off the JDBC DataSource and add a second transaction manager
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 @EnableJpaAuditing
 @EnableTransactionManagement
+@EnableScheduling
 public class SplitwiseSimApplication {
     public static void main(String[] args) {
         SpringApplication.run(SplitwiseSimApplication.class, args);
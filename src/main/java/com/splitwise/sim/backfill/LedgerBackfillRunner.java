@@ -0,0 +1,69 @@
+package com.splitwise.sim.backfill;
+
+import com.splitwise.sim.repository.WalletTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * One-off migration of ledger rows written before expense_id and group_id were recorded, run
+ * with --spring.profiles.active=ledger-backfill. A row is only filled in when exactly one
+ * expense, or settlements of exactly one group, match it; ambiguous and unmatched rows are left
+ * alone and listed in the log. It only touches rows that are still missing the column, so
+ * running it again is harmless.
+ */
+@Component
+@Profile("ledger-backfill")
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerBackfillRunner implements ApplicationRunner {
+
+    private final WalletTransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Environment environment;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int linked = transactionTemplate.execute(status -> transactionRepository.linkSplitRowsToExpenses());
+        log.info("Linked {} split ledger rows to their expense", linked);
+        report("split ledger rows without an expense",
+                transactionRepository.countSplitRowsWithoutExpense(),
+                transactionRepository.findSplitRowIdsWithoutExpense(PageRequest.of(0, reportLimit())));
+
+        // Expense rows go first, now that more of them know their expense
+        int fromExpenses = transactionTemplate.execute(status -> transactionRepository.backfillGroupFromExpenses());
+        int fromSettlements = transactionTemplate.execute(status ->
+                transactionRepository.backfillGroupFromSettlements());
+        log.info("Backfilled group_id on {} expense and {} settlement ledger rows", fromExpenses, fromSettlements);
+        report("ledger rows between users without a group, left out of group balances,",
+                transactionRepository.countPairRowsWithoutGroup(),
+                transactionRepository.findPairRowIdsWithoutGroup(PageRequest.of(0, reportLimit())));
+
+        if (environment.getProperty("app.ledger-backfill.exit-when-done", Boolean.class, false)) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private void report(String what, long count, List<Long> sampleIds) {
+        if (count == 0) {
+            log.info("No {} left", what);
+        } else {
+            log.warn("{} {} could not be matched, first ids: {}", count, what, sampleIds);
+        }
+    }
+
+    private int reportLimit() {
+        return environment.getProperty("app.ledger-backfill.report-limit", Integer.class, 100);
+    }
+}
@@ -0,0 +1,53 @@
+package com.splitwise.sim.cache;
+
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Explicit second-level cache eviction for user and group changes.
+ *
+ * Hibernate already updates the cache for changes it flushes itself; this covers the rest
+ * (bulk SQL, other instances' writes within the TTL) at the points where reference data
+ * changes. Inside a transaction, eviction waits for the commit so a concurrent reader cannot
+ * put the old state back in between.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictUser(Long userId) {
+        afterCommit(() -> cache().evictEntityData(User.class, userId));
+    }
+
+    public void evictGroup(Long groupId) {
+        afterCommit(() -> {
+            cache().evictEntityData(Group.class, groupId);
+            cache().evictCollectionData(SecondLevelCacheConfig.GROUP_MEMBERS_REGION, groupId);
+        });
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
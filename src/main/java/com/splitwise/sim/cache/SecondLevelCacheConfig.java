@@ -0,0 +1,76 @@
+package com.splitwise.sim.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache for users, groups and group membership, held in-process by
+ * Caffeine through JCache. Every region is created here with a size and TTL bound, and
+ * Hibernate is told to fail on any region it would otherwise create unbounded.
+ * Hit/miss counts are published as cache.gets{cache=region,result=hit|miss}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String USER_REGION = User.class.getName();
+    public static final String GROUP_REGION = Group.class.getName();
+    public static final String GROUP_MEMBERS_REGION = Group.class.getName() + ".members";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${app.cache.user-max-entries:50000}") long userMaxEntries,
+                                                @Value("${app.cache.group-max-entries:20000}") long groupMaxEntries,
+                                                @Value("${app.cache.ttl:PT10M}") Duration ttl,
+                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        // Own provider instance rather than the JVM-wide one from Caching, so the manager is not
+        // shared with other JCache users or with a second application context in the same JVM
+        CacheManager cacheManager = new CaffeineCachingProvider()
+                .getCacheManager(URI.create("splitwise-second-level"), getClass().getClassLoader());
+
+        createRegion(cacheManager, USER_REGION, userMaxEntries, ttl);
+        createRegion(cacheManager, GROUP_REGION, groupMaxEntries, ttl);
+        createRegion(cacheManager, GROUP_MEMBERS_REGION, groupMaxEntries, ttl);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            for (String region : List.of(USER_REGION, GROUP_REGION, GROUP_MEMBERS_REGION)) {
+                JCacheMetrics.monitor(registry, cacheManager.getCache(region));
+            }
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String region, long maxEntries, Duration ttl) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
@@ -0,0 +1,36 @@
+package com.splitwise.sim.config;
+
+import com.splitwise.sim.id.SnowflakeIdGenerator;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class IdGeneratorConfig {
+
+    // Must be unique per running instance; two instances sharing one would issue the same keys
+    @Value("${app.id.node-id:-1}")
+    private long nodeId;
+
+    /**
+     * The shared generator is set up before JPA starts, so no entity can be persisted without it
+     */
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor entityManagerFactoryDependsOnIdGenerator() {
+        return new EntityManagerFactoryDependsOnPostProcessor(IdGeneratorConfig.class);
+    }
+
+    @PostConstruct
+    public void configureNodeId() {
+        if (nodeId < 0) {
+            throw new IllegalStateException("app.id.node-id is not set: give every instance its own node id (0-"
+                    + SnowflakeIdGenerator.MAX_NODE_ID + ") through APP_NODE_ID");
+        }
+        SnowflakeIdGenerator.configureShared(nodeId);
+        log.info("Snowflake ID generator node id={}", nodeId);
+    }
+}
@@ -2,6 +2,7 @@ package com.splitwise.sim.config;
 
 import com.splitwise.sim.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -16,6 +17,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfigurationSource;
 
 @Configuration
@@ -28,6 +30,10 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final CorsConfigurationSource corsConfigurationSource;
 
+    // Set when the actuator runs on its own port (management.server.port)
+    @Value("${management.server.port:#{null}}")
+    private Integer managementPort;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -62,16 +68,27 @@ public class SecurityConfig {
 
                 // Authorization rules
                 .authorizeHttpRequests(auth -> auth
+                        // Only the actuator is served on the management port, which is not exposed publicly;
+                        // scrapers reach /actuator/prometheus there. On the application port it needs a
+                        // logged-in user like the rest of the API.
+                        .requestMatchers(onManagementPort()).permitAll()
+
                         // Public endpoints
                         .requestMatchers(
                                 "/api/v1/auth/**",
                                 "/actuator/health",
                                 "/actuator/info",
+                                "/livez",
+                                "/readyz",
                                 "/v3/api-docs/**",
                                 "/swagger-ui/**",
                                 "/swagger-ui.html"
                         ).permitAll()
 
+                        // Flight recordings hold heap and thread details of every user's requests:
+                        // management port only, whoever is logged in
+                        .requestMatchers("/actuator/jfr", "/actuator/jfr/**").denyAll()
+
                         // All other endpoints require authentication
                         .anyRequest().authenticated()
                 )
@@ -82,4 +99,8 @@ public class SecurityConfig {
 
         return http.build();
     }
-}
\ No newline at end of file
+
+    private RequestMatcher onManagementPort() {
+        return request -> managementPort != null && request.getLocalPort() == managementPort;
+    }
+}
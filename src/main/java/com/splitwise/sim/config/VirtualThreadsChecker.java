@@ -0,0 +1,46 @@
+package com.splitwise.sim.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.system.JavaVersion;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * spring.threads.virtual.enabled (the "virtual" profile) needs a Java 21 runtime. Spring Boot
+ * silently stays on platform threads otherwise, so refuse to start instead.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadsChecker {
+
+    private final Environment environment;
+
+    @PostConstruct
+    public void check() {
+        boolean requested = environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (requested && !Threading.VIRTUAL.isActive(environment)) {
+            throw new IllegalStateException("spring.threads.virtual.enabled needs Java 21 or later, running on "
+                    + JavaVersion.getJavaVersion());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return;
+        }
+        log.info("Requests, scheduled jobs and outbox workers run on virtual threads; concurrency is bounded by the "
+                + "connection pool ({} connections)",
+                environment.getProperty("spring.datasource.hikari.maximum-pool-size", "10"));
+        if (System.getProperty("jdk.tracePinnedThreads") == null) {
+            log.info("Start with -Djdk.tracePinnedThreads=short to log virtual threads pinned by synchronized blocks");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.splitwise.sim.config;
 
+import com.splitwise.sim.web.ConditionalGetInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
@@ -8,6 +9,7 @@ import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.util.Arrays;
@@ -46,6 +48,19 @@ public class WebConfig {
         };
     }
 
+    /**
+     * ETag / If-None-Match handling for @ConditionalGet endpoints
+     */
+    @Bean
+    public WebMvcConfigurer conditionalGetConfigurer(ConditionalGetInterceptor conditionalGetInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(@NonNull InterceptorRegistry registry) {
+                registry.addInterceptor(conditionalGetInterceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+
     /**
      * CORS Configuration Source
      * This provides fine-grained CORS control
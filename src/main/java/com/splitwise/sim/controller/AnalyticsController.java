@@ -1,5 +1,6 @@
 package com.splitwise.sim.controller;
 
+import com.splitwise.sim.dto.analytics.ConsolidatedDebtsResponse;
 import com.splitwise.sim.dto.analytics.GroupDebtDto;
 import com.splitwise.sim.dto.analytics.MonthlyExpenseSummary;
 import com.splitwise.sim.service.AnalyticsService;
@@ -31,6 +32,18 @@ public class AnalyticsController {
     }
 
 
+    /**
+     * Net debts across all of my groups
+     * GET /api/v1/analytics/debts?simplify=true
+     */
+    @GetMapping("/debts")
+    public ResponseEntity<ConsolidatedDebtsResponse> getConsolidatedDebts(
+            @RequestParam(defaultValue = "false") boolean simplify,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        return ResponseEntity.ok(analyticsService.getConsolidatedDebts(userId, simplify));
+    }
+
     @GetMapping("/group/{groupId}/settlements")
     public ResponseEntity<List<GroupDebtDto>> getGroupSettlements(@PathVariable Long groupId) {
         return ResponseEntity.ok(analyticsService.calculateGroupDebts(groupId));
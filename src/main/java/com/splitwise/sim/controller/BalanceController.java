@@ -0,0 +1,44 @@
+package com.splitwise.sim.controller;
+
+import com.splitwise.sim.dto.balance.PairBalanceResponse;
+import com.splitwise.sim.service.PairBalanceService;
+import com.splitwise.sim.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/balances")
+@RequiredArgsConstructor
+public class BalanceController {
+
+    private final PairBalanceService pairBalanceService;
+    private final UserService userService;
+
+    /**
+     * Everyone I have a non-zero balance with
+     * GET /api/v1/balances
+     */
+    @GetMapping
+    public ResponseEntity<List<PairBalanceResponse>> getMyBalances(
+            @AuthenticationPrincipal UserDetails userDetails) {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        return ResponseEntity.ok(pairBalanceService.getNonZeroBalances(userId));
+    }
+
+    /**
+     * Overall balance with one user
+     * GET /api/v1/balances/with/{userId}
+     */
+    @GetMapping("/with/{userId}")
+    public ResponseEntity<PairBalanceResponse> getBalanceWith(
+            @PathVariable Long userId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        Long myUserId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        return ResponseEntity.ok(pairBalanceService.getBalanceWith(myUserId, userId));
+    }
+}
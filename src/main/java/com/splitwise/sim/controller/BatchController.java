@@ -0,0 +1,34 @@
+package com.splitwise.sim.controller;
+
+import com.splitwise.sim.dto.batch.BatchRequest;
+import com.splitwise.sim.dto.batch.BatchResponse;
+import com.splitwise.sim.service.BatchService;
+import com.splitwise.sim.service.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/batch")
+@RequiredArgsConstructor
+public class BatchController {
+    private final BatchService batchService;
+    private final UserService userService;
+
+    /**
+     * Run queued expense, settlement and friend writes in one request; see BatchService
+     * POST /api/v1/batch
+     */
+    @PostMapping
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest request,
+                                                      @AuthenticationPrincipal UserDetails userDetails) {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        return ResponseEntity.ok(batchService.execute(request, userId));
+    }
+}
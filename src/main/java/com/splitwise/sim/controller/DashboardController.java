@@ -0,0 +1,30 @@
+package com.splitwise.sim.controller;
+
+import com.splitwise.sim.dto.dashboard.DashboardResponse;
+import com.splitwise.sim.service.DashboardService;
+import com.splitwise.sim.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@RequiredArgsConstructor
+public class DashboardController {
+    private final DashboardService dashboardService;
+    private final UserService userService;
+
+    /**
+     * Profile, balance, groups with the user's net, friend count and recent activity in one call
+     * GET /api/v1/dashboard
+     */
+    @GetMapping
+    public ResponseEntity<DashboardResponse> getDashboard(@AuthenticationPrincipal UserDetails userDetails) {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        return ResponseEntity.ok(dashboardService.getDashboard(userId));
+    }
+}
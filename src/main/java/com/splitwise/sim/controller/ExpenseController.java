@@ -2,15 +2,21 @@ package com.splitwise.sim.controller;
 
 import com.splitwise.sim.dto.expense.CreateExpenseRequest;
 import com.splitwise.sim.dto.expense.ExpenseResponse;
+import com.splitwise.sim.dto.expense.ImportResultResponse;
+import com.splitwise.sim.service.ExpenseImportService;
 import com.splitwise.sim.service.ExpenseSplitService;
 import com.splitwise.sim.service.UserService;
+import com.splitwise.sim.web.ConditionalGet;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -18,6 +24,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ExpenseController {
     private final ExpenseSplitService expenseSplitService;
+    private final ExpenseImportService expenseImportService;
     private final UserService userService;
 
     @PostMapping
@@ -28,7 +35,42 @@ public class ExpenseController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    /**
+     * Bulk import from a JSON array or CSV (text/csv)
+     * POST /api/v1/expenses/import?mode=batch|copy
+     */
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ResponseEntity<ImportResultResponse> importExpenses(HttpServletRequest request,
+                                                               @RequestParam(defaultValue = "batch") String mode,
+                                                               @AuthenticationPrincipal UserDetails userDetails)
+            throws IOException {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        boolean useCopy = "copy".equalsIgnoreCase(mode);
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.startsWith("text/csv")) {
+            return ResponseEntity.ok(expenseImportService.importCsv(request.getInputStream(), userId, useCopy));
+        }
+        return ResponseEntity.ok(expenseImportService.importJson(request.getInputStream(), userId, useCopy));
+    }
+
+    @PutMapping("/{expenseId}")
+    public ResponseEntity<ExpenseResponse> updateExpense(@PathVariable Long expenseId,
+                                                         @Valid @RequestBody CreateExpenseRequest request,
+                                                         @AuthenticationPrincipal UserDetails userDetails) {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        return ResponseEntity.ok(expenseSplitService.updateExpense(expenseId, request, userId));
+    }
+
+    @DeleteMapping("/{expenseId}")
+    public ResponseEntity<Void> deleteExpense(@PathVariable Long expenseId,
+                                              @AuthenticationPrincipal UserDetails userDetails) {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        expenseSplitService.deleteExpense(expenseId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/group/{groupId}")
+    @ConditionalGet(ConditionalGet.Scope.GROUP)
     public ResponseEntity<List<ExpenseResponse>> getGroupExpenses(@PathVariable Long groupId) {
         return ResponseEntity.ok(expenseSplitService.getGroupExpenses(groupId));
     }
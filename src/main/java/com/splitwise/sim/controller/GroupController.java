@@ -5,13 +5,16 @@ import com.splitwise.sim.dto.group.BalanceResponse;
 import com.splitwise.sim.dto.group.GroupResponse;
 import com.splitwise.sim.service.GroupService;
 import com.splitwise.sim.service.UserService;
+import com.splitwise.sim.web.ConditionalGet;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -47,7 +50,13 @@ public class GroupController {
     }
 
     @GetMapping("/{groupId}/balance")
-    public ResponseEntity<List<BalanceResponse>> getGroupBalances(@PathVariable Long groupId) {
+    @ConditionalGet(ConditionalGet.Scope.GROUP)
+    public ResponseEntity<List<BalanceResponse>> getGroupBalances(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        if (asOf != null) {
+            return ResponseEntity.ok(groupService.calculateGroupBalance(groupId, asOf));
+        }
         return ResponseEntity.ok(groupService.calculateGroupBalance(groupId));
     }
 }
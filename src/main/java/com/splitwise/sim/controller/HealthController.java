@@ -1,5 +1,9 @@
 package com.splitwise.sim.controller;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,14 +15,22 @@ import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1")
+@RequiredArgsConstructor
 public class HealthController {
 
+    private final HealthEndpoint healthEndpoint;
+
+    /**
+     * Aggregated actuator health (database, disk space); 503 when not UP
+     */
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> health() {
+        Status status = healthEndpoint.health().getStatus();
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", status.getCode());
         response.put("timestamp", LocalDateTime.now().toString());
         response.put("service", "SplitWise Backend");
-        return ResponseEntity.ok(response);
+        HttpStatus httpStatus = Status.UP.equals(status) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(httpStatus).body(response);
     }
-}
\ No newline at end of file
+}
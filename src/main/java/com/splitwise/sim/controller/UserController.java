@@ -51,6 +51,17 @@ public class UserController {
         return ResponseEntity.ok(userService.updateProfile(userId, request));
     }
 
+    /**
+     * Deactivate my account
+     * DELETE /api/v1/users/me
+     */
+    @DeleteMapping("/me")
+    public ResponseEntity<Void> deactivateMyAccount(@AuthenticationPrincipal UserDetails userDetails) {
+        Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        userService.deactivateUser(userId);
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Search for users
      * GET /api/v1/users/search?q=john
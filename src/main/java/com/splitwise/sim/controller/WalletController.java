@@ -4,11 +4,14 @@ import com.splitwise.sim.dto.wallet.TransactionResponse;
 import com.splitwise.sim.dto.wallet.WalletBalanceResponse;
 import com.splitwise.sim.service.LedgerService;
 import com.splitwise.sim.service.UserService;
+import com.splitwise.sim.web.ConditionalGet;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -19,14 +22,25 @@ public class WalletController {
     private final UserService userService;
 
     @GetMapping("/balance")
-    public ResponseEntity<WalletBalanceResponse> getBalance(@AuthenticationPrincipal UserDetails userDetails) {
+    @ConditionalGet(ConditionalGet.Scope.USER)
+    public ResponseEntity<WalletBalanceResponse> getBalance(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf,
+            @AuthenticationPrincipal UserDetails userDetails) {
         Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        if (asOf != null) {
+            return ResponseEntity.ok(ledgerService.getBalance(userId, asOf));
+        }
         return ResponseEntity.ok(ledgerService.getBalance(userId));
     }
 
     @GetMapping("/transactions")
-    public ResponseEntity<List<TransactionResponse>> getTransactions(@AuthenticationPrincipal UserDetails userDetails) {
+    public ResponseEntity<List<TransactionResponse>> getTransactions(
+            @RequestParam(required = false) Long groupId,
+            @AuthenticationPrincipal UserDetails userDetails) {
         Long userId = userService.getUserByUsername(userDetails.getUsername()).getId();
+        if (groupId != null) {
+            return ResponseEntity.ok(ledgerService.getGroupTransactionHistory(userId, groupId));
+        }
         return ResponseEntity.ok(ledgerService.getTransactionHistory(userId));
     }
 }
@@ -0,0 +1,121 @@
+package com.splitwise.sim.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Keeps a user's reads on the primary for a short window after they changed something,
+ * so they never see a replica that has not caught up with their own write yet.
+ * The write itself and everything else in a mutating request also stay on the primary.
+ *
+ * Last-write times are kept in memory, so the window holds per application instance.
+ * Runs after the security filter chain, which resolves the user.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final int PURGE_THRESHOLD = 10_000;
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final long windowNanos;
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesFilter(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED.get());
+    }
+
+    /**
+     * Sends the rest of the current request to the primary, for reads that have to agree with
+     * one already made there. Returns false when the request was pinned already.
+     */
+    public static boolean pinToPrimary() {
+        if (isPinnedToPrimary()) {
+            return false;
+        }
+        PINNED.set(true);
+        return true;
+    }
+
+    /**
+     * Undoes {@link #pinToPrimary()}; this filter clears the pin itself, but it is only
+     * installed when the replica is enabled
+     */
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    /**
+     * Wraps work handed to another thread so it is routed like the request that submitted it
+     */
+    public static <T> Supplier<T> withCurrentPinning(Supplier<T> task) {
+        boolean pinned = isPinnedToPrimary();
+        return () -> {
+            PINNED.set(pinned);
+            try {
+                return task.get();
+            } finally {
+                PINNED.remove();
+            }
+        };
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String user = currentUser();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        PINNED.set(write || recentlyWrote(user));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            PINNED.remove();
+        }
+
+        if (write && user != null && response.getStatus() < 400) {
+            recordWrite(user);
+        }
+    }
+
+    boolean recentlyWrote(String user) {
+        if (user == null) {
+            return false;
+        }
+        Long writtenAt = lastWrites.get(user);
+        return writtenAt != null && System.nanoTime() - writtenAt < windowNanos;
+    }
+
+    void recordWrite(String user) {
+        long now = System.nanoTime();
+        lastWrites.put(user, now);
+        if (lastWrites.size() > PURGE_THRESHOLD) {
+            lastWrites.values().removeIf(writtenAt -> now - writtenAt >= windowNanos);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,72 @@
+package com.splitwise.sim.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Primary/replica split, enabled with app.datasource.replica.enabled=true.
+ *
+ * Both pools live inside the routing DataSource, which is the only DataSource bean, so JPA,
+ * the bulk loader and the health check all go through it. Pool metrics are registered
+ * here since Boot's Hikari metrics cannot see through the routing layer.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties primaryProperties, ReplicaProperties replicaProperties,
+                                               Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        bind(environment, "spring.datasource.hikari", primary);
+        primary.setPoolName("primary");
+
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(primaryProperties.determineDriverClassName())
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword())
+                .build();
+        // Start even when the replica is down; routing falls back to the primary
+        replica.setInitializationFailTimeout(-1);
+        bind(environment, "app.datasource.replica.hikari", replica);
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            primary.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+
+        ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(primary, replica, replicaProperties.getMaxLag());
+        if (registry != null) {
+            dataSource.bindMetrics(registry);
+        }
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties replicaProperties) {
+        return new ReadYourWritesFilter(replicaProperties.getReadYourWritesWindow());
+    }
+
+    private static void bind(Environment environment, String prefix, HikariDataSource pool) {
+        Binder.get(environment).bind(prefix, Bindable.ofInstance(pool));
+    }
+}
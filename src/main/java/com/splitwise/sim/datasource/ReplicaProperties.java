@@ -0,0 +1,33 @@
+package com.splitwise.sim.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Read replica connection and routing settings (app.datasource.replica.*).
+ * Pool settings go under app.datasource.replica.hikari, like spring.datasource.hikari.
+ */
+@ConfigurationProperties(prefix = "app.datasource.replica")
+@Getter
+@Setter
+public class ReplicaProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    // Replication lag above which read-only transactions go back to the primary
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    private Duration lagCheckInterval = Duration.ofSeconds(5);
+
+    // How long a user's reads stay on the primary after one of their writes
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+}
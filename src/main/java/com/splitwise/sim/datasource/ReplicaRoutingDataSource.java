@@ -0,0 +1,151 @@
+package com.splitwise.sim.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Sends read-only transactions to the replica pool and everything else to the primary.
+ *
+ * The replica is skipped when its replication lag is above the limit, when it cannot be
+ * reached, and for requests pinned by {@link ReadYourWritesFilter}. Routing is decided when
+ * the first statement runs: the lazy proxy holds the physical connection back until then, by
+ * which time the transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    // Lag is the replay delay while the replica is catching up; an idle but caught-up replica has none
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    public enum Route { PRIMARY, REPLICA }
+
+    private final HikariDataSource primary;
+    private final HikariDataSource replica;
+    private final Duration maxLag;
+
+    private volatile boolean replicaUsable;
+    // Seconds; negative while the replica is unreachable
+    private volatile double replicaLagSeconds = -1;
+
+    private Counter primaryRoutes;
+    private Counter replicaRoutes;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, HikariDataSource replica, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLag = maxLag;
+        // Outside a transaction the router picks the primary, so afterPropertiesSet reads connection defaults there
+        setTargetDataSource(new Router());
+        checkReplicaLag();
+    }
+
+    public void bindMetrics(MeterRegistry registry) {
+        primaryRoutes = Counter.builder("splitwise.datasource.routed")
+                .description("Physical connections handed out, by pool")
+                .tag("route", "primary")
+                .register(registry);
+        replicaRoutes = Counter.builder("splitwise.datasource.routed")
+                .description("Physical connections handed out, by pool")
+                .tag("route", "replica")
+                .register(registry);
+        Gauge.builder("splitwise.datasource.replica.lag", this, ds -> ds.replicaLagSeconds)
+                .description("Replication lag in seconds, -1 when the replica is unreachable")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    public Route currentRoute() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || ReadYourWritesFilter.isPinnedToPrimary()
+                || !replicaUsable) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:PT5S}")
+    public void checkReplicaLag() {
+        double lag;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            result.next();
+            lag = result.getDouble(1);
+        } catch (SQLException | RuntimeException e) {
+            markReplicaUnreachable(e);
+            return;
+        }
+
+        replicaLagSeconds = lag;
+        boolean usable = lag <= maxLag.toMillis() / 1000.0;
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("Read replica in use (lag {}s)", lag);
+            } else {
+                log.warn("Read replica lag {}s is above {}; reads go to the primary", lag, maxLag);
+            }
+        }
+        replicaUsable = usable;
+    }
+
+    private void markReplicaUnreachable(Exception e) {
+        if (replicaUsable || replicaLagSeconds >= 0) {
+            log.warn("Read replica unreachable, reads go to the primary: {}", e.getMessage());
+        }
+        replicaUsable = false;
+        replicaLagSeconds = -1;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primary.close();
+    }
+
+    /**
+     * Picks the pool per physical connection; a replica that fails to connect falls back to the primary
+     */
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (currentRoute() == Route.REPLICA) {
+                try {
+                    Connection connection = replica.getConnection();
+                    if (replicaRoutes != null) {
+                        replicaRoutes.increment();
+                    }
+                    return connection;
+                } catch (SQLException | RuntimeException e) {
+                    markReplicaUnreachable(e);
+                }
+            }
+            Connection connection = primary.getConnection();
+            if (primaryRoutes != null) {
+                primaryRoutes.increment();
+            }
+            return connection;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            throw new UnsupportedOperationException("Credentials come from the pool configuration");
+        }
+    }
+}
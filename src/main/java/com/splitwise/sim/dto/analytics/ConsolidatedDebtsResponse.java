@@ -0,0 +1,22 @@
+package com.splitwise.sim.dto.analytics;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ConsolidatedDebtsResponse {
+    private Long userId;
+    private Integer groupCount;
+    private Boolean simplified;
+    private BigDecimal totalYouOwe;
+    private BigDecimal totalOwedToYou;
+    private List<GroupDebtDto> debts;
+}
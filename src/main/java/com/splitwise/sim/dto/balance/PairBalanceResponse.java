@@ -0,0 +1,20 @@
+package com.splitwise.sim.dto.balance;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PairBalanceResponse {
+    private Long counterpartyId;
+    private String counterpartyUsername;
+    private BigDecimal netAmount; // positive = they owe you, negative = you owe them
+    private LocalDateTime updatedAt;
+}
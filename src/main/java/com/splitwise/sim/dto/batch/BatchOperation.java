@@ -0,0 +1,37 @@
+package com.splitwise.sim.dto.batch;
+
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.settlement.SettlementRequest;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One write of a batch; only the fields its type needs are read
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchOperation {
+
+    public enum Type { CREATE_EXPENSE, UPDATE_EXPENSE, DELETE_EXPENSE, SETTLE_UP, ADD_FRIEND }
+
+    @NotNull(message = "Operation type is required")
+    private Type type;
+
+    // UPDATE_EXPENSE, DELETE_EXPENSE
+    private Long expenseId;
+
+    // CREATE_EXPENSE, UPDATE_EXPENSE: same body as POST/PUT /api/v1/expenses
+    @Valid
+    private CreateExpenseRequest expense;
+
+    // SETTLE_UP: same body as POST /api/v1/settlements
+    @Valid
+    private SettlementRequest settlement;
+
+    // ADD_FRIEND
+    private Long friendId;
+}
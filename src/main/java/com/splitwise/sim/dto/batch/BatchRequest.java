@@ -0,0 +1,23 @@
+package com.splitwise.sim.dto.batch;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchRequest {
+
+    // All operations commit together, or none does
+    private boolean atomic;
+
+    // Run in the given order
+    @NotEmpty(message = "At least one operation is required")
+    private List<@Valid @NotNull BatchOperation> operations;
+}
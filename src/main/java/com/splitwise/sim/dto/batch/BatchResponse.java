@@ -0,0 +1,28 @@
+package com.splitwise.sim.dto.batch;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data @Builder
+public class BatchResponse {
+    private Boolean atomic;
+    private Integer succeeded;
+    private Integer failed;
+    // One per operation, in request order
+    private List<OperationResult> results;
+
+    /**
+     * Status and body the operation's own endpoint would have answered with; failures carry
+     * the error message instead of a body
+     */
+    @Data @Builder
+    public static class OperationResult {
+        private Integer index;
+        private BatchOperation.Type type;
+        private Integer status;
+        private Object body;
+        private String error;
+    }
+}
@@ -0,0 +1,23 @@
+package com.splitwise.sim.dto.dashboard;
+
+import com.splitwise.sim.dto.group.GroupSummaryResponse;
+import com.splitwise.sim.dto.user.UserProfileResponse;
+import com.splitwise.sim.dto.wallet.TransactionResponse;
+import com.splitwise.sim.dto.wallet.WalletBalanceResponse;
+import lombok.Builder;
+import lombok.Data;
+import java.util.List;
+
+/**
+ * Everything the app shows on start. A part that failed or did not finish in time is null
+ * and listed in unavailable, so the client can fetch it from its own endpoint.
+ */
+@Data @Builder
+public class DashboardResponse {
+    private UserProfileResponse profile;
+    private WalletBalanceResponse balance;
+    private List<GroupSummaryResponse> groups;
+    private Integer friendCount;
+    private List<TransactionResponse> recentActivity;
+    private List<String> unavailable;
+}
@@ -0,0 +1,17 @@
+package com.splitwise.sim.dto.expense;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of a bulk import: a regular expense plus who paid it
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class ImportExpenseRow extends CreateExpenseRequest {
+
+    // Defaults to the importing user when empty
+    private Long paidByUserId;
+}
@@ -0,0 +1,21 @@
+package com.splitwise.sim.dto.expense;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data @Builder
+public class ImportResultResponse {
+    private Integer totalRows;
+    private Integer imported;
+    private Integer failed;
+    private Long durationMs;
+    private List<RowError> errors;
+
+    @Data @Builder
+    public static class RowError {
+        private Integer row;
+        private String message;
+    }
+}
@@ -0,0 +1,14 @@
+package com.splitwise.sim.dto.group;
+
+import lombok.Builder;
+import lombok.Data;
+import java.math.BigDecimal;
+
+@Data @Builder
+public class GroupSummaryResponse {
+    private Long id;
+    private String name;
+    private Integer memberCount;
+    // The user's net position in the group: positive = they are owed
+    private BigDecimal netBalance;
+}
@@ -3,6 +3,7 @@ package com.splitwise.sim.dto.wallet;
 import lombok.Builder;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Data @Builder
 public class WalletBalanceResponse {
@@ -10,4 +11,5 @@ public class WalletBalanceResponse {
     private String username;
     private BigDecimal balance;
     private String currency;
+    private LocalDateTime asOf;
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.splitwise.sim.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of a balance at a point in time.
+ * group == null -> wallet balance of the user
+ * group != null -> net position of the user inside that group
+ */
+@Entity
+@Table(name = "balance_checkpoints", indexes = {
+        @Index(name = "idx_checkpoint_user_at", columnList = "user_id, checkpoint_at"),
+        @Index(name = "idx_checkpoint_group_at", columnList = "group_id, checkpoint_at")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BalanceCheckpoint {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id")
+    private Group group;
+
+    @Column(nullable = false, precision = 25, scale = 6)
+    private BigDecimal balance;
+
+    @Column(name = "checkpoint_at", nullable = false)
+    private LocalDateTime checkpointAt;
+}
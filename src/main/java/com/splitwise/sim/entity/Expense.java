@@ -1,5 +1,6 @@
 package com.splitwise.sim.entity;
 
+import com.splitwise.sim.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -20,7 +21,7 @@ import java.util.Set;
 public class Expense {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(nullable = false)
@@ -55,6 +56,10 @@ public class Expense {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Soft delete: ledger rows keep pointing at the expense for audit
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     public enum SplitType {
         EQUAL, EXACT, PERCENTAGE
     }
@@ -0,0 +1,51 @@
+package com.splitwise.sim.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * A side effect of a committed write, delivered later by the outbox dispatcher.
+ * Written in the same transaction as the change it describes.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {
+        @Index(name = "idx_outbox_pending", columnList = "published_at, group_id, id")
+})
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class OutboxEvent {
+    // IDENTITY rather than Snowflake: the sequence follows commit order within a group,
+    // whichever instance wrote the event, and delivery order is id order
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String eventType;
+
+    // Ordering key; 0 for events outside any group
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    // Set while a dispatcher delivers the event outside any transaction; others skip it until then
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+}
@@ -0,0 +1,47 @@
+package com.splitwise.sim.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running net balance between two users, kept in canonical order (userLow.id < userHigh.id).
+ * Positive netAmount = userHigh owes userLow
+ * Negative netAmount = userLow owes userHigh
+ *
+ * A pair can be split over several stripe rows (see HotPairDetector); its balance is the sum.
+ */
+@Entity
+@Table(name = "pair_balances",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pair_balance_users", columnNames = {"user_low", "user_high", "stripe"}),
+        indexes = @Index(name = "idx_pair_balance_user_high", columnList = "user_high"))
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class PairBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_low", nullable = false)
+    private User userLow;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_high", nullable = false)
+    private User userHigh;
+
+    @Column(name = "stripe", nullable = false, columnDefinition = "integer default 0")
+    private int stripe;
+
+    @Column(name = "net_amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal netAmount;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Incremented by the upsert as well, so an entity-based repair loses against concurrent updates
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+}
@@ -0,0 +1,20 @@
+package com.splitwise.sim.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Per-user change counter, bumped whenever a ledger row is written for the user.
+ * Backs the wallet ETags; kept out of the users table so ledger writes never touch cached User rows.
+ */
+@Entity
+@Table(name = "user_versions")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class UserVersion {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+}
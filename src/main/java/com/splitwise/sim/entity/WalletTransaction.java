@@ -1,5 +1,6 @@
 package com.splitwise.sim.entity;
 
+import com.splitwise.sim.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.data.annotation.CreatedDate;
@@ -8,12 +9,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wallet_transactions")
+@Table(name = "wallet_transactions", indexes = {
+        @Index(name = "idx_wallet_txn_group_user", columnList = "group_id, user_id"),
+        @Index(name = "idx_wallet_txn_user_counterparty", columnList = "user_id, counterparty_id"),
+        // Keyset pages of a user's history (ids are time-ordered Snowflake ids)
+        @Index(name = "idx_wallet_txn_user_id", columnList = "user_id, id")
+})
 @EntityListeners(AuditingEntityListener.class)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class WalletTransaction {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @ManyToOne
@@ -35,6 +41,11 @@ public class WalletTransaction {
     @JoinColumn(name = "expense_id")
     private Expense expense;
 
+    // Group the money moved in (expense split or settlement); null for legacy rows
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "group_id")
+    private Group group;
+
     @Column(columnDefinition = "TEXT")
     private String description;
 
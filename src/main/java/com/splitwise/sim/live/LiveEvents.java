@@ -0,0 +1,22 @@
+package com.splitwise.sim.live;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Event names pushed on /api/v1/reactive/events besides the outbox ones
+ * (EXPENSE_CREATED, EXPENSE_UPDATED, EXPENSE_DELETED, SETTLEMENT_COMPLETED, same payloads)
+ */
+public final class LiveEvents {
+
+    public static final String BALANCE_CHANGED = "BALANCE_CHANGED";
+
+    private LiveEvents() {
+    }
+
+    /**
+     * Change of each member's net balance in the group made by one committed write;
+     * add it to the last fetched group balance
+     */
+    public record BalanceChanged(Long groupId, Map<Long, BigDecimal> deltas) {}
+}
@@ -0,0 +1,159 @@
+package com.splitwise.sim.live;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process fan-out of live updates to the users' open event streams.
+ *
+ * Every stream has a bounded buffer that the response drains as fast as the client reads.
+ * Publishing never blocks: an event that does not fit evicts the stream, which then ends so the
+ * client reconnects and refetches. Heartbeats go through the same buffer, so a client that
+ * stopped reading is evicted within buffer-size heartbeats even when nothing else happens.
+ */
+@Component
+@Slf4j
+public class LiveUpdateBroker {
+
+    private static final ServerSentEvent<Object> HEARTBEAT = ServerSentEvent.builder().comment("heartbeat").build();
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final int bufferSize;
+    private final Duration reconnectDelay;
+    private final Counter evictions;
+    private final Counter delivered;
+    private final Disposable heartbeats;
+
+    public LiveUpdateBroker(MeterRegistry registry,
+                            @Value("${app.live.buffer-size:64}") int bufferSize,
+                            @Value("${app.live.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+                            @Value("${app.live.reconnect-delay:PT3S}") Duration reconnectDelay) {
+        this.bufferSize = bufferSize;
+        this.reconnectDelay = reconnectDelay;
+        Gauge.builder("splitwise.live.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open live update streams")
+                .register(registry);
+        this.evictions = Counter.builder("splitwise.live.evicted")
+                .description("Live update streams closed because the client fell behind")
+                .register(registry);
+        this.delivered = Counter.builder("splitwise.live.events")
+                .description("Events queued to live update streams")
+                .register(registry);
+        this.heartbeats = Flux.interval(heartbeatInterval, heartbeatInterval).subscribe(tick -> heartbeat());
+    }
+
+    /**
+     * The user's event stream. It is registered when subscribed and removed when the client
+     * disconnects or is evicted.
+     */
+    public Flux<ServerSentEvent<Object>> subscribe(Long userId) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber(userId,
+                    Sinks.many().unicast().onBackpressureBuffer(new ArrayBlockingQueue<>(bufferSize)),
+                    Sinks.empty());
+            subscribers.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+            subscriberCount.incrementAndGet();
+            // Sent right away so the client sees the response before the first event
+            ServerSentEvent<Object> connected = ServerSentEvent.builder()
+                    .comment("connected")
+                    .retry(reconnectDelay)
+                    .build();
+            return subscriber.events().asFlux()
+                    .startWith(connected)
+                    .takeUntilOther(subscriber.evicted().asMono())
+                    .doFinally(signal -> unsubscribe(subscriber));
+        });
+    }
+
+    public boolean hasSubscribers() {
+        return subscriberCount.get() > 0;
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /**
+     * Queues the event on every open stream of the given users; users without one are skipped
+     */
+    public void publish(Collection<Long> userIds, String eventType, Object payload) {
+        ServerSentEvent<Object> event = null;
+        for (Long userId : userIds) {
+            Set<Subscriber> streams = subscribers.get(userId);
+            if (streams == null) {
+                continue;
+            }
+            if (event == null) {
+                event = ServerSentEvent.builder(payload)
+                        .id(Long.toString(sequence.incrementAndGet()))
+                        .event(eventType)
+                        .build();
+            }
+            for (Subscriber subscriber : streams) {
+                emit(subscriber, event);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> emit(subscriber, HEARTBEAT)));
+    }
+
+    private void emit(Subscriber subscriber, ServerSentEvent<Object> event) {
+        Sinks.EmitResult result;
+        // Sinks reject concurrent emitters instead of waiting, so publishers take turns per stream
+        synchronized (subscriber) {
+            result = subscriber.events().tryEmitNext(event);
+        }
+        if (result == Sinks.EmitResult.OK) {
+            delivered.increment();
+        } else if (result == Sinks.EmitResult.FAIL_OVERFLOW
+                && subscriber.evicted().tryEmitEmpty() == Sinks.EmitResult.OK) {
+            evictions.increment();
+            log.debug("Evicted live update stream of user {}: {} events behind", subscriber.userId(), bufferSize);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId(), (userId, streams) -> {
+            if (streams.remove(subscriber)) {
+                subscriberCount.decrementAndGet();
+            }
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    // Ends the streams as shutdown begins, so the web server does not wait for clients to hang up
+    @EventListener(ContextClosedEvent.class)
+    public void shutdown() {
+        heartbeats.dispose();
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> {
+            synchronized (subscriber) {
+                subscriber.events().tryEmitComplete();
+            }
+        }));
+    }
+
+    private record Subscriber(Long userId, Sinks.Many<ServerSentEvent<Object>> events, Sinks.Empty<Void> evicted) {}
+}
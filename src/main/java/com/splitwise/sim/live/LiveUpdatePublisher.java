@@ -0,0 +1,133 @@
+package com.splitwise.sim.live;
+
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.entity.Settlement;
+import com.splitwise.sim.outbox.OutboxEvents;
+import com.splitwise.sim.repository.GroupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Collects the live updates of a write transaction and hands them to the broker once it has
+ * committed, so subscribers never see a change that was rolled back or retried. Updates go to
+ * every member of the group; the balance deltas of a transaction are folded into one event per
+ * group, sent after the expense or settlement events.
+ */
+@Component
+@RequiredArgsConstructor
+public class LiveUpdatePublisher {
+
+    private final LiveUpdateBroker broker;
+    private final GroupRepository groupRepository;
+
+    public void expenseChanged(String eventType, Expense expense) {
+        if (expense.getGroup() != null) {
+            collect(pending -> pending.event(expense.getGroup().getId(), eventType, OutboxEvents.ExpenseChanged.of(expense)));
+        }
+    }
+
+    public void settlementCompleted(Settlement settlement) {
+        if (settlement.getGroup() != null) {
+            collect(pending -> pending.event(settlement.getGroup().getId(), OutboxEvents.SETTLEMENT_COMPLETED,
+                    OutboxEvents.SettlementCompleted.of(settlement)));
+        }
+    }
+
+    // A ledger transfer inside a group: fromUser's balance goes down, toUser's up
+    public void transferRecorded(Long groupId, Long fromUserId, Long toUserId, BigDecimal amount) {
+        if (groupId != null) {
+            collect(pending -> {
+                Map<Long, BigDecimal> deltas = pending.group(groupId).deltas;
+                deltas.merge(fromUserId, amount.negate(), BigDecimal::add);
+                deltas.merge(toUserId, amount, BigDecimal::add);
+            });
+        }
+    }
+
+    private void collect(Consumer<Pending> update) {
+        // Nobody would receive it; skips the member lookup on every write
+        if (!broker.hasSubscribers()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Pending pending = new Pending();
+            update.accept(pending);
+            pending.resolveMembers();
+            pending.publish();
+            return;
+        }
+        Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Pending created = new Pending();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    created.resolveMembers();
+                }
+
+                @Override
+                public void afterCommit() {
+                    created.publish();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LiveUpdatePublisher.this);
+                }
+            });
+            pending = created;
+        }
+        update.accept(pending);
+    }
+
+    private final class Pending {
+        private final Map<Long, GroupUpdates> groups = new LinkedHashMap<>();
+
+        GroupUpdates group(Long groupId) {
+            return groups.computeIfAbsent(groupId, id -> new GroupUpdates());
+        }
+
+        void event(Long groupId, String eventType, Object payload) {
+            group(groupId).events.add(Map.entry(eventType, payload));
+        }
+
+        // Still inside the transaction, so the lookup sees members it added
+        void resolveMembers() {
+            groups.forEach((groupId, updates) -> updates.members = groupRepository.findMemberIds(groupId));
+        }
+
+        void publish() {
+            groups.forEach((groupId, updates) -> {
+                updates.events.forEach(event -> broker.publish(updates.members, event.getKey(), event.getValue()));
+                Map<Long, BigDecimal> deltas = new TreeMap<>();
+                updates.deltas.forEach((userId, delta) -> {
+                    if (delta.signum() != 0) {
+                        deltas.put(userId, delta);
+                    }
+                });
+                if (!deltas.isEmpty()) {
+                    broker.publish(updates.members, LiveEvents.BALANCE_CHANGED,
+                            new LiveEvents.BalanceChanged(groupId, deltas));
+                }
+            });
+        }
+    }
+
+    private static final class GroupUpdates {
+        private final List<Map.Entry<String, Object>> events = new ArrayList<>();
+        private final Map<Long, BigDecimal> deltas = new HashMap<>();
+        private List<Long> members = List.of();
+    }
+}
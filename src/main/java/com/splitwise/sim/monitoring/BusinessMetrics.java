@@ -0,0 +1,58 @@
+package com.splitwise.sim.monitoring;
+
+import com.splitwise.sim.entity.Expense;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Domain counters: expenses created (by split type and write path), participants per
+ * expense and ledger rows written
+ */
+@Component
+public class BusinessMetrics {
+
+    public static final String SOURCE_API = "api";
+    public static final String SOURCE_IMPORT = "import";
+    public static final String SOURCE_COPY = "copy";
+
+    private final MeterRegistry registry;
+    private final DistributionSummary participantsPerExpense;
+    private final Counter ledgerRows;
+
+    public BusinessMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.participantsPerExpense = DistributionSummary.builder("splitwise.expense.participants")
+                .description("Participants per created expense")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(200.0)
+                .register(registry);
+        this.ledgerRows = Counter.builder("splitwise.ledger.rows.written")
+                .description("Wallet transaction rows written (two per double entry)")
+                .register(registry);
+    }
+
+    public void expenseCreated(Expense.SplitType splitType, int participants, String source) {
+        expensesCreated(splitType, participants, 1, source);
+    }
+
+    /**
+     * Several expenses of the same split type and size, as reported by the bulk loader
+     */
+    public void expensesCreated(Expense.SplitType splitType, int participants, long expenses, String source) {
+        Counter.builder("splitwise.expenses.created")
+                .tag("split_type", splitType.name())
+                .tag("source", source)
+                .register(registry)
+                .increment(expenses);
+        for (long i = 0; i < expenses; i++) {
+            participantsPerExpense.record(participants);
+        }
+    }
+
+    public void ledgerRowsWritten(long rows) {
+        ledgerRows.increment(rows);
+    }
+}
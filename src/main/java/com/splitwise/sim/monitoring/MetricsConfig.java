@@ -0,0 +1,22 @@
+package com.splitwise.sim.monitoring;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables @Timed on service classes. Repository invocations (spring.data.repository.invocations),
+ * HTTP requests and the Hikari pool are timed by Spring Boot's own auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    // Shared timer name for the annotated services; class and method are tags
+    public static final String SERVICE_TIMER = "splitwise.service";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
@@ -0,0 +1,143 @@
+package com.splitwise.sim.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the SQL each HTTP request causes (security filters included) and flags requests
+ * that go over their statement budget, which is how lazy-loading N+1s show up.
+ * Counts are published as X-SQL-* response headers and/or per-endpoint metrics.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@RequiredArgsConstructor
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudgetProperties properties;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            HeaderWritingResponse headerWriter = properties.isHeaders()
+                    ? new HeaderWritingResponse(response, scope.stats())
+                    : null;
+            filterChain.doFilter(request, headerWriter != null ? headerWriter : response);
+            if (headerWriter != null) {
+                // Responses without a body (204) never asked for a stream
+                headerWriter.writeHeaders();
+            }
+            report(request, scope.stats());
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStats stats) {
+        if (stats.getStatements() == 0 && stats.getEntityLoads() == 0) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String endpoint = request.getMethod() + " " + uri;
+
+        int budget = properties.budgetFor(endpoint);
+        boolean exceeded = stats.getStatements() > budget;
+        if (exceeded) {
+            log.warn("SQL budget exceeded for {}: {} (budget {} statements)", endpoint, stats, budget);
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (properties.isMetrics() && registry != null) {
+            summary(registry, "sql.request.statements", request, uri).record(stats.getStatements());
+            summary(registry, "sql.request.entity.loads", request, uri).record(stats.getEntityLoads());
+            summary(registry, "sql.request.collection.loads", request, uri).record(stats.getCollectionLoads());
+            if (exceeded) {
+                Counter.builder("sql.request.budget.exceeded")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(registry)
+                        .increment();
+            }
+        }
+    }
+
+    private DistributionSummary summary(MeterRegistry registry, String name, HttpServletRequest request, String uri) {
+        return DistributionSummary.builder(name)
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry);
+    }
+
+    /**
+     * Adds the counts so far as headers just before the response is committed
+     */
+    private static final class HeaderWritingResponse extends HttpServletResponseWrapper {
+        private final SqlStats stats;
+        private boolean written;
+
+        HeaderWritingResponse(HttpServletResponse response, SqlStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        private void writeHeaders() {
+            if (!written && !isCommitted()) {
+                written = true;
+                setHeader("X-SQL-Statements", Long.toString(stats.getStatements()));
+                setHeader("X-SQL-Entity-Loads", Long.toString(stats.getEntityLoads()));
+                setHeader("X-SQL-Collection-Loads", Long.toString(stats.getCollectionLoads()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.splitwise.sim.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-request SQL statement budgets (app.sql-budget.*).
+ * Endpoint keys are "METHOD /route/pattern", e.g. "GET /api/v1/groups/{groupId}/balance".
+ */
+@ConfigurationProperties(prefix = "app.sql-budget")
+@Getter
+@Setter
+public class SqlBudgetProperties {
+
+    // X-SQL-* response headers; meant for local development
+    private boolean headers = false;
+
+    // Per-endpoint distribution summaries of statements, entity loads and collection loads
+    private boolean metrics = true;
+
+    private int defaultStatements = 25;
+
+    private Map<String, Integer> endpoints = new HashMap<>();
+
+    public int budgetFor(String endpoint) {
+        return endpoints.getOrDefault(endpoint, defaultStatements);
+    }
+}
@@ -0,0 +1,93 @@
+package com.splitwise.sim.monitoring;
+
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts SQL statements, entity loads and lazy collection initializations on the current thread.
+ *
+ * Hibernate calls this for every statement it prepares (StatementInspector) and for every entity
+ * and collection it loads (event listeners). Nothing is recorded unless a scope is open, e.g.
+ * <pre>
+ * try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+ *     groupService.calculateGroupBalance(groupId);
+ *     log.info("{}", scope.stats());
+ * }
+ * </pre>
+ */
+public class SqlStatementCounter implements StatementInspector, PostLoadEventListener, InitializeCollectionEventListener {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Starts counting on this thread. Closing the scope adds its counts to the enclosing scope, if any
+     */
+    public static Scope open() {
+        SqlStats previous = CURRENT.get();
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return new Scope(stats, previous);
+    }
+
+    /**
+     * Adds counts gathered on another thread, e.g. by work the current request fanned out
+     */
+    public static void addToCurrent(SqlStats stats) {
+        SqlStats current = CURRENT.get();
+        if (current != null) {
+            current.add(stats);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.recordEntityLoad();
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.recordCollectionLoad();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+        private final SqlStats stats;
+        private final SqlStats previous;
+
+        private Scope(SqlStats stats, SqlStats previous) {
+            this.stats = stats;
+            this.previous = previous;
+        }
+
+        public SqlStats stats() {
+            return stats;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                previous.add(stats);
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
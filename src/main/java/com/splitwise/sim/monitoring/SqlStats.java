@@ -0,0 +1,78 @@
+package com.splitwise.sim.monitoring;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * SQL work done on one thread between SqlStatementCounter.open() and close()
+ */
+@Getter
+public class SqlStats {
+
+    private long statements;
+    private long selects;
+    private long inserts;
+    private long updates;
+    private long deletes;
+    private long entityLoads;
+    private long collectionLoads;
+
+    void recordStatement(String sql) {
+        statements++;
+        String verb = firstWord(sql);
+        switch (verb) {
+            case "select":
+            case "with":
+                selects++;
+                break;
+            case "insert":
+                inserts++;
+                break;
+            case "update":
+                updates++;
+                break;
+            case "delete":
+                deletes++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    void recordEntityLoad() {
+        entityLoads++;
+    }
+
+    void recordCollectionLoad() {
+        collectionLoads++;
+    }
+
+    void add(SqlStats other) {
+        statements += other.statements;
+        selects += other.selects;
+        inserts += other.inserts;
+        updates += other.updates;
+        deletes += other.deletes;
+        entityLoads += other.entityLoads;
+        collectionLoads += other.collectionLoads;
+    }
+
+    private static String firstWord(String sql) {
+        int start = 0;
+        while (start < sql.length() && (Character.isWhitespace(sql.charAt(start)) || sql.charAt(start) == '(')) {
+            start++;
+        }
+        int end = start;
+        while (end < sql.length() && Character.isLetter(sql.charAt(end))) {
+            end++;
+        }
+        return sql.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d statements (%d select, %d insert, %d update, %d delete), %d entity loads, %d collection loads",
+                statements, selects, inserts, updates, deletes, entityLoads, collectionLoads);
+    }
+}
@@ -0,0 +1,38 @@
+package com.splitwise.sim.monitoring;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hooks SqlStatementCounter into Hibernate
+ */
+@Configuration
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class SqlStatsConfig {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementInspector() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, counter);
+    }
+
+    @Bean
+    public SmartInitializingSingleton sqlLoadListeners(EntityManagerFactory entityManagerFactory) {
+        return () -> {
+            EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry()
+                    .getService(EventListenerRegistry.class);
+            registry.appendListeners(EventType.POST_LOAD, counter);
+            registry.appendListeners(EventType.INIT_COLLECTION, counter);
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Always-on flight recording kept in a bounded on-disk ring buffer (max age / max size).
+ * Nothing is written out until a dump is requested, so slow requests can be looked at
+ * after the fact together with GC pauses, lock contention and the Splitwise events.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jfr.enabled", havingValue = "true")
+@Slf4j
+public class ContinuousRecording {
+
+    static final List<String> SENSITIVE_EVENTS = List.of("jdk.InitialEnvironmentVariable", "jdk.InitialSystemProperty");
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String settings;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Path dumpDirectory;
+
+    // Not synchronized: dump() does file I/O, which would pin a virtual carrier thread under a monitor
+    private final ReentrantLock lock = new ReentrantLock();
+    private Recording recording;
+
+    public ContinuousRecording(@Value("${app.jfr.settings:default}") String settings,
+                               @Value("${app.jfr.max-age:PT30M}") Duration maxAge,
+                               @Value("${app.jfr.max-size:250MB}") DataSize maxSize,
+                               @Value("${app.jfr.dump-dir:${java.io.tmpdir}/splitwise-jfr}") Path dumpDirectory) {
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.dumpDirectory = dumpDirectory;
+    }
+
+    @PostConstruct
+    public void start() {
+        lock.lock();
+        try {
+            open();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() {
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Unknown JFR settings: " + settings, e);
+        }
+        // Startup environment variables and system properties would put secrets (JWT key,
+        // database password) into every dump
+        SENSITIVE_EVENTS.forEach(recording::disable);
+        recording.setName("splitwise-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSize.toBytes());
+        recording.start();
+        log.info("Continuous flight recording started ({} settings, max age {}, max size {})", settings, maxAge, maxSize);
+    }
+
+    /**
+     * Writes what the recording currently holds to a new .jfr file and returns its path
+     */
+    public Path dump() {
+        lock.lock();
+        try {
+            if (recording == null) {
+                throw new IllegalStateException("Flight recording is not running");
+            }
+            return writeDump();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Path writeDump() {
+        try {
+            Files.createDirectories(dumpDirectory);
+            Path file = dumpDirectory.resolve("splitwise-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr");
+            recording.dump(file);
+            log.info("Flight recording dumped to {} ({} bytes)", file, Files.size(file));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not dump flight recording", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Expense creation including its participant rows and ledger entries
+ */
+@Name("com.splitwise.ExpenseCreate")
+@Label("Expense Create")
+public class ExpenseCreateEvent extends SplitwiseEvent {
+
+    @Label("Split Type")
+    public String splitType;
+}
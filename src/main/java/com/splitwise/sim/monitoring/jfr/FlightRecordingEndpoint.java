@@ -0,0 +1,29 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/jfr dumps the continuous recording and downloads it, like /actuator/heapdump.
+ * The file is also kept in the dump directory. Open it with JDK Mission Control or `jfr print`.
+ * SecurityConfig only lets it through on the management port.
+ */
+@Component
+@ConditionalOnProperty(name = "app.jfr.enabled", havingValue = "true")
+@WebEndpoint(id = "jfr")
+@RequiredArgsConstructor
+public class FlightRecordingEndpoint {
+
+    private final ContinuousRecording recording;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> dump() {
+        return new WebEndpointResponse<>(new FileSystemResource(recording.dump()), WebEndpointResponse.STATUS_OK);
+    }
+}
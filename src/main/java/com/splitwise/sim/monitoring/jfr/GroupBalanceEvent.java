@@ -0,0 +1,12 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Per-member net balances of a group
+ */
+@Name("com.splitwise.GroupBalance")
+@Label("Group Balance")
+public class GroupBalanceEvent extends SplitwiseEvent {
+}
@@ -0,0 +1,12 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Simplified who-pays-whom settlement plan of a group
+ */
+@Name("com.splitwise.GroupDebts")
+@Label("Group Debts")
+public class GroupDebtsEvent extends SplitwiseEvent {
+}
@@ -0,0 +1,14 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One double entry: two wallet rows plus the pair balance upsert
+ */
+@Name("com.splitwise.LedgerWrite")
+@Label("Ledger Write")
+@StackTrace(false)
+public class LedgerWriteEvent extends SplitwiseEvent {
+}
@@ -0,0 +1,27 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Common fields of the application's flight recorder events. Duration comes from
+ * begin()/commit(); groupId is 0 when the operation is not tied to a group.
+ *
+ * Events are cheap when no recording is running, so they are emitted unconditionally.
+ */
+@Category("Splitwise")
+public abstract class SplitwiseEvent extends Event {
+
+    @Label("Group Id")
+    public long groupId;
+
+    @Label("Participants")
+    @Description("Users involved in the operation")
+    public int participants;
+
+    @Label("Rows Touched")
+    @Description("Rows written, or balance rows produced for reads")
+    public long rows;
+}
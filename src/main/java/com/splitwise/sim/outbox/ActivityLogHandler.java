@@ -0,0 +1,45 @@
+package com.splitwise.sim.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.sim.entity.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Activity log of expenses and settlements, written off the request path
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityLogHandler implements OutboxEventHandler {
+
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Set<String> eventTypes() {
+        return Set.of(OutboxEvents.EXPENSE_CREATED, OutboxEvents.SETTLEMENT_COMPLETED);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        try {
+            if (OutboxEvents.EXPENSE_CREATED.equals(event.getEventType())) {
+                OutboxEvents.ExpenseChanged expense =
+                        objectMapper.readValue(event.getPayload(), OutboxEvents.ExpenseChanged.class);
+                log.info("Created {} expense {}: {} for amount: {}",
+                        expense.splitType(), expense.expenseId(), expense.description(), expense.amount());
+            } else {
+                OutboxEvents.SettlementCompleted settlement =
+                        objectMapper.readValue(event.getPayload(), OutboxEvents.SettlementCompleted.class);
+                log.info("Settlement {} completed: user {} paid {} to user {}",
+                        settlement.settlementId(), settlement.debtorId(), settlement.amount(), settlement.creditorId());
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload of event " + event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.splitwise.sim.outbox;
+
+import com.splitwise.sim.entity.OutboxEvent;
+import com.splitwise.sim.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers outbox events to the registered handlers after the writing transaction committed.
+ *
+ * Each poll hands the groups with due events to a bounded worker pool. A group is worked on by
+ * one worker at a time (in-process set plus a claim lease on its events across instances), and
+ * its events go out in id order: when a delivery fails the event is retried with exponential
+ * backoff and the group's later events wait for it.
+ *
+ * The batch is claimed in a short transaction under an advisory lock, the handlers run with no
+ * transaction or connection held, and each outcome is recorded in a short transaction of its own.
+ * A crash between a handler and its record means redelivery rather than loss; claims left behind
+ * by a crash expire after claim-lease.
+ */
+@Component
+@Slf4j
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Map<String, List<OutboxEventHandler>> handlersByType = new HashMap<>();
+    private final TransactionTemplate shortTransaction;
+    private final int batchSize;
+    private final Duration claimLease;
+    private final int maxGroupsPerPoll;
+    private final Duration retryBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+    private final ThreadPoolExecutor executor;
+    private final Set<Long> groupsInFlight = ConcurrentHashMap.newKeySet();
+
+    private final MeterRegistry registry;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+                            List<OutboxEventHandler> handlers,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry registry,
+                            Environment environment,
+                            @Value("${app.outbox.workers:4}") int workers,
+                            @Value("${app.outbox.batch-size:100}") int batchSize,
+                            @Value("${app.outbox.claim-lease:PT5M}") Duration claimLease,
+                            @Value("${app.outbox.retry-backoff:PT1S}") Duration retryBackoff,
+                            @Value("${app.outbox.max-backoff:PT5M}") Duration maxBackoff,
+                            @Value("${app.outbox.retention:P7D}") Duration retention) {
+        this.outboxEventRepository = outboxEventRepository;
+        for (OutboxEventHandler handler : handlers) {
+            for (String eventType : handler.eventTypes()) {
+                handlersByType.computeIfAbsent(eventType, type -> new ArrayList<>()).add(handler);
+            }
+        }
+        this.shortTransaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.claimLease = claimLease;
+        this.maxGroupsPerPoll = workers * 4;
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+
+        // The pool bounds concurrency either way; in virtual-thread mode its workers are virtual
+        ThreadFactory threadFactory;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            threadFactory = new VirtualThreadTaskExecutor("outbox-").getVirtualThreadFactory();
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "outbox-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxGroupsPerPoll), threadFactory);
+
+        this.registry = registry;
+        Gauge.builder("splitwise.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events not yet delivered")
+                .register(registry);
+        Gauge.builder("splitwise.outbox.lag", oldestPendingMillis, millis -> millis.get() / 1000.0)
+                .description("Age of the oldest undelivered outbox event")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT0.2S}")
+    public void poll() {
+        LocalDateTime now = LocalDateTime.now();
+        refreshLag(now);
+        if (pendingEvents.get() == 0) {
+            return;
+        }
+
+        for (Long groupId : outboxEventRepository.findGroupsWithDueEvents(now, maxGroupsPerPoll)) {
+            if (!groupsInFlight.add(groupId)) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        deliverGroup(groupId);
+                    } catch (RuntimeException e) {
+                        log.warn("Outbox delivery for group {} failed: {}", groupId, e.getMessage());
+                    } finally {
+                        groupsInFlight.remove(groupId);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Workers are saturated; the group comes up again on the next poll
+                groupsInFlight.remove(groupId);
+            }
+        }
+    }
+
+    /**
+     * Delivers the group's due events in order, stopping at the first failure. Called outside a
+     * transaction, so no connection is held while the handlers run.
+     * Returns the number delivered (0 if another instance holds the group).
+     */
+    public int deliverGroup(Long groupId) {
+        List<OutboxEvent> batch = shortTransaction.execute(status -> claim(groupId));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        try {
+            for (OutboxEvent event : batch) {
+                boolean delivered = deliver(event);
+                event.setClaimedUntil(null);
+                shortTransaction.executeWithoutResult(status -> outboxEventRepository.save(event));
+                if (!delivered) {
+                    break;
+                }
+                count++;
+            }
+        } finally {
+            // Later events of the batch wait for the failed one; hand them back for the next poll
+            List<Long> unprocessed = batch.stream()
+                    .filter(event -> event.getClaimedUntil() != null)
+                    .map(OutboxEvent::getId)
+                    .toList();
+            if (!unprocessed.isEmpty()) {
+                shortTransaction.executeWithoutResult(status -> outboxEventRepository.releaseClaims(unprocessed));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Claims the group's leading due events for claim-lease; empty when another instance holds
+     * the advisory lock or a live claim on them
+     */
+    private List<OutboxEvent> claim(Long groupId) {
+        if (!outboxEventRepository.tryLockGroup(groupId)) {
+            return List.of();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> claimed = new ArrayList<>();
+        for (OutboxEvent event : outboxEventRepository.findPendingByGroupId(groupId, PageRequest.of(0, batchSize))) {
+            if (event.getClaimedUntil() != null && event.getClaimedUntil().isAfter(now)) {
+                return List.of();
+            }
+            if (event.getNextAttemptAt().isAfter(now)) {
+                break;
+            }
+            event.setClaimedUntil(now.plus(claimLease));
+            claimed.add(event);
+        }
+        return claimed;
+    }
+
+    private boolean deliver(OutboxEvent event) {
+        List<OutboxEventHandler> handlers = handlersByType.getOrDefault(event.getEventType(), List.of());
+        try {
+            handlers.forEach(handler -> handler.handle(event));
+        } catch (RuntimeException e) {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(e.toString());
+            event.setNextAttemptAt(LocalDateTime.now().plus(backoff(event.getAttempts())));
+            log.warn("Outbox event {} ({}) failed on attempt {}: {}",
+                    event.getId(), event.getEventType(), event.getAttempts(), e.toString());
+            Counter.builder("splitwise.outbox.failed")
+                    .tag("type", event.getEventType())
+                    .register(registry)
+                    .increment();
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        event.setPublishedAt(now);
+        Timer.builder("splitwise.outbox.delivery.lag")
+                .description("Time from writing an outbox event to delivering it")
+                .tag("type", event.getEventType())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(Duration.between(event.getCreatedAt(), now));
+        return true;
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    private void refreshLag(LocalDateTime now) {
+        for (Object[] row : outboxEventRepository.pendingStats()) {
+            pendingEvents.set((Long) row[0]);
+            LocalDateTime oldest = (LocalDateTime) row[1];
+            oldestPendingMillis.set(oldest != null ? Math.max(0, Duration.between(oldest, now).toMillis()) : 0);
+        }
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 15 3 * * *}")
+    @Transactional
+    public void deleteDelivered() {
+        int deleted = outboxEventRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        log.info("Deleted {} delivered outbox events", deleted);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+}
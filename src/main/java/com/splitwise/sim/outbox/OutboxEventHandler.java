@@ -0,0 +1,17 @@
+package com.splitwise.sim.outbox;
+
+import com.splitwise.sim.entity.OutboxEvent;
+
+import java.util.Set;
+
+/**
+ * In-process consumer of outbox events. Delivery is at least once, so handlers must be
+ * idempotent: an event is redelivered if any of its handlers failed or the instance stopped
+ * before recording the delivery. Handlers run with no transaction open.
+ */
+public interface OutboxEventHandler {
+
+    Set<String> eventTypes();
+
+    void handle(OutboxEvent event);
+}
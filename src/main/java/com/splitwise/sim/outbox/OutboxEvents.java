@@ -0,0 +1,48 @@
+package com.splitwise.sim.outbox;
+
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.entity.Settlement;
+
+import java.math.BigDecimal;
+
+/**
+ * Event types written to the outbox and their JSON payloads
+ */
+public final class OutboxEvents {
+
+    public static final String EXPENSE_CREATED = "EXPENSE_CREATED";
+    public static final String EXPENSE_UPDATED = "EXPENSE_UPDATED";
+    public static final String EXPENSE_DELETED = "EXPENSE_DELETED";
+    public static final String SETTLEMENT_COMPLETED = "SETTLEMENT_COMPLETED";
+
+    private OutboxEvents() {
+    }
+
+    public record ExpenseChanged(Long expenseId, Long groupId, Long paidById, String description,
+                                 BigDecimal amount, String splitType, int participants) {
+
+        public static ExpenseChanged of(Expense expense) {
+            return new ExpenseChanged(
+                    expense.getId(),
+                    expense.getGroup() != null ? expense.getGroup().getId() : null,
+                    expense.getPaidBy().getId(),
+                    expense.getDescription(),
+                    expense.getAmount(),
+                    expense.getSplitType().name(),
+                    expense.getParticipants().size());
+        }
+    }
+
+    public record SettlementCompleted(Long settlementId, Long groupId, Long debtorId, Long creditorId,
+                                      BigDecimal amount) {
+
+        public static SettlementCompleted of(Settlement settlement) {
+            return new SettlementCompleted(
+                    settlement.getId(),
+                    settlement.getGroup() != null ? settlement.getGroup().getId() : null,
+                    settlement.getDebtor().getId(),
+                    settlement.getCreditor().getId(),
+                    settlement.getAmount());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.splitwise.sim.reactive;
+
+import com.splitwise.sim.dto.group.BalanceResponse;
+import com.splitwise.sim.dto.wallet.TransactionResponse;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+
+/**
+ * R2DBC reads over the wallet_transactions / balance_checkpoints schema. Balances follow
+ * BalanceCheckpointService (nearest checkpoint at or before asOf plus the ledger delta since),
+ * folded into one statement each so a request is a single round trip.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveLedgerRepository {
+
+    private static final String WALLET_BALANCE = """
+            WITH cp AS (
+                SELECT balance, checkpoint_at FROM balance_checkpoints
+                WHERE user_id = :userId AND group_id IS NULL AND checkpoint_at <= :asOf
+                ORDER BY checkpoint_at DESC LIMIT 1)
+            SELECT COALESCE((SELECT balance FROM cp), 0)
+                 + COALESCE((SELECT SUM(CASE WHEN transaction_type = 'CREDIT' THEN amount ELSE -amount END)
+                             FROM wallet_transactions
+                             WHERE user_id = :userId AND created_at <= :asOf
+                               AND created_at > COALESCE((SELECT checkpoint_at FROM cp), '-infinity'::timestamp)), 0)
+                   AS balance
+            """;
+
+    private static final String GROUP_BALANCES = """
+            WITH cp AS (
+                SELECT MAX(checkpoint_at) AS at FROM balance_checkpoints
+                WHERE group_id = :groupId AND checkpoint_at <= :asOf),
+            net AS (
+                SELECT user_id, balance AS amount FROM balance_checkpoints
+                WHERE group_id = :groupId AND checkpoint_at = (SELECT at FROM cp)
+                UNION ALL
+                SELECT user_id, CASE WHEN transaction_type = 'CREDIT' THEN amount ELSE -amount END
+                FROM wallet_transactions
+                WHERE group_id = :groupId AND created_at <= :asOf
+                  AND created_at > COALESCE((SELECT at FROM cp), '-infinity'::timestamp)),
+            members AS (
+                SELECT user_id FROM group_members WHERE group_id = :groupId
+                UNION
+                SELECT user_id FROM net)
+            SELECT m.user_id, u.username, COALESCE(SUM(n.amount), 0) AS balance
+            FROM members m
+            LEFT JOIN users u ON u.id = m.user_id
+            LEFT JOIN net n ON n.user_id = m.user_id
+            GROUP BY m.user_id, u.username
+            """;
+
+    private static final String HISTORY_PAGE = """
+            SELECT wt.id, wt.transaction_type, wt.amount, c.username AS counterparty, wt.description, wt.created_at
+            FROM wallet_transactions wt
+            LEFT JOIN users c ON c.id = wt.counterparty_id
+            WHERE wt.user_id = :userId AND wt.id < :before
+            """;
+
+    private final DatabaseClient reactiveDatabaseClient;
+
+    public Mono<UserRow> findUserByUsername(String username) {
+        return reactiveDatabaseClient.sql("SELECT id, username FROM users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> new UserRow(row.get("id", Long.class), row.get("username", String.class)))
+                .one();
+    }
+
+    public Mono<Boolean> groupExists(Long groupId) {
+        return reactiveDatabaseClient.sql("SELECT 1 FROM groups WHERE id = :groupId")
+                .bind("groupId", groupId)
+                .map(row -> Boolean.TRUE)
+                .one()
+                .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    public Mono<BigDecimal> walletBalanceAsOf(Long userId, LocalDateTime asOf) {
+        return reactiveDatabaseClient.sql(WALLET_BALANCE)
+                .bind("userId", userId)
+                .bind("asOf", asOf)
+                .map(row -> row.get("balance", BigDecimal.class).setScale(2, RoundingMode.HALF_UP))
+                .one();
+    }
+
+    public Flux<BalanceResponse> groupBalancesAsOf(Long groupId, LocalDateTime asOf) {
+        return reactiveDatabaseClient.sql(GROUP_BALANCES)
+                .bind("groupId", groupId)
+                .bind("asOf", asOf)
+                .map(row -> {
+                    String username = row.get("username", String.class);
+                    return new BalanceResponse(row.get("user_id", Long.class),
+                            username != null ? username : "Unknown",
+                            row.get("balance", BigDecimal.class).setScale(2, RoundingMode.HALF_UP).doubleValue());
+                })
+                .all();
+    }
+
+    /**
+     * One page of a user's ledger rows, newest first, strictly older than the given id.
+     * Pass Long.MAX_VALUE for the first page.
+     */
+    public Flux<TransactionResponse> findHistoryPage(Long userId, Long groupId, long before, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = reactiveDatabaseClient
+                .sql(HISTORY_PAGE + (groupId != null ? "AND wt.group_id = :groupId " : "")
+                        + "ORDER BY wt.id DESC LIMIT :limit")
+                .bind("userId", userId)
+                .bind("before", before)
+                .bind("limit", limit);
+        if (groupId != null) {
+            spec = spec.bind("groupId", groupId);
+        }
+        return spec.map(ReactiveLedgerRepository::toTransaction).all();
+    }
+
+    private static TransactionResponse toTransaction(Readable row) {
+        String counterparty = row.get("counterparty", String.class);
+        return TransactionResponse.builder()
+                .id(row.get("id", Long.class))
+                .transactionType(row.get("transaction_type", String.class))
+                .amount(row.get("amount", BigDecimal.class))
+                .counterpartyUsername(counterparty != null ? counterparty : "System")
+                .description(row.get("description", String.class))
+                .createdAt(row.get("created_at", LocalDateTime.class))
+                .build();
+    }
+
+    public record UserRow(Long id, String username) {}
+}
@@ -0,0 +1,122 @@
+package com.splitwise.sim.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking read endpoints under /api/v1/reactive: WebFlux functional routes served by a
+ * ServletHttpHandlerAdapter in the same Tomcat, so they sit behind the same JWT filter chain but
+ * use Servlet non-blocking I/O. A slow client costs a socket, not a worker thread, and queries
+ * go through their own small R2DBC pool so a waiting client never holds a connection.
+ */
+@Configuration
+public class ReactiveReadConfig {
+
+    public static final String PATH = "/api/v1/reactive";
+
+    private ConnectionPool pool;
+
+    /**
+     * Connects to the same database as the JDBC pool; app.reactive.url overrides it (for example
+     * to point at a pooler). The pool is reachable through the client only: a ConnectionFactory
+     * bean would make Boot back off its JDBC DataSource.
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(DataSourceProperties dataSourceProperties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                                 @Value("${app.reactive.url:}") String url,
+                                                 @Value("${app.reactive.pool.max-size:20}") int maxSize,
+                                                 @Value("${app.reactive.pool.max-idle-time:PT30M}") Duration maxIdleTime,
+                                                 @Value("${app.reactive.pool.max-acquire-time:PT5S}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(
+                        url.isBlank() ? toR2dbcUrl(dataSourceProperties.determineUrl()) : url)
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, dataSourceProperties.determineUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, dataSourceProperties.determinePassword())
+                .build();
+        pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .name("reactive")
+                .initialSize(0)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+        // r2dbc.pool.acquired / idle / pending{name=reactive}
+        meterRegistry.ifAvailable(registry -> new ConnectionPoolMetrics(pool, "reactive", Tags.empty()).bindTo(registry));
+        return DatabaseClient.create(pool);
+    }
+
+    @PreDestroy
+    public void closePool() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveReadRoutes(ReactiveReadHandler handler) {
+        return RouterFunctions.route()
+                .GET("/wallet/balance", handler::walletBalance)
+                .GET("/wallet/transactions/stream", handler::streamTransactions)
+                .GET("/wallet/transactions", handler::transactions)
+                .GET("/groups/{groupId}/balance", handler::groupBalances)
+                .GET("/events", handler::events)
+                // Also catches what a handler throws before returning its Mono
+                .filter((request, next) -> Mono.defer(() -> next.handle(request))
+                        .onErrorResume(error -> ReactiveReadHandler.error(error, request)))
+                .build();
+    }
+
+    @Bean
+    public ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveReadServlet(
+            RouterFunction<ServerResponse> reactiveReadRoutes, ObjectMapper objectMapper) {
+        // Boot's ObjectMapper, so dates serialize exactly like the servlet endpoints
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        ServletHttpHandlerAdapter servlet = new ServletHttpHandlerAdapter(
+                RouterFunctions.toHttpHandler(reactiveReadRoutes, strategies));
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration =
+                new ServletRegistrationBean<>(servlet, PATH + "/*");
+        registration.setName("reactiveRead");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+
+    // jdbc:postgresql://host:port/db?params -> r2dbc:postgresql://host:port/db (JDBC-only params dropped)
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith("jdbc:postgresql://")) {
+            throw new IllegalStateException("Cannot derive an R2DBC url from " + jdbcUrl + "; set app.reactive.url");
+        }
+        int params = jdbcUrl.indexOf('?');
+        return "r2dbc:" + jdbcUrl.substring("jdbc:".length(), params >= 0 ? params : jdbcUrl.length());
+    }
+}
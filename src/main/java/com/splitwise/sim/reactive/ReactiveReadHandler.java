@@ -0,0 +1,182 @@
+package com.splitwise.sim.reactive;
+
+import com.splitwise.sim.dto.group.BalanceResponse;
+import com.splitwise.sim.dto.wallet.TransactionResponse;
+import com.splitwise.sim.dto.wallet.WalletBalanceResponse;
+import com.splitwise.sim.exception.GlobalExceptionHandler.ErrorResponse;
+import com.splitwise.sim.exception.InvalidRequestException;
+import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.live.LiveUpdateBroker;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Handlers behind the /api/v1/reactive routes. Responses have the same shape as the
+ * WalletController and GroupController reads they mirror.
+ */
+@Component
+@Slf4j
+public class ReactiveReadHandler {
+
+    private final ReactiveLedgerRepository ledgerRepository;
+    private final LiveUpdateBroker liveUpdateBroker;
+    private final String currency;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int streamPageSize;
+
+    public ReactiveReadHandler(ReactiveLedgerRepository ledgerRepository,
+                               LiveUpdateBroker liveUpdateBroker,
+                               @Value("${app.wallet.currency:USD}") String currency,
+                               @Value("${app.reactive.page-size:50}") int defaultPageSize,
+                               @Value("${app.reactive.max-page-size:500}") int maxPageSize,
+                               @Value("${app.reactive.stream-page-size:200}") int streamPageSize) {
+        this.ledgerRepository = ledgerRepository;
+        this.liveUpdateBroker = liveUpdateBroker;
+        this.currency = currency;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.streamPageSize = streamPageSize;
+    }
+
+    public Mono<ServerResponse> walletBalance(ServerRequest request) {
+        LocalDateTime asOf = dateTimeParam(request, "asOf");
+        LocalDateTime at = asOf != null ? asOf : LocalDateTime.now();
+        return currentUser(request)
+                .flatMap(user -> ledgerRepository.walletBalanceAsOf(user.id(), at)
+                        .map(balance -> WalletBalanceResponse.builder()
+                                .userId(user.id())
+                                .username(user.username())
+                                .balance(balance)
+                                .currency(currency)
+                                .asOf(at)
+                                .build()))
+                .flatMap(balance -> ServerResponse.ok().bodyValue(balance));
+    }
+
+    /**
+     * One page of history, newest first; the next page starts before the last id returned
+     */
+    public Mono<ServerResponse> transactions(ServerRequest request) {
+        Long groupId = longParam(request, "groupId");
+        Long before = longParam(request, "before");
+        Long limit = longParam(request, "limit");
+        int pageSize = limit != null ? limit.intValue() : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidRequestException("limit must be between 1 and " + maxPageSize);
+        }
+        Flux<TransactionResponse> page = currentUser(request).flatMapMany(user -> ledgerRepository
+                .findHistoryPage(user.id(), groupId, before != null ? before : Long.MAX_VALUE, pageSize));
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).body(page, TransactionResponse.class);
+    }
+
+    /**
+     * The whole history as newline-delimited JSON. Pages are fetched only as the client reads,
+     * and the connection goes back to the pool between pages, so a slow reader holds neither a
+     * thread nor a connection and at most two pages are buffered.
+     */
+    public Mono<ServerResponse> streamTransactions(ServerRequest request) {
+        Long groupId = longParam(request, "groupId");
+        Flux<TransactionResponse> history = currentUser(request).flatMapMany(user -> ledgerRepository
+                .findHistoryPage(user.id(), groupId, Long.MAX_VALUE, streamPageSize)
+                .collectList()
+                .expand(page -> page.size() < streamPageSize
+                        ? Mono.empty()
+                        : ledgerRepository.findHistoryPage(user.id(), groupId,
+                                page.get(page.size() - 1).getId(), streamPageSize).collectList())
+                .flatMapIterable(page -> page, 1));
+        return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(history, TransactionResponse.class);
+    }
+
+    public Mono<ServerResponse> groupBalances(ServerRequest request) {
+        Long groupId = Long.valueOf(request.pathVariable("groupId"));
+        LocalDateTime asOf = dateTimeParam(request, "asOf");
+        Mono<List<BalanceResponse>> balances = ledgerRepository.groupExists(groupId)
+                .flatMap(exists -> exists
+                        ? ledgerRepository.groupBalancesAsOf(groupId, asOf != null ? asOf : LocalDateTime.now()).collectList()
+                        : Mono.error(new ResourceNotFoundException("Group not found: " + groupId)));
+        return balances.flatMap(body -> ServerResponse.ok().bodyValue(body));
+    }
+
+    /**
+     * Server-sent events for the current user: expenses, settlements and balance deltas of
+     * their groups as they commit, plus heartbeat comments. The stream ends if the client falls
+     * too far behind; EventSource then reconnects and the client refetches what it shows.
+     */
+    public Mono<ServerResponse> events(ServerRequest request) {
+        return currentUser(request).flatMap(user -> ServerResponse.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                // Keeps proxies such as nginx from buffering the stream
+                .header("X-Accel-Buffering", "no")
+                .body(BodyInserters.fromServerSentEvents(liveUpdateBroker.subscribe(user.id()))));
+    }
+
+    /**
+     * Same status codes and body as GlobalExceptionHandler
+     */
+    static Mono<ServerResponse> error(Throwable error, ServerRequest request) {
+        HttpStatus status;
+        if (error instanceof ResourceNotFoundException) {
+            status = HttpStatus.NOT_FOUND;
+        } else if (error instanceof InvalidRequestException || error instanceof IllegalArgumentException) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            log.error("Reactive read {} failed", request.path(), error);
+            return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .bodyValue(new ErrorResponse(500, "Internal server error", LocalDateTime.now()));
+        }
+        return ServerResponse.status(status)
+                .bodyValue(new ErrorResponse(status.value(), error.getMessage(), LocalDateTime.now()));
+    }
+
+    // The JWT filter authenticated the servlet request; read it now, while still on its thread
+    private Mono<ReactiveLedgerRepository.UserRow> currentUser(ServerRequest request) {
+        HttpServletRequest servletRequest = ServerHttpRequestDecorator.getNativeRequest(request.exchange().getRequest());
+        Principal principal = servletRequest.getUserPrincipal();
+        if (principal == null) {
+            return Mono.error(new IllegalStateException("Unauthenticated request reached " + request.path()));
+        }
+        String username = principal.getName();
+        return ledgerRepository.findUserByUsername(username)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User not found: " + username)));
+    }
+
+    private static Long longParam(ServerRequest request, String name) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new InvalidRequestException("Invalid " + name + ": " + value);
+        }
+    }
+
+    private static LocalDateTime dateTimeParam(ServerRequest request, String name) {
+        String value = request.queryParam(name).orElse(null);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.splitwise.sim.repository;
+
+import com.splitwise.sim.entity.BalanceCheckpoint;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    Optional<BalanceCheckpoint> findFirstByUserIdAndGroupIsNullAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(
+            Long userId, LocalDateTime asOf);
+
+    @Query("SELECT MAX(c.checkpointAt) FROM BalanceCheckpoint c " +
+            "WHERE c.group.id = :groupId AND c.checkpointAt <= :asOf")
+    LocalDateTime findLatestGroupCheckpointAt(@Param("groupId") Long groupId, @Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT c FROM BalanceCheckpoint c WHERE c.group.id = :groupId AND c.checkpointAt = :checkpointAt")
+    List<BalanceCheckpoint> findByGroupIdAndCheckpointAt(@Param("groupId") Long groupId,
+                                                         @Param("checkpointAt") LocalDateTime checkpointAt);
+
+    boolean existsByCheckpointAt(LocalDateTime checkpointAt);
+
+    // Wallet checkpoints older than the cutoff that a later wallet checkpoint of the same user replaces
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "balance_checkpoints"))
+    @Query(value = "DELETE FROM balance_checkpoints c WHERE c.group_id IS NULL AND c.checkpoint_at < :cutoff " +
+            "AND EXISTS (SELECT 1 FROM balance_checkpoints n WHERE n.group_id IS NULL " +
+            "AND n.user_id = c.user_id AND n.checkpoint_at > c.checkpoint_at)", nativeQuery = true)
+    int deleteSupersededWalletCheckpoints(@Param("cutoff") LocalDateTime cutoff);
+
+    // Group checkpoints are taken for all members at once, so they are replaced per group
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "balance_checkpoints"))
+    @Query(value = "DELETE FROM balance_checkpoints c WHERE c.group_id IS NOT NULL AND c.checkpoint_at < :cutoff " +
+            "AND EXISTS (SELECT 1 FROM balance_checkpoints n WHERE n.group_id = c.group_id " +
+            "AND n.checkpoint_at > c.checkpoint_at)", nativeQuery = true)
+    int deleteSupersededGroupCheckpoints(@Param("cutoff") LocalDateTime cutoff);
+}
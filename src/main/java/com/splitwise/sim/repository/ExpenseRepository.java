@@ -2,12 +2,20 @@ package com.splitwise.sim.repository;
 
 import com.splitwise.sim.entity.Expense;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> findByGroupId(Long groupId);
+    List<Expense> findByGroupIdAndDeletedAtIsNull(Long groupId);
     List<Expense> findByPaidById(Long userId);
+    Optional<Expense> findByIdAndDeletedAtIsNull(Long id);
+
+    @Query("SELECT e.group.id FROM Expense e WHERE e.id = :expenseId")
+    Optional<Long> findGroupIdById(@Param("expenseId") Long expenseId);
 
 }
\ No newline at end of file
@@ -1,14 +1,50 @@
 package com.splitwise.sim.repository;
 
 import com.splitwise.sim.entity.Group;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
     @Query("SELECT g FROM Group g JOIN g.members m WHERE m.id = :userId AND g.isActive = true")
     List<Group> findByMemberId(@Param("userId") Long userId);
+
+    @Query("SELECT g.id FROM Group g JOIN g.members m WHERE m.id = :userId AND g.isActive = true")
+    List<Long> findIdsByMemberId(@Param("userId") Long userId);
+
+    @Query("SELECT g.id FROM Group g WHERE g.isActive = true AND g.id > :afterId ORDER BY g.id")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * One row per active group of the user, for the dashboard. Rows: [groupId, name, memberCount]
+     */
+    @Query("SELECT g.id, g.name, SIZE(g.members) FROM Group g JOIN g.members m " +
+            "WHERE m.id = :userId AND g.isActive = true ORDER BY g.id")
+    List<Object[]> findSummariesByMemberId(@Param("userId") Long userId);
+
+    @Query("SELECT m.id FROM Group g JOIN g.members m WHERE g.id = :groupId")
+    List<Long> findMemberIds(@Param("groupId") Long groupId);
+
+    // ETag source for the group reads; skips loading the entity
+    @Query("SELECT g.version FROM Group g WHERE g.id = :groupId")
+    Optional<Long> findVersionById(@Param("groupId") Long groupId);
+
+    // For writes that change the group's balances: the version is bumped at commit, so a concurrent writer conflicts
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT g FROM Group g WHERE g.id = :groupId")
+    Optional<Group> findByIdForWrite(@Param("groupId") Long groupId);
+
+    // Same for bulk imports, one statement for all touched groups
+    @Modifying
+    @Query("UPDATE Group g SET g.version = g.version + 1 WHERE g.id IN :groupIds")
+    int incrementVersions(@Param("groupIds") Collection<Long> groupIds);
 }
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.splitwise.sim.repository;
+
+import com.splitwise.sim.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Groups with something to deliver and no live claim on it, the longest waiting first
+    @Query(value = "SELECT group_id FROM outbox_events WHERE published_at IS NULL " +
+            "AND (claimed_until IS NULL OR claimed_until <= :now) " +
+            "GROUP BY group_id HAVING MIN(next_attempt_at) <= :now ORDER BY MIN(id) LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findGroupsWithDueEvents(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query("SELECT e FROM OutboxEvent e WHERE e.groupId = :groupId AND e.publishedAt IS NULL ORDER BY e.id")
+    List<OutboxEvent> findPendingByGroupId(@Param("groupId") Long groupId, Pageable pageable);
+
+    // Held until the claiming transaction ends, so only one instance claims a group's events at a time
+    @Query(value = "SELECT pg_try_advisory_xact_lock(7001, hashint8(:groupId))", nativeQuery = true)
+    boolean tryLockGroup(@Param("groupId") Long groupId);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.claimedUntil = NULL WHERE e.id IN :ids")
+    int releaseClaims(@Param("ids") Collection<Long> ids);
+
+    // Rows of [pending count, oldest pending createdAt]
+    @Query("SELECT COUNT(e), MIN(e.createdAt) FROM OutboxEvent e WHERE e.publishedAt IS NULL")
+    List<Object[]> pendingStats();
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,64 @@
+package com.splitwise.sim.repository;
+
+import com.splitwise.sim.entity.PairBalance;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Repository
+public interface PairBalanceRepository extends JpaRepository<PairBalance, Long> {
+
+    // All stripes of one pair
+    List<PairBalance> findByUserLowIdAndUserHighId(Long userLowId, Long userHighId);
+
+    /**
+     * Stripes summed per pair, non-zero pairs only.
+     * Rows: [userLowId, userLowUsername, userHighId, userHighUsername, netAmount, updatedAt]
+     */
+    @Query("SELECT p.userLow.id, p.userLow.username, p.userHigh.id, p.userHigh.username, " +
+            "SUM(p.netAmount), MAX(p.updatedAt) FROM PairBalance p " +
+            "WHERE p.userLow.id = :userId OR p.userHigh.id = :userId " +
+            "GROUP BY p.userLow.id, p.userLow.username, p.userHigh.id, p.userHigh.username " +
+            "HAVING SUM(p.netAmount) <> 0")
+    List<Object[]> sumNonZeroByUserId(@Param("userId") Long userId);
+
+    // Single round trip, safe under concurrent writers: the conflicting row is locked and incremented
+    // Declared query space: without it Hibernate empties every second-level cache region on each ledger write
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "pair_balances"))
+    @Query(value = "INSERT INTO pair_balances (user_low, user_high, stripe, net_amount, updated_at) " +
+            "VALUES (:userLow, :userHigh, :stripe, :delta, now()) " +
+            "ON CONFLICT (user_low, user_high, stripe) DO UPDATE " +
+            "SET net_amount = pair_balances.net_amount + EXCLUDED.net_amount, " +
+            "version = pair_balances.version + 1, updated_at = now()",
+            nativeQuery = true)
+    void applyDelta(@Param("userLow") Long userLow, @Param("userHigh") Long userHigh,
+                    @Param("stripe") int stripe, @Param("delta") BigDecimal delta);
+
+    /**
+     * Pairs whose user_low lies in [fromUserId, toUserId] where the summed stripes differ from
+     * the ledger, both sides aggregated and compared in the database.
+     * Rows: [userLowId, userHighId, tableAmount, ledgerAmount]
+     */
+    @Query(value = "SELECT COALESCE(l.user_low, p.user_low), COALESCE(l.user_high, p.user_high), " +
+            "COALESCE(p.net, 0), COALESCE(l.net, 0) FROM (" +
+            "SELECT wt.user_id AS user_low, wt.counterparty_id AS user_high, " +
+            "SUM(CASE WHEN wt.transaction_type = 'CREDIT' THEN wt.amount ELSE -wt.amount END) AS net " +
+            "FROM wallet_transactions wt WHERE wt.user_id BETWEEN :fromUserId AND :toUserId " +
+            "AND wt.counterparty_id > wt.user_id GROUP BY 1, 2) l " +
+            "FULL OUTER JOIN (" +
+            "SELECT user_low, user_high, SUM(net_amount) AS net FROM pair_balances " +
+            "WHERE user_low BETWEEN :fromUserId AND :toUserId GROUP BY 1, 2) p " +
+            "ON l.user_low = p.user_low AND l.user_high = p.user_high " +
+            "WHERE COALESCE(l.net, 0) <> COALESCE(p.net, 0) ORDER BY 1, 2",
+            nativeQuery = true)
+    List<Object[]> findDrift(@Param("fromUserId") Long fromUserId, @Param("toUserId") Long toUserId);
+}
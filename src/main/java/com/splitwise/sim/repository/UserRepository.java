@@ -1,6 +1,7 @@
 package com.splitwise.sim.repository;
 
 import com.splitwise.sim.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,4 +24,11 @@ public interface UserRepository extends JpaRepository<User, Long> {
             "LOWER(u.email) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :query, '%'))")
     List<User> searchUsers(@Param("query") String query);
+
+    // Keyset pages of user ids, for jobs that walk every user
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(value = "SELECT COUNT(*) FROM user_friends WHERE user_id = :userId", nativeQuery = true)
+    long countFriends(@Param("userId") Long userId);
 }
\ No newline at end of file
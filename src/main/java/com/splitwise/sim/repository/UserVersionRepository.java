@@ -0,0 +1,36 @@
+package com.splitwise.sim.repository;
+
+import com.splitwise.sim.entity.UserVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface UserVersionRepository extends JpaRepository<UserVersion, Long> {
+
+    // Rows are locked in id order, so two transactions touching the same users cannot deadlock
+    // Declared query space, so the upsert leaves the cached users and groups alone
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_versions"))
+    @Query(value = "INSERT INTO user_versions (user_id, version) " +
+            "SELECT id, 1 FROM users WHERE id IN (:userIds) ORDER BY id " +
+            "ON CONFLICT (user_id) DO UPDATE SET version = user_versions.version + 1",
+            nativeQuery = true)
+    int incrementVersions(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Rows: [userId, version]; version 0 for a user that has no ledger rows yet
+     */
+    @Query(value = "SELECT u.id, COALESCE(v.version, 0) FROM users u " +
+            "LEFT JOIN user_versions v ON v.user_id = u.id WHERE u.username = :username",
+            nativeQuery = true)
+    List<Object[]> findIdAndVersionByUsername(@Param("username") String username);
+}
@@ -1,22 +1,97 @@
 package com.splitwise.sim.repository;
 
 import com.splitwise.sim.entity.WalletTransaction;
+import org.springframework.data.domain.Pageable;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface WalletTransactionRepository extends JpaRepository<WalletTransaction, Long> {
     List<WalletTransaction> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    List<WalletTransaction> findByGroupIdAndUserIdOrderByCreatedAtDesc(Long groupId, Long userId);
+
+    // Newest first by id, which follows creation order
+    @Query("SELECT wt FROM WalletTransaction wt LEFT JOIN FETCH wt.counterparty " +
+            "WHERE wt.user.id = :userId ORDER BY wt.id DESC")
+    List<WalletTransaction> findRecentByUserId(@Param("userId") Long userId, Pageable pageable);
+
     @Query("SELECT SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
             "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.user.id = :userId")
     BigDecimal calculateBalance(@Param("userId") Long userId);
 
+    @Query("SELECT SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
+            "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.user.id = :userId " +
+            "AND wt.createdAt <= :asOf")
+    BigDecimal calculateBalanceUpTo(@Param("userId") Long userId, @Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
+            "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.user.id = :userId " +
+            "AND wt.createdAt > :since AND wt.createdAt <= :asOf")
+    BigDecimal calculateBalanceBetween(@Param("userId") Long userId,
+                                       @Param("since") LocalDateTime since,
+                                       @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * Net position of every user inside a group. Rows: [userId, net]
+     */
+    @Query("SELECT wt.user.id, SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
+            "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.group.id = :groupId " +
+            "AND wt.createdAt <= :asOf GROUP BY wt.user.id")
+    List<Object[]> sumNetByGroupUpTo(@Param("groupId") Long groupId, @Param("asOf") LocalDateTime asOf);
+
+    @Query("SELECT wt.user.id, SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
+            "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.group.id = :groupId " +
+            "AND wt.createdAt > :since AND wt.createdAt <= :asOf GROUP BY wt.user.id")
+    List<Object[]> sumNetByGroupBetween(@Param("groupId") Long groupId,
+                                        @Param("since") LocalDateTime since,
+                                        @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * The user's net position in each group they have ledger rows in. Rows: [groupId, net]
+     */
+    @Query("SELECT wt.group.id, SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
+            "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.user.id = :userId " +
+            "AND wt.group.id IS NOT NULL GROUP BY wt.group.id")
+    List<Object[]> sumNetByGroupForUser(@Param("userId") Long userId);
+
+    /**
+     * What each counterparty owes the user across the given groups.
+     * Rows: [counterpartyId, net], positive = counterparty owes the user
+     */
+    @Query("SELECT wt.counterparty.id, SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
+            "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.user.id = :userId " +
+            "AND wt.group.id IN :groupIds GROUP BY wt.counterparty.id")
+    List<Object[]> sumNetByCounterparty(@Param("userId") Long userId,
+                                        @Param("groupIds") Collection<Long> groupIds);
+
+    /**
+     * Net position of every user across the given groups. Rows: [userId, net]
+     */
+    @Query("SELECT wt.user.id, SUM(CASE WHEN wt.transactionType = 'CREDIT' THEN wt.amount " +
+            "ELSE -wt.amount END) FROM WalletTransaction wt WHERE wt.group.id IN :groupIds " +
+            "GROUP BY wt.user.id")
+    List<Object[]> sumNetByGroups(@Param("groupIds") Collection<Long> groupIds);
+
+    /**
+     * Net amount each debtor has been charged per counterparty for one expense.
+     * Rows: [debtorId, creditorId, amount]
+     */
+    @Query("SELECT wt.user.id, wt.counterparty.id, SUM(wt.amount) FROM WalletTransaction wt " +
+            "WHERE wt.expense.id = :expenseId AND wt.transactionType = 'DEBIT' " +
+            "GROUP BY wt.user.id, wt.counterparty.id")
+    List<Object[]> sumDebitsByExpense(@Param("expenseId") Long expenseId);
+
     @Query("SELECT wt FROM WalletTransaction wt WHERE wt.user.id = :userId " +
             "AND wt.createdAt BETWEEN :startDate AND :endDate ORDER BY wt.createdAt DESC")
     List<WalletTransaction> findByUserIdAndDateRange(
@@ -24,4 +99,64 @@ public interface WalletTransactionRepository extends JpaRepository<WalletTransac
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate
     );
-}
\ No newline at end of file
+
+    /**
+     * Split rows written before expense_id was recorded, linked to the expense with the same payer,
+     * description and creation time (within 5 seconds). Rows with more than one candidate
+     * expense are skipped.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wallet_transactions"))
+    @Query(value = "UPDATE wallet_transactions wt SET expense_id = m.expense_id FROM (" +
+            "SELECT t.id AS txn_id, MIN(e.id) AS expense_id FROM wallet_transactions t JOIN expenses e " +
+            "ON e.paid_by IN (t.user_id, t.counterparty_id) " +
+            "AND t.created_at BETWEEN e.created_at - INTERVAL '5 seconds' AND e.created_at + INTERVAL '5 seconds' " +
+            "AND right(t.description, length(e.description) + 2) = ': ' || e.description " +
+            "WHERE t.expense_id IS NULL AND t.description LIKE 'Split (%' " +
+            "GROUP BY t.id HAVING COUNT(*) = 1) m WHERE wt.id = m.txn_id",
+            nativeQuery = true)
+    int linkSplitRowsToExpenses();
+
+    @Query(value = "SELECT COUNT(*) FROM wallet_transactions " +
+            "WHERE expense_id IS NULL AND description LIKE 'Split (%'", nativeQuery = true)
+    long countSplitRowsWithoutExpense();
+
+    @Query(value = "SELECT id FROM wallet_transactions " +
+            "WHERE expense_id IS NULL AND description LIKE 'Split (%' ORDER BY id", nativeQuery = true)
+    List<Long> findSplitRowIdsWithoutExpense(Pageable pageable);
+
+    // Rows written before group_id existed: expense rows take the group of their expense...
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wallet_transactions"))
+    @Query(value = "UPDATE wallet_transactions wt SET group_id = e.group_id FROM expenses e " +
+            "WHERE wt.expense_id = e.id AND wt.group_id IS NULL AND e.group_id IS NOT NULL",
+            nativeQuery = true)
+    int backfillGroupFromExpenses();
+
+    /**
+     * ...and settlement rows the group of the settlement with the same pair, amount, note and time
+     * (within 5 seconds). Rows whose candidate settlements lie in more than one group are skipped.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "wallet_transactions"))
+    @Query(value = "UPDATE wallet_transactions wt SET group_id = m.group_id FROM (" +
+            "SELECT t.id AS txn_id, MIN(s.group_id) AS group_id FROM wallet_transactions t JOIN settlements s " +
+            "ON t.amount = s.amount " +
+            "AND ((t.user_id = s.creditor_id AND t.counterparty_id = s.debtor_id) " +
+            "OR (t.user_id = s.debtor_id AND t.counterparty_id = s.creditor_id)) " +
+            "AND t.created_at BETWEEN s.settled_at - INTERVAL '5 seconds' AND s.settled_at + INTERVAL '5 seconds' " +
+            "AND t.description = 'Settlement: ' || COALESCE(s.note, 'Payment received') " +
+            "WHERE t.group_id IS NULL AND t.expense_id IS NULL AND s.group_id IS NOT NULL " +
+            "GROUP BY t.id HAVING COUNT(DISTINCT s.group_id) = 1) m WHERE wt.id = m.txn_id",
+            nativeQuery = true)
+    int backfillGroupFromSettlements();
+
+    // Rows between two users that no group balance counts
+    @Query(value = "SELECT COUNT(*) FROM wallet_transactions " +
+            "WHERE group_id IS NULL AND counterparty_id IS NOT NULL", nativeQuery = true)
+    long countPairRowsWithoutGroup();
+
+    @Query(value = "SELECT id FROM wallet_transactions " +
+            "WHERE group_id IS NULL AND counterparty_id IS NOT NULL ORDER BY id", nativeQuery = true)
+    List<Long> findPairRowIdsWithoutGroup(Pageable pageable);
+}
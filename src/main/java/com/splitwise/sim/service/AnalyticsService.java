@@ -1,32 +1,39 @@
 package com.splitwise.sim.service;
 
+import com.splitwise.sim.dto.analytics.ConsolidatedDebtsResponse;
 import com.splitwise.sim.dto.analytics.GroupDebtDto;
 import com.splitwise.sim.dto.analytics.MonthlyExpenseSummary;
-import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.entity.Group;
 import com.splitwise.sim.entity.User;
 import com.splitwise.sim.entity.WalletTransaction;
-import com.splitwise.sim.repository.ExpenseRepository;
+import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.monitoring.MetricsConfig;
+import com.splitwise.sim.monitoring.jfr.GroupDebtsEvent;
+import com.splitwise.sim.repository.GroupRepository;
 import com.splitwise.sim.repository.UserRepository;
 import com.splitwise.sim.repository.WalletTransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class AnalyticsService {
 
     private final WalletTransactionRepository transactionRepository;
-    private final ExpenseRepository expenseRepository;
+    private final GroupRepository groupRepository;
     private final UserRepository userRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
 
     /**
      * Get monthly expense summary for a user
@@ -67,77 +74,181 @@ public class AnalyticsService {
     @Transactional(readOnly = true)
     public List<GroupDebtDto> calculateGroupDebts(Long groupId) {
         log.info("Calculating group debts for group: {}", groupId);
+        GroupDebtsEvent event = new GroupDebtsEvent();
+        event.begin();
 
-        // 1. Fetch all expenses for the group
-        List<Expense> groupExpenses = expenseRepository.findByGroupId(groupId);
+        Group group = groupRepository.findById(groupId)
+                .orElseThrow(() -> new ResourceNotFoundException("Group not found: " + groupId));
 
-        if (groupExpenses.isEmpty()) {
-            log.info("No expenses found for group: {}", groupId);
-            return Collections.emptyList();
-        }
-
-        // 2. Calculate net balances for each user
+        // Net balances straight from the ledger (nearest checkpoint + delta)
         // Positive balance = user is owed money
         // Negative balance = user owes money
-        Map<Long, BigDecimal> balances = new HashMap<>();
+        Map<Long, BigDecimal> balances = balanceCheckpointService.groupBalancesAsOf(group, LocalDateTime.now());
+
+        List<GroupDebtDto> settlements = matchDebtorsWithCreditors(balances);
 
-        for (Expense expense : groupExpenses) {
-            BigDecimal amount = expense.getAmount();
-            Long payerId = expense.getPaidBy().getId();
-            Set<User> participants = expense.getParticipants();
+        event.groupId = groupId;
+        event.participants = balances.size();
+        event.rows = settlements.size();
+        event.commit();
+
+        log.info("Calculated {} settlements for group: {}", settlements.size(), groupId);
+        return settlements;
+    }
 
-            // Skip if no participants
-            if (participants == null || participants.isEmpty()) {
-                log.warn("Expense {} has no participants, skipping", expense.getId());
-                continue;
+    /**
+     * Everything a user owes or is owed across all of their groups.
+     * Without simplification, per-group positions are netted into one edge per counterparty.
+     * With simplification, the debt graph of the user's groups is collapsed to net balances
+     * and only the user's edges of the greedy matching are worked out (see simplifiedDebts).
+     * Both paths are single GROUP BY queries over the ledger.
+     */
+    @Transactional(readOnly = true)
+    public ConsolidatedDebtsResponse getConsolidatedDebts(Long userId, boolean simplify) {
+        String username = userRepository.findById(userId)
+                .map(User::getUsername)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
+        List<Long> groupIds = groupRepository.findIdsByMemberId(userId);
+
+        List<GroupDebtDto> debts;
+        if (groupIds.isEmpty()) {
+            debts = Collections.emptyList();
+        } else if (simplify) {
+            Map<Long, BigDecimal> balances = new HashMap<>();
+            for (Object[] row : transactionRepository.sumNetByGroups(groupIds)) {
+                balances.put((Long) row[0], (BigDecimal) row[1]);
             }
+            debts = simplifiedDebts(userId, username, balances);
+        } else {
+            debts = pairwiseDebts(userId, username, groupIds);
+        }
 
-            // Payer gets POSITIVE balance (they are owed)
-            balances.put(payerId, balances.getOrDefault(payerId, BigDecimal.ZERO).add(amount));
-
-            // Calculate equal split amount
-            BigDecimal splitAmount = amount.divide(
-                    BigDecimal.valueOf(participants.size()),
-                    2,
-                    RoundingMode.HALF_UP
-            );
-
-            // Each participant gets NEGATIVE balance (they owe)
-            for (User participant : participants) {
-                Long participantId = participant.getId();
-                balances.put(
-                        participantId,
-                        balances.getOrDefault(participantId, BigDecimal.ZERO).subtract(splitAmount)
-                );
+        BigDecimal totalYouOwe = BigDecimal.ZERO;
+        BigDecimal totalOwedToYou = BigDecimal.ZERO;
+        for (GroupDebtDto debt : debts) {
+            BigDecimal amount = BigDecimal.valueOf(debt.getAmount());
+            if (username.equals(debt.getDebtorUsername())) {
+                totalYouOwe = totalYouOwe.add(amount);
+            } else {
+                totalOwedToYou = totalOwedToYou.add(amount);
             }
         }
 
-        // 3. Separate users into debtors (owe money) and creditors (are owed money)
+        return ConsolidatedDebtsResponse.builder()
+                .userId(userId)
+                .groupCount(groupIds.size())
+                .simplified(simplify)
+                .totalYouOwe(totalYouOwe)
+                .totalOwedToYou(totalOwedToYou)
+                .debts(debts)
+                .build();
+    }
+
+    private List<GroupDebtDto> pairwiseDebts(Long userId, String username, List<Long> groupIds) {
+        Map<Long, BigDecimal> nets = new HashMap<>();
+        for (Object[] row : transactionRepository.sumNetByCounterparty(userId, groupIds)) {
+            BigDecimal net = (BigDecimal) row[1];
+            if (net.abs().compareTo(new BigDecimal("0.01")) >= 0) {
+                nets.put((Long) row[0], net);
+            }
+        }
+
+        Map<Long, String> usernames = resolveUsernames(nets.keySet());
+
+        List<GroupDebtDto> debts = new ArrayList<>();
+        nets.forEach((counterpartyId, net) -> {
+            String counterparty = usernames.getOrDefault(counterpartyId, "Unknown");
+            // Positive net = counterparty owes the user
+            debts.add(GroupDebtDto.builder()
+                    .debtorUsername(net.signum() > 0 ? counterparty : username)
+                    .creditorUsername(net.signum() > 0 ? username : counterparty)
+                    .amount(net.abs().doubleValue())
+                    .build());
+        });
+        return debts;
+    }
+
+    /**
+     * The user's edges of matchDebtorsWithCreditors over the same balances, without building the
+     * rest. Greedy matching walks debtors and creditors in a fixed order, so laying each side out
+     * as consecutive amounts on a line, a debtor pays exactly the creditors whose range overlaps
+     * their own, by the length of the overlap. Only the user's counterparties are looked up.
+     */
+    private List<GroupDebtDto> simplifiedDebts(Long userId, String username, Map<Long, BigDecimal> balances) {
+        BigDecimal own = balances.get(userId);
+        if (own == null || own.abs().compareTo(new BigDecimal("0.01")) < 0) {
+            return Collections.emptyList();
+        }
+
         List<DebtorCreditor> debtors = new ArrayList<>();
         List<DebtorCreditor> creditors = new ArrayList<>();
+        splitDebtorsAndCreditors(balances, Collections.emptyMap(), debtors, creditors);
 
-        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
-            BigDecimal balance = entry.getValue();
+        boolean userOwes = own.signum() < 0;
+        List<DebtorCreditor> ownSide = userOwes ? debtors : creditors;
+        List<DebtorCreditor> otherSide = userOwes ? creditors : debtors;
 
-            // Ignore very small amounts (less than 1 cent)
-            if (balance.abs().compareTo(new BigDecimal("0.01")) < 0) {
-                continue;
+        BigDecimal start = BigDecimal.ZERO;
+        for (DebtorCreditor entry : ownSide) {
+            if (entry.userId.equals(userId)) {
+                break;
+            }
+            start = start.add(entry.amount);
+        }
+        BigDecimal end = start.add(own.abs());
+
+        Map<Long, BigDecimal> overlaps = new LinkedHashMap<>();
+        BigDecimal otherStart = BigDecimal.ZERO;
+        for (DebtorCreditor entry : otherSide) {
+            BigDecimal otherEnd = otherStart.add(entry.amount);
+            BigDecimal overlap = end.min(otherEnd).subtract(start.max(otherStart));
+            if (overlap.compareTo(new BigDecimal("0.01")) >= 0) {
+                overlaps.put(entry.userId, overlap);
             }
+            if (otherEnd.compareTo(end) >= 0) {
+                break;
+            }
+            otherStart = otherEnd;
+        }
 
-            String username = userRepository.findById(entry.getKey())
-                    .map(User::getUsername)
-                    .orElse("Unknown");
+        Map<Long, String> usernames = resolveUsernames(overlaps.keySet());
+        List<GroupDebtDto> debts = new ArrayList<>();
+        overlaps.forEach((counterpartyId, amount) -> {
+            String counterparty = usernames.getOrDefault(counterpartyId, "Unknown");
+            debts.add(GroupDebtDto.builder()
+                    .debtorUsername(userOwes ? username : counterparty)
+                    .creditorUsername(userOwes ? counterparty : username)
+                    .amount(amount.doubleValue())
+                    .build());
+        });
+        return debts;
+    }
 
-            if (balance.compareTo(BigDecimal.ZERO) < 0) {
-                // Negative balance = debtor (owes money)
-                debtors.add(new DebtorCreditor(entry.getKey(), username, balance.abs()));
-            } else {
-                // Positive balance = creditor (is owed money)
-                creditors.add(new DebtorCreditor(entry.getKey(), username, balance));
+    /**
+     * Greedy matching of debtors with creditors to minimize the number of transactions
+     */
+    private List<GroupDebtDto> matchDebtorsWithCreditors(Map<Long, BigDecimal> balances) {
+        // Ignore very small amounts (less than 1 cent)
+        Map<Long, BigDecimal> significant = new HashMap<>();
+        balances.forEach((userId, balance) -> {
+            if (balance.abs().compareTo(new BigDecimal("0.01")) >= 0) {
+                significant.put(userId, balance);
             }
+        });
+
+        if (significant.isEmpty()) {
+            return Collections.emptyList();
         }
 
-        // 4. Match debtors with creditors to minimize transactions
+        // One lookup for every username instead of one per user
+        Map<Long, String> usernames = resolveUsernames(significant.keySet());
+
+        // Separate users into debtors (owe money) and creditors (are owed money)
+        List<DebtorCreditor> debtors = new ArrayList<>();
+        List<DebtorCreditor> creditors = new ArrayList<>();
+        splitDebtorsAndCreditors(significant, usernames, debtors, creditors);
+
+        // Match debtors with creditors to minimize transactions
         List<GroupDebtDto> settlements = new ArrayList<>();
         int i = 0;
         int j = 0;
@@ -169,10 +280,39 @@ public class AnalyticsService {
             }
         }
 
-        log.info("Calculated {} settlements for group: {}", settlements.size(), groupId);
         return settlements;
     }
 
+    /**
+     * Users with at least a cent to pay or receive, largest amounts first (ties by user id) so
+     * that matching is repeatable
+     */
+    private void splitDebtorsAndCreditors(Map<Long, BigDecimal> balances, Map<Long, String> usernames,
+                                          List<DebtorCreditor> debtors, List<DebtorCreditor> creditors) {
+        balances.forEach((userId, balance) -> {
+            if (balance.abs().compareTo(new BigDecimal("0.01")) < 0) {
+                return;
+            }
+            String username = usernames.getOrDefault(userId, "Unknown");
+            if (balance.compareTo(BigDecimal.ZERO) < 0) {
+                // Negative balance = debtor (owes money)
+                debtors.add(new DebtorCreditor(userId, username, balance.abs()));
+            } else {
+                // Positive balance = creditor (is owed money)
+                creditors.add(new DebtorCreditor(userId, username, balance));
+            }
+        });
+        Comparator<DebtorCreditor> order = Comparator.comparing((DebtorCreditor d) -> d.amount).reversed()
+                .thenComparing(d -> d.userId);
+        debtors.sort(order);
+        creditors.sort(order);
+    }
+
+    private Map<Long, String> resolveUsernames(Collection<Long> userIds) {
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+    }
+
     /**
      * Helper class to track debtors and creditors
      */
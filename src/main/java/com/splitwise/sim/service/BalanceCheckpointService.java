@@ -0,0 +1,174 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.entity.BalanceCheckpoint;
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.repository.BalanceCheckpointRepository;
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.repository.UserRepository;
+import com.splitwise.sim.repository.WalletTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Point-in-time balances.
+ * Every balance is "nearest checkpoint at or before asOf" + "delta since that checkpoint",
+ * so neither current nor historical balances have to replay the full history.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceCheckpointService {
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final WalletTransactionRepository transactionRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Rows committed late (long-running transactions) must not fall behind a checkpoint,
+    // so checkpoints are taken a little in the past
+    @Value("${app.balance.checkpoint-lag:PT5M}")
+    private Duration checkpointLag;
+
+    @Value("${app.balance.checkpoint-page-size:500}")
+    private int pageSize;
+
+    // Older checkpoints stay only while they are the latest one of their wallet or group
+    @Value("${app.balance.checkpoint-retention:P90D}")
+    private Duration retention;
+
+    /**
+     * Wallet balance of a user as of the given instant
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal walletBalanceAsOf(Long userId, LocalDateTime asOf) {
+        Optional<BalanceCheckpoint> checkpoint = checkpointRepository
+                .findFirstByUserIdAndGroupIsNullAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(userId, asOf);
+
+        BigDecimal balance;
+        if (checkpoint.isEmpty()) {
+            balance = zeroIfNull(transactionRepository.calculateBalanceUpTo(userId, asOf));
+        } else {
+            BigDecimal delta = transactionRepository.calculateBalanceBetween(
+                    userId, checkpoint.get().getCheckpointAt(), asOf);
+            balance = checkpoint.get().getBalance().add(zeroIfNull(delta));
+        }
+        // Same scale whichever path answered
+        return balance.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Net position of every member of the group as of the given instant.
+     * Positive = user is owed money, negative = user owes money.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, BigDecimal> groupBalancesAsOf(Group group, LocalDateTime asOf) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        group.getMembers().forEach(member -> balances.put(member.getId(), BigDecimal.ZERO));
+
+        LocalDateTime since = checkpointRepository.findLatestGroupCheckpointAt(group.getId(), asOf);
+
+        List<Object[]> deltas;
+        if (since == null) {
+            deltas = transactionRepository.sumNetByGroupUpTo(group.getId(), asOf);
+        } else {
+            for (BalanceCheckpoint checkpoint : checkpointRepository.findByGroupIdAndCheckpointAt(group.getId(), since)) {
+                balances.merge(checkpoint.getUser().getId(), checkpoint.getBalance(), BigDecimal::add);
+            }
+            deltas = transactionRepository.sumNetByGroupBetween(group.getId(), since, asOf);
+        }
+
+        for (Object[] row : deltas) {
+            balances.merge((Long) row[0], (BigDecimal) row[1], BigDecimal::add);
+        }
+        return balances;
+    }
+
+    /**
+     * Periodically snapshot every wallet and every active group.
+     * Each new checkpoint is itself built incrementally from the previous one. Users and groups
+     * are read a page at a time, each page in its own transaction, and checkpoints superseded
+     * for longer than the retention are pruned afterwards.
+     */
+    @Scheduled(cron = "${app.balance.checkpoint-cron:0 0 3 * * *}")
+    public void writeCheckpoints() {
+        writeCheckpoints(LocalDateTime.now().minus(checkpointLag).truncatedTo(ChronoUnit.SECONDS));
+    }
+
+    void writeCheckpoints(LocalDateTime checkpointAt) {
+        if (checkpointRepository.existsByCheckpointAt(checkpointAt)) {
+            log.info("Balance checkpoints as of {} already written", checkpointAt);
+            return;
+        }
+        log.info("Writing balance checkpoints as of {}", checkpointAt);
+
+        long written = 0;
+        List<Long> userIds = userRepository.findIdsAfter(0L, PageRequest.of(0, pageSize));
+        while (!userIds.isEmpty()) {
+            List<Long> page = userIds;
+            written += transactionTemplate.execute(status -> writeWalletCheckpoints(page, checkpointAt));
+            userIds = userRepository.findIdsAfter(page.get(page.size() - 1), PageRequest.of(0, pageSize));
+        }
+
+        List<Long> groupIds = groupRepository.findActiveIdsAfter(0L, PageRequest.of(0, pageSize));
+        while (!groupIds.isEmpty()) {
+            List<Long> page = groupIds;
+            written += transactionTemplate.execute(status -> writeGroupCheckpoints(page, checkpointAt));
+            groupIds = groupRepository.findActiveIdsAfter(page.get(page.size() - 1), PageRequest.of(0, pageSize));
+        }
+        log.info("Wrote {} balance checkpoints", written);
+
+        LocalDateTime cutoff = checkpointAt.minus(retention);
+        int pruned = transactionTemplate.execute(status ->
+                checkpointRepository.deleteSupersededWalletCheckpoints(cutoff)
+                        + checkpointRepository.deleteSupersededGroupCheckpoints(cutoff));
+        if (pruned > 0) {
+            log.info("Pruned {} balance checkpoints superseded before {}", pruned, cutoff);
+        }
+    }
+
+    private int writeWalletCheckpoints(List<Long> userIds, LocalDateTime checkpointAt) {
+        List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+        for (Long userId : userIds) {
+            checkpoints.add(BalanceCheckpoint.builder()
+                    .user(userRepository.getReferenceById(userId))
+                    .balance(walletBalanceAsOf(userId, checkpointAt))
+                    .checkpointAt(checkpointAt)
+                    .build());
+        }
+        checkpointRepository.saveAll(checkpoints);
+        return checkpoints.size();
+    }
+
+    private int writeGroupCheckpoints(List<Long> groupIds, LocalDateTime checkpointAt) {
+        List<BalanceCheckpoint> checkpoints = new ArrayList<>();
+        for (Group group : groupRepository.findAllById(groupIds)) {
+            groupBalancesAsOf(group, checkpointAt).forEach((userId, balance) ->
+                    checkpoints.add(BalanceCheckpoint.builder()
+                            .user(userRepository.getReferenceById(userId))
+                            .group(group)
+                            .balance(balance)
+                            .checkpointAt(checkpointAt)
+                            .build()));
+        }
+        checkpointRepository.saveAll(checkpoints);
+        return checkpoints.size();
+    }
+
+    private BigDecimal zeroIfNull(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,213 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.dto.batch.BatchOperation;
+import com.splitwise.sim.dto.batch.BatchRequest;
+import com.splitwise.sim.dto.batch.BatchResponse;
+import com.splitwise.sim.dto.batch.BatchResponse.OperationResult;
+import com.splitwise.sim.exception.InvalidRequestException;
+import com.splitwise.sim.exception.ResourceAlreadyExistsException;
+import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.repository.ExpenseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs a client's queued writes in one request, through the same service methods as their
+ * own endpoints.
+ *
+ * By default every operation commits on its own, exactly as if it had been sent separately,
+ * and a failure does not stop the ones after it. An atomic batch runs in a single transaction
+ * under the locks of every group it touches: the first failure rolls everything back, and a
+ * conflict with another instance re-runs the whole batch. A failure at commit fails every
+ * operation with the status its own endpoint would have answered.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BatchService {
+    private final ExpenseSplitService expenseSplitService;
+    private final SettlementService settlementService;
+    private final FriendService friendService;
+    private final ExpenseRepository expenseRepository;
+    private final GroupWriteCoordinator groupWriteCoordinator;
+
+    @Value("${app.batch.max-operations:100}")
+    private int maxOperations;
+
+    public BatchResponse execute(BatchRequest request, Long userId) {
+        List<BatchOperation> operations = request.getOperations();
+        if (operations.size() > maxOperations) {
+            throw new InvalidRequestException("A batch holds at most " + maxOperations + " operations");
+        }
+
+        List<OperationResult> results = request.isAtomic()
+                ? executeAtomically(operations, userId)
+                : executeEach(operations, userId);
+
+        int succeeded = (int) results.stream().filter(result -> result.getError() == null).count();
+        return BatchResponse.builder()
+                .atomic(request.isAtomic())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+
+    private List<OperationResult> executeEach(List<BatchOperation> operations, Long userId) {
+        List<OperationResult> results = new ArrayList<>();
+        for (int i = 0; i < operations.size(); i++) {
+            try {
+                results.add(apply(i, operations.get(i), userId));
+            } catch (RuntimeException e) {
+                results.add(failure(i, operations.get(i), e));
+            }
+        }
+        return results;
+    }
+
+    private List<OperationResult> executeAtomically(List<BatchOperation> operations, Long userId) {
+        try {
+            return groupWriteCoordinator.execute(groupIdsOf(operations), () -> {
+                List<OperationResult> results = new ArrayList<>();
+                for (int i = 0; i < operations.size(); i++) {
+                    try {
+                        results.add(apply(i, operations.get(i), userId));
+                    } catch (ConcurrencyFailureException e) {
+                        // Left to the coordinator, which retries the whole batch
+                        throw e;
+                    } catch (RuntimeException e) {
+                        throw new BatchRolledBack(i, failure(i, operations.get(i), e));
+                    }
+                }
+                return results;
+            });
+        } catch (BatchRolledBack e) {
+            List<OperationResult> results = new ArrayList<>();
+            for (int i = 0; i < operations.size(); i++) {
+                if (i == e.failedIndex) {
+                    results.add(e.failure);
+                } else {
+                    String error = (i < e.failedIndex ? "Rolled back" : "Not run")
+                            + ", operation " + e.failedIndex + " failed";
+                    results.add(result(i, operations.get(i), HttpStatus.FAILED_DEPENDENCY, null, error));
+                }
+            }
+            return results;
+        } catch (RuntimeException e) {
+            // Failed at commit, or out of retries, after every operation ran: none of them took effect
+            OperationResult first = failure(0, operations.get(0), e);
+            List<OperationResult> results = new ArrayList<>();
+            for (int i = 0; i < operations.size(); i++) {
+                results.add(result(i, operations.get(i), HttpStatus.valueOf(first.getStatus()), null, first.getError()));
+            }
+            return results;
+        }
+    }
+
+    private OperationResult apply(int index, BatchOperation operation, Long userId) {
+        return switch (operation.getType()) {
+            case CREATE_EXPENSE -> result(index, operation, HttpStatus.CREATED,
+                    expenseSplitService.createExpense(required(operation.getExpense(), "expense"), userId), null);
+            case UPDATE_EXPENSE -> result(index, operation, HttpStatus.OK,
+                    expenseSplitService.updateExpense(required(operation.getExpenseId(), "expenseId"),
+                            required(operation.getExpense(), "expense"), userId), null);
+            case DELETE_EXPENSE -> {
+                expenseSplitService.deleteExpense(required(operation.getExpenseId(), "expenseId"), userId);
+                yield result(index, operation, HttpStatus.NO_CONTENT, null, null);
+            }
+            case SETTLE_UP -> result(index, operation, HttpStatus.CREATED,
+                    settlementService.settleUp(userId, required(operation.getSettlement(), "settlement")), null);
+            case ADD_FRIEND -> {
+                friendService.addFriend(userId, required(operation.getFriendId(), "friendId"));
+                yield result(index, operation, HttpStatus.OK, "Friend added successfully", null);
+            }
+        };
+    }
+
+    // Groups whose balances the batch changes; unknown expenses are skipped and fail when they run
+    private Set<Long> groupIdsOf(List<BatchOperation> operations) {
+        Set<Long> groupIds = new LinkedHashSet<>();
+        for (BatchOperation operation : operations) {
+            switch (operation.getType()) {
+                case CREATE_EXPENSE -> {
+                    if (operation.getExpense() != null && operation.getExpense().getGroupId() != null) {
+                        groupIds.add(operation.getExpense().getGroupId());
+                    }
+                }
+                case UPDATE_EXPENSE, DELETE_EXPENSE -> {
+                    if (operation.getExpenseId() != null) {
+                        expenseRepository.findGroupIdById(operation.getExpenseId()).ifPresent(groupIds::add);
+                    }
+                }
+                case SETTLE_UP -> {
+                    if (operation.getSettlement() != null && operation.getSettlement().getGroupId() != null) {
+                        groupIds.add(operation.getSettlement().getGroupId());
+                    }
+                }
+                case ADD_FRIEND -> {
+                }
+            }
+        }
+        return groupIds;
+    }
+
+    /**
+     * Same status codes and messages as GlobalExceptionHandler
+     */
+    private static OperationResult failure(int index, BatchOperation operation, RuntimeException e) {
+        if (e instanceof ResourceNotFoundException) {
+            return result(index, operation, HttpStatus.NOT_FOUND, null, e.getMessage());
+        }
+        if (e instanceof ResourceAlreadyExistsException) {
+            return result(index, operation, HttpStatus.CONFLICT, null, e.getMessage());
+        }
+        if (e instanceof InvalidRequestException || e instanceof IllegalArgumentException) {
+            return result(index, operation, HttpStatus.BAD_REQUEST, null, e.getMessage());
+        }
+        if (e instanceof ConcurrencyFailureException) {
+            return result(index, operation, HttpStatus.CONFLICT, null, "The group was changed concurrently, please retry");
+        }
+        log.error("Batch operation {} ({}) failed", index, operation.getType(), e);
+        return result(index, operation, HttpStatus.INTERNAL_SERVER_ERROR, null,
+                "An unexpected error occurred: " + e.getMessage());
+    }
+
+    private static OperationResult result(int index, BatchOperation operation, HttpStatus status,
+                                          Object body, String error) {
+        return OperationResult.builder()
+                .index(index)
+                .type(operation.getType())
+                .status(status.value())
+                .body(body)
+                .error(error)
+                .build();
+    }
+
+    private static <T> T required(T value, String field) {
+        if (value == null) {
+            throw new InvalidRequestException(field + " is required for this operation");
+        }
+        return value;
+    }
+
+    // Aborts the atomic batch's transaction, carrying the failure out of it
+    private static final class BatchRolledBack extends RuntimeException {
+        private final int failedIndex;
+        private final OperationResult failure;
+
+        private BatchRolledBack(int failedIndex, OperationResult failure) {
+            super(null, null, false, false);
+            this.failedIndex = failedIndex;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.id.SnowflakeIdGenerator;
+import com.splitwise.sim.monitoring.BusinessMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Fast path for very large expense and settlement loads (imports, capacity-test seeding).
+ *
+ * Rows are streamed with the PostgreSQL COPY protocol into a temporary staging table
+ * (one row per expense share), then merged into expenses, expense_participants and
+ * wallet_transactions with set-based INSERT ... SELECT, all in one transaction.
+ * Derived balances are brought up to date in the same transaction: pair_balances are
+ * incremented from the staged shares and checkpoints that the load invalidates are dropped
+ * (the checkpoint job rebuilds them).
+ *
+ * Callers are expected to have validated users, groups and shares beforehand.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkLoadService {
+
+    private static final int COPY_BUFFER_BYTES = 1 << 20;
+
+    private final DataSource dataSource;
+    private final BusinessMetrics businessMetrics;
+
+    @Transactional
+    public BulkLoadResult loadExpenses(Iterator<ExpenseLoadRow> rows) {
+        long started = System.currentTimeMillis();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(
+                        "CREATE TEMP TABLE staging_expense_shares (" +
+                        " expense_id BIGINT NOT NULL, description TEXT NOT NULL, amount NUMERIC(19,2) NOT NULL," +
+                        " paid_by BIGINT NOT NULL, group_id BIGINT NOT NULL, split_type VARCHAR(16) NOT NULL," +
+                        " created_at TIMESTAMP NOT NULL, participant_id BIGINT NOT NULL," +
+                        " share_amount NUMERIC(19,2) NOT NULL, ledger_description TEXT," +
+                        " debit_id BIGINT, credit_id BIGINT, reference_id VARCHAR(255)" +
+                        ") ON COMMIT DROP");
+            }
+
+            long expenses = copyIntoStaging(connection, rows);
+            if (expenses == 0) {
+                return new BulkLoadResult(0, 0, 0, System.currentTimeMillis() - started);
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE staging_expense_shares");
+
+                statement.executeUpdate(
+                        "INSERT INTO expenses (id, description, amount, paid_by, group_id, split_type, created_at) " +
+                        "SELECT DISTINCT ON (expense_id) expense_id, description, amount, paid_by, group_id, " +
+                        "split_type, created_at FROM staging_expense_shares ORDER BY expense_id");
+
+                long participants = statement.executeUpdate(
+                        "INSERT INTO expense_participants (expense_id, user_id) " +
+                        "SELECT DISTINCT expense_id, participant_id FROM staging_expense_shares");
+
+                long ledgerRows = statement.executeUpdate(
+                        "INSERT INTO wallet_transactions (id, user_id, transaction_type, amount, counterparty_id, " +
+                        "expense_id, group_id, description, reference_id, created_at) " +
+                        "SELECT debit_id, participant_id, 'DEBIT', share_amount, paid_by, expense_id, group_id, " +
+                        "ledger_description, reference_id, created_at FROM staging_expense_shares " +
+                        "WHERE debit_id IS NOT NULL " +
+                        "UNION ALL " +
+                        "SELECT credit_id, paid_by, 'CREDIT', share_amount, participant_id, expense_id, group_id, " +
+                        "ledger_description, reference_id, created_at FROM staging_expense_shares " +
+                        "WHERE credit_id IS NOT NULL");
+
+                // Participant owes payer; positive net = user_high owes user_low
+                statement.executeUpdate(
+                        "INSERT INTO pair_balances (user_low, user_high, net_amount, updated_at) " +
+                        "SELECT LEAST(participant_id, paid_by), GREATEST(participant_id, paid_by), " +
+                        "SUM(CASE WHEN participant_id > paid_by THEN share_amount ELSE -share_amount END), now() " +
+                        "FROM staging_expense_shares WHERE debit_id IS NOT NULL GROUP BY 1, 2 ORDER BY 1, 2 " +
+                        "ON CONFLICT (user_low, user_high, stripe) DO UPDATE " +
+                        "SET net_amount = pair_balances.net_amount + EXCLUDED.net_amount, " +
+                        "version = pair_balances.version + 1, updated_at = now()");
+
+                // Readers holding an older group version see the change
+                statement.executeUpdate(
+                        "UPDATE groups SET version = version + 1 " +
+                        "WHERE id IN (SELECT DISTINCT group_id FROM staging_expense_shares)");
+
+                statement.executeUpdate(
+                        "INSERT INTO user_versions (user_id, version) " +
+                        "SELECT user_id, 1 FROM (SELECT participant_id AS user_id FROM staging_expense_shares " +
+                        "WHERE debit_id IS NOT NULL UNION SELECT paid_by FROM staging_expense_shares " +
+                        "WHERE debit_id IS NOT NULL) touched ORDER BY user_id " +
+                        "ON CONFLICT (user_id) DO UPDATE SET version = user_versions.version + 1");
+
+                // Back-dated rows invalidate every later checkpoint of the users and groups they touch
+                int droppedCheckpoints = statement.executeUpdate(
+                        "DELETE FROM balance_checkpoints c " +
+                        "WHERE c.checkpoint_at >= (SELECT MIN(created_at) FROM staging_expense_shares) " +
+                        "AND ((c.group_id IS NULL AND c.user_id IN " +
+                        "(SELECT participant_id FROM staging_expense_shares UNION SELECT paid_by FROM staging_expense_shares)) " +
+                        "OR c.group_id IN (SELECT group_id FROM staging_expense_shares))");
+
+                recordExpenseMetrics(statement, ledgerRows);
+
+                long duration = System.currentTimeMillis() - started;
+                log.info("Bulk loaded {} expenses, {} participants, {} ledger rows in {} ms ({} checkpoints dropped)",
+                        expenses, participants, ledgerRows, duration, droppedCheckpoints);
+                return new BulkLoadResult(expenses, participants, ledgerRows, duration);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Bulk load failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private void recordExpenseMetrics(Statement statement, long ledgerRows) throws SQLException {
+        // One staging row per share, so rows per expense = participants
+        try (ResultSet sizes = statement.executeQuery(
+                "SELECT split_type, shares, COUNT(*) FROM (SELECT split_type, COUNT(*) AS shares " +
+                "FROM staging_expense_shares GROUP BY expense_id, split_type) s GROUP BY 1, 2")) {
+            while (sizes.next()) {
+                businessMetrics.expensesCreated(Expense.SplitType.valueOf(sizes.getString(1)),
+                        sizes.getInt(2), sizes.getLong(3), BusinessMetrics.SOURCE_COPY);
+            }
+        }
+        businessMetrics.ledgerRowsWritten(ledgerRows);
+    }
+
+    /**
+     * Settlements with their ledger entries, same staging approach as expenses.
+     * Like SettlementService, the ledger records the creditor paying back the debtor.
+     */
+    @Transactional
+    public long loadSettlements(Iterator<SettlementLoadRow> rows) {
+        long started = System.currentTimeMillis();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(
+                        "CREATE TEMP TABLE staging_settlements (" +
+                        " settlement_id BIGINT NOT NULL, debtor_id BIGINT NOT NULL, creditor_id BIGINT NOT NULL," +
+                        " group_id BIGINT NOT NULL, amount NUMERIC(19,2) NOT NULL, note TEXT," +
+                        " settled_at TIMESTAMP NOT NULL, debit_id BIGINT NOT NULL, credit_id BIGINT NOT NULL," +
+                        " reference_id VARCHAR(255) NOT NULL" +
+                        ") ON COMMIT DROP");
+            }
+
+            long settlements = copySettlementsIntoStaging(connection, rows);
+            if (settlements == 0) {
+                return 0;
+            }
+
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(
+                        "INSERT INTO settlements (id, debtor_id, creditor_id, group_id, amount, note, status, settled_at) " +
+                        "SELECT settlement_id, debtor_id, creditor_id, group_id, amount, note, 'COMPLETED', settled_at " +
+                        "FROM staging_settlements");
+
+                statement.executeUpdate(
+                        "INSERT INTO wallet_transactions (id, user_id, transaction_type, amount, counterparty_id, " +
+                        "group_id, description, reference_id, created_at) " +
+                        "SELECT debit_id, creditor_id, 'DEBIT', amount, debtor_id, group_id, " +
+                        "'Settlement: ' || COALESCE(note, 'Payment received'), reference_id, settled_at " +
+                        "FROM staging_settlements " +
+                        "UNION ALL " +
+                        "SELECT credit_id, debtor_id, 'CREDIT', amount, creditor_id, group_id, " +
+                        "'Settlement: ' || COALESCE(note, 'Payment received'), reference_id, settled_at " +
+                        "FROM staging_settlements");
+
+                // Creditor "owes" debtor; positive net = user_high owes user_low
+                statement.executeUpdate(
+                        "INSERT INTO pair_balances (user_low, user_high, net_amount, updated_at) " +
+                        "SELECT LEAST(creditor_id, debtor_id), GREATEST(creditor_id, debtor_id), " +
+                        "SUM(CASE WHEN creditor_id > debtor_id THEN amount ELSE -amount END), now() " +
+                        "FROM staging_settlements GROUP BY 1, 2 ORDER BY 1, 2 " +
+                        "ON CONFLICT (user_low, user_high, stripe) DO UPDATE " +
+                        "SET net_amount = pair_balances.net_amount + EXCLUDED.net_amount, " +
+                        "version = pair_balances.version + 1, updated_at = now()");
+
+                statement.executeUpdate(
+                        "UPDATE groups SET version = version + 1 " +
+                        "WHERE id IN (SELECT DISTINCT group_id FROM staging_settlements)");
+
+                statement.executeUpdate(
+                        "INSERT INTO user_versions (user_id, version) " +
+                        "SELECT user_id, 1 FROM (SELECT debtor_id AS user_id FROM staging_settlements " +
+                        "UNION SELECT creditor_id FROM staging_settlements) touched ORDER BY user_id " +
+                        "ON CONFLICT (user_id) DO UPDATE SET version = user_versions.version + 1");
+
+                statement.executeUpdate(
+                        "DELETE FROM balance_checkpoints c " +
+                        "WHERE c.checkpoint_at >= (SELECT MIN(settled_at) FROM staging_settlements) " +
+                        "AND ((c.group_id IS NULL AND c.user_id IN " +
+                        "(SELECT debtor_id FROM staging_settlements UNION SELECT creditor_id FROM staging_settlements)) " +
+                        "OR c.group_id IN (SELECT group_id FROM staging_settlements))");
+            }
+
+            businessMetrics.ledgerRowsWritten(2 * settlements);
+            log.info("Bulk loaded {} settlements in {} ms", settlements, System.currentTimeMillis() - started);
+            return settlements;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Bulk load failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    /**
+     * Friendships given as {userId, friendId} pairs; both directions are written, as FriendService does
+     */
+    @Transactional
+    public long loadFriendships(Iterator<long[]> pairs) {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        long rows = 0;
+        try (Writer out = copyWriter(connection, "COPY user_friends (user_id, friend_id) FROM STDIN WITH (FORMAT csv)")) {
+            while (pairs.hasNext()) {
+                long[] pair = pairs.next();
+                out.write(pair[0] + "," + pair[1] + "\n");
+                out.write(pair[1] + "," + pair[0] + "\n");
+                rows += 2;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Bulk load failed: " + e.getMessage(), e);
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+        return rows;
+    }
+
+    private long copySettlementsIntoStaging(Connection connection, Iterator<SettlementLoadRow> rows)
+            throws SQLException {
+        SnowflakeIdGenerator ids = SnowflakeIdGenerator.shared();
+        long settlements = 0;
+
+        try (Writer out = copyWriter(connection, "COPY staging_settlements FROM STDIN WITH (FORMAT csv)")) {
+            while (rows.hasNext()) {
+                SettlementLoadRow row = rows.next();
+                settlements++;
+                out.write(Long.toString(ids.nextId()));
+                out.write(',');
+                out.write(row.debtorId().toString());
+                out.write(',');
+                out.write(row.creditorId().toString());
+                out.write(',');
+                out.write(row.groupId().toString());
+                out.write(',');
+                out.write(row.amount().toPlainString());
+                out.write(',');
+                if (row.note() != null) {
+                    writeQuoted(out, row.note());
+                }
+                out.write(',');
+                out.write(row.settledAt().toString());
+                out.write(',');
+                out.write(Long.toString(ids.nextId()));
+                out.write(',');
+                out.write(Long.toString(ids.nextId()));
+                out.write(',');
+                out.write(ids.nextReferenceId());
+                out.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return settlements;
+    }
+
+    private Writer copyWriter(Connection connection, String copySql) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        return new BufferedWriter(new OutputStreamWriter(
+                new PGCopyOutputStream(copyManager.copyIn(copySql), COPY_BUFFER_BYTES),
+                StandardCharsets.UTF_8), COPY_BUFFER_BYTES);
+    }
+
+    private long copyIntoStaging(Connection connection, Iterator<ExpenseLoadRow> rows) throws SQLException {
+        SnowflakeIdGenerator ids = SnowflakeIdGenerator.shared();
+        long expenses = 0;
+
+        try (Writer out = copyWriter(connection, "COPY staging_expense_shares FROM STDIN WITH (FORMAT csv)")) {
+
+            while (rows.hasNext()) {
+                ExpenseLoadRow row = rows.next();
+                long expenseId = ids.nextId();
+                expenses++;
+
+                for (Share share : row.shares()) {
+                    boolean owesPayer = !share.userId().equals(row.paidBy());
+                    out.write(Long.toString(expenseId));
+                    out.write(',');
+                    writeQuoted(out, row.description());
+                    out.write(',');
+                    out.write(row.amount().toPlainString());
+                    out.write(',');
+                    out.write(row.paidBy().toString());
+                    out.write(',');
+                    out.write(row.groupId().toString());
+                    out.write(',');
+                    out.write(row.splitType().name());
+                    out.write(',');
+                    out.write(row.createdAt().toString());
+                    out.write(',');
+                    out.write(share.userId().toString());
+                    out.write(',');
+                    out.write(share.amount().toPlainString());
+                    out.write(',');
+                    if (owesPayer) {
+                        writeQuoted(out, share.ledgerDescription());
+                        out.write(',');
+                        out.write(Long.toString(ids.nextId()));
+                        out.write(',');
+                        out.write(Long.toString(ids.nextId()));
+                        out.write(',');
+                        out.write(ids.nextReferenceId());
+                    } else {
+                        // Payer's own share: participant row only, no ledger entry
+                        out.write(",,,");
+                    }
+                    out.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return expenses;
+    }
+
+    private void writeQuoted(Writer out, String value) throws IOException {
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    /**
+     * One expense to load. Shares include the payer's own share (if any) so the payer
+     * is recorded as a participant; only other participants get ledger entries.
+     */
+    public record ExpenseLoadRow(String description, BigDecimal amount, Long paidBy, Long groupId,
+                                 Expense.SplitType splitType, LocalDateTime createdAt, List<Share> shares) {}
+
+    public record Share(Long userId, BigDecimal amount, String ledgerDescription) {}
+
+    public record SettlementLoadRow(Long debtorId, Long creditorId, Long groupId, BigDecimal amount,
+                                    String note, LocalDateTime settledAt) {}
+
+    public record BulkLoadResult(long expenses, long participants, long ledgerRows, long durationMs) {}
+}
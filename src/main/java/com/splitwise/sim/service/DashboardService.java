@@ -0,0 +1,168 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.datasource.ReadYourWritesFilter;
+import com.splitwise.sim.dto.dashboard.DashboardResponse;
+import com.splitwise.sim.dto.group.GroupSummaryResponse;
+import com.splitwise.sim.dto.user.UserProfileResponse;
+import com.splitwise.sim.dto.wallet.TransactionResponse;
+import com.splitwise.sim.dto.wallet.WalletBalanceResponse;
+import com.splitwise.sim.monitoring.SqlStatementCounter;
+import com.splitwise.sim.monitoring.SqlStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the dashboard from the same service reads as the individual endpoints, running the
+ * parts side by side on a bounded pool. Each part gets part-timeout from the moment the request
+ * started; a part that is late, fails or finds the pool full is left out and named in
+ * unavailable instead of failing or holding up the whole response.
+ */
+@Service
+@Slf4j
+public class DashboardService {
+
+    static final String PROFILE = "profile";
+    static final String BALANCE = "balance";
+    static final String GROUPS = "groups";
+    static final String FRIEND_COUNT = "friendCount";
+    static final String RECENT_ACTIVITY = "recentActivity";
+
+    private final UserService userService;
+    private final LedgerService ledgerService;
+    private final GroupService groupService;
+    private final FriendService friendService;
+    private final MeterRegistry registry;
+    private final Duration partTimeout;
+    private final int recentActivityLimit;
+    private final ThreadPoolExecutor executor;
+
+    public DashboardService(UserService userService,
+                            LedgerService ledgerService,
+                            GroupService groupService,
+                            FriendService friendService,
+                            MeterRegistry registry,
+                            Environment environment,
+                            @Value("${app.dashboard.workers:8}") int workers,
+                            @Value("${app.dashboard.queue-capacity:200}") int queueCapacity,
+                            @Value("${app.dashboard.part-timeout:PT2S}") Duration partTimeout,
+                            @Value("${app.dashboard.recent-activity:10}") int recentActivityLimit) {
+        this.userService = userService;
+        this.ledgerService = ledgerService;
+        this.groupService = groupService;
+        this.friendService = friendService;
+        this.registry = registry;
+        this.partTimeout = partTimeout;
+        this.recentActivityLimit = recentActivityLimit;
+
+        // The pool bounds concurrency either way; in virtual-thread mode its workers are virtual
+        ThreadFactory threadFactory;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            threadFactory = new VirtualThreadTaskExecutor("dashboard-").getVirtualThreadFactory();
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
+    public DashboardResponse getDashboard(Long userId) {
+        long deadline = System.nanoTime() + partTimeout.toNanos();
+        CompletableFuture<Part<UserProfileResponse>> profile = submit(() -> userService.getUserProfile(userId));
+        CompletableFuture<Part<WalletBalanceResponse>> balance = submit(() -> ledgerService.getBalance(userId));
+        CompletableFuture<Part<List<GroupSummaryResponse>>> groups =
+                submit(() -> groupService.getUserGroupSummaries(userId));
+        CompletableFuture<Part<Integer>> friendCount = submit(() -> (int) friendService.countFriends(userId));
+        CompletableFuture<Part<List<TransactionResponse>>> recentActivity =
+                submit(() -> ledgerService.getRecentTransactions(userId, recentActivityLimit));
+
+        List<String> unavailable = new ArrayList<>();
+        return DashboardResponse.builder()
+                .profile(await(PROFILE, profile, deadline, unavailable))
+                .balance(await(BALANCE, balance, deadline, unavailable))
+                .groups(await(GROUPS, groups, deadline, unavailable))
+                .friendCount(await(FRIEND_COUNT, friendCount, deadline, unavailable))
+                .recentActivity(await(RECENT_ACTIVITY, recentActivity, deadline, unavailable))
+                .unavailable(unavailable)
+                .build();
+    }
+
+    /**
+     * Starts a part on the pool with the request's replica routing, counting its SQL separately.
+     * A full pool completes the future with the RejectedExecutionException.
+     */
+    <T> CompletableFuture<Part<T>> submit(Supplier<T> task) {
+        Supplier<Part<T>> part = ReadYourWritesFilter.withCurrentPinning(() -> {
+            try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+                return new Part<>(task.get(), scope.stats());
+            }
+        });
+        try {
+            return CompletableFuture.supplyAsync(part, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * The part's value, or null (and its name in unavailable) when it is not there by the deadline
+     */
+    <T> T await(String name, CompletableFuture<Part<T>> future, long deadline, List<String> unavailable) {
+        String reason;
+        try {
+            Part<T> part = future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            // Lets the SQL budget of the request see what its parts ran
+            SqlStatementCounter.addToCurrent(part.stats());
+            return part.value();
+        } catch (TimeoutException e) {
+            // The part still runs to completion on its worker; only its result is dropped
+            reason = "timeout";
+            log.warn("Dashboard part {} not ready after {}", name, partTimeout);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                reason = "rejected";
+                log.warn("Dashboard part {} rejected, pool is full", name);
+            } else {
+                reason = "error";
+                log.warn("Dashboard part {} failed", name, e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reason = "interrupted";
+        }
+        registry.counter("splitwise.dashboard.unavailable", "part", name, "reason", reason).increment();
+        unavailable.add(name);
+        return null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    record Part<T>(T value, SqlStats stats) {}
+}
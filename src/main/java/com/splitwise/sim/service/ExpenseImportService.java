@@ -0,0 +1,442 @@
+package com.splitwise.sim.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.sim.dto.expense.ExpenseParticipant;
+import com.splitwise.sim.dto.expense.ImportExpenseRow;
+import com.splitwise.sim.dto.expense.ImportResultResponse;
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.entity.User;
+import com.splitwise.sim.exception.InvalidRequestException;
+import com.splitwise.sim.monitoring.BusinessMetrics;
+import com.splitwise.sim.repository.ExpenseRepository;
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk expense import (spreadsheet migrations).
+ *
+ * 1. Parse the body row by row (JSON array or CSV)
+ * 2. Resolve every referenced user and group with a handful of findAllById calls
+ * 3. Validate each row in a single pass, feeding valid rows into fixed-size chunks
+ * 4. Persist each chunk in its own transaction with batched expense and ledger inserts
+ *
+ * A bad row is reported and skipped; a failing chunk only fails its own rows.
+ * With useCopy, all valid rows are instead streamed through BulkLoadService (COPY) in
+ * one transaction.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExpenseImportService {
+
+    private static final int ID_LOOKUP_BATCH = 1000;
+
+    private final ExpenseSplitService expenseSplitService;
+    private final LedgerService ledgerService;
+    private final BulkLoadService bulkLoadService;
+    private final BusinessMetrics businessMetrics;
+    private final ExpenseRepository expenseRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.import.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.import.max-rows:100000}")
+    private int maxRows;
+
+    public ImportResultResponse importJson(InputStream body, Long importingUserId, boolean useCopy)
+            throws IOException {
+        List<ParsedRow> rows = new ArrayList<>();
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidRequestException("Expected a JSON array of expenses");
+            }
+            int rowNumber = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                rowNumber++;
+                checkRowLimit(rowNumber);
+                JsonNode node = parser.readValueAsTree();
+                try {
+                    rows.add(new ParsedRow(rowNumber, objectMapper.treeToValue(node, ImportExpenseRow.class), null));
+                } catch (JsonProcessingException e) {
+                    rows.add(new ParsedRow(rowNumber, null, "Malformed row: " + e.getOriginalMessage()));
+                }
+            }
+        }
+
+        return importRows(rows, importingUserId, useCopy);
+    }
+
+    /**
+     * CSV with a header row:
+     * description,amount,groupId,splitType,paidByUserId,participants
+     * participants: "12;13;14" for EQUAL, "12:40.00;13:60.00" (amount or percentage) otherwise
+     */
+    public ImportResultResponse importCsv(InputStream body, Long importingUserId, boolean useCopy)
+            throws IOException {
+        List<ParsedRow> rows = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                throw new InvalidRequestException("CSV is empty");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> headerFields = splitCsvLine(header);
+            for (int i = 0; i < headerFields.size(); i++) {
+                columns.put(headerFields.get(i).trim(), i);
+            }
+
+            String line;
+            int rowNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                rowNumber++;
+                checkRowLimit(rowNumber);
+                try {
+                    rows.add(new ParsedRow(rowNumber, parseCsvRow(splitCsvLine(line), columns), null));
+                } catch (RuntimeException e) {
+                    rows.add(new ParsedRow(rowNumber, null, "Malformed row: " + e.getMessage()));
+                }
+            }
+        }
+
+        return importRows(rows, importingUserId, useCopy);
+    }
+
+    private ImportResultResponse importRows(List<ParsedRow> rows, Long importingUserId, boolean useCopy) {
+        long started = System.currentTimeMillis();
+
+        // Every referenced user and group, resolved up front in a few queries
+        Set<Long> userIds = new HashSet<>();
+        Set<Long> groupIds = new HashSet<>();
+        userIds.add(importingUserId);
+        for (ParsedRow parsed : rows) {
+            if (parsed.row() == null) {
+                continue;
+            }
+            ImportExpenseRow row = parsed.row();
+            if (row.getPaidByUserId() != null) userIds.add(row.getPaidByUserId());
+            if (row.getGroupId() != null) groupIds.add(row.getGroupId());
+            if (row.getParticipantIds() != null) userIds.addAll(row.getParticipantIds());
+            if (row.getParticipants() != null) {
+                row.getParticipants().stream()
+                        .map(ExpenseParticipant::getUserId)
+                        .filter(Objects::nonNull)
+                        .forEach(userIds::add);
+            }
+        }
+        Map<Long, User> users = findAllById(userIds, userRepository::findAllById, User::getId);
+        Map<Long, Group> groups = findAllById(groupIds, groupRepository::findAllById, Group::getId);
+
+        List<ImportResultResponse.RowError> errors = new ArrayList<>();
+        List<ValidRow> chunk = new ArrayList<>(chunkSize);
+        int imported = 0;
+
+        for (ParsedRow parsed : rows) {
+            String error = parsed.error();
+            ValidRow valid = null;
+            if (error == null) {
+                try {
+                    valid = validate(parsed, importingUserId, users, groups);
+                } catch (RuntimeException e) {
+                    error = e.getMessage();
+                }
+            }
+
+            if (error != null) {
+                errors.add(rowError(parsed.rowNumber(), error));
+                continue;
+            }
+
+            chunk.add(valid);
+            if (!useCopy && chunk.size() == chunkSize) {
+                imported += persistChunk(chunk, errors);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            imported += useCopy ? bulkLoad(chunk, errors) : persistChunk(chunk, errors);
+        }
+
+        errors.sort(Comparator.comparing(ImportResultResponse.RowError::getRow));
+        long duration = System.currentTimeMillis() - started;
+        log.info("Imported {} of {} expenses in {} ms ({} failed)", imported, rows.size(), duration, errors.size());
+
+        return ImportResultResponse.builder()
+                .totalRows(rows.size())
+                .imported(imported)
+                .failed(rows.size() - imported)
+                .durationMs(duration)
+                .errors(errors)
+                .build();
+    }
+
+    private ValidRow validate(ParsedRow parsed, Long importingUserId, Map<Long, User> users, Map<Long, Group> groups) {
+        ImportExpenseRow row = parsed.row();
+
+        Set<ConstraintViolation<ImportExpenseRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        Group group = groups.get(row.getGroupId());
+        if (group == null || !Boolean.TRUE.equals(group.getIsActive())) {
+            throw new InvalidRequestException("Group not found: " + row.getGroupId());
+        }
+
+        Long payerId = row.getPaidByUserId() != null ? row.getPaidByUserId() : importingUserId;
+        if (!users.containsKey(payerId)) {
+            throw new InvalidRequestException("Payer not found: " + payerId);
+        }
+
+        Expense.SplitType splitType;
+        try {
+            splitType = Expense.SplitType.valueOf(row.getSplitType().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid split type: " + row.getSplitType());
+        }
+
+        Set<Long> participantIds = new HashSet<>();
+        if (splitType == Expense.SplitType.EQUAL) {
+            if (row.getParticipantIds() == null || row.getParticipantIds().isEmpty()) {
+                throw new InvalidRequestException("Participant IDs required for EQUAL split");
+            }
+            participantIds.addAll(row.getParticipantIds());
+        } else {
+            if (row.getParticipants() == null || row.getParticipants().isEmpty()) {
+                throw new InvalidRequestException("Participants required for " + splitType + " split");
+            }
+            for (ExpenseParticipant participant : row.getParticipants()) {
+                if (participant.getUserId() == null) {
+                    throw new InvalidRequestException("User ID is required");
+                }
+                participantIds.add(participant.getUserId());
+            }
+        }
+        for (Long participantId : participantIds) {
+            if (!users.containsKey(participantId)) {
+                throw new InvalidRequestException("Participant not found: " + participantId);
+            }
+        }
+
+        Map<Long, BigDecimal> shares = expenseSplitService.calculateShares(splitType, row);
+        return new ValidRow(parsed.rowNumber(), row, payerId, group.getId(), splitType, participantIds, shares);
+    }
+
+    /**
+     * One transaction per chunk: expenses and their ledger rows go out as JDBC batches,
+     * and the persistence context is discarded at commit before the next chunk starts.
+     */
+    private int persistChunk(List<ValidRow> chunk, List<ImportResultResponse.RowError> errors) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Expense> expenses = new ArrayList<>(chunk.size());
+                for (ValidRow valid : chunk) {
+                    Set<User> participants = valid.participantIds().stream()
+                            .map(userRepository::getReferenceById)
+                            .collect(Collectors.toSet());
+                    expenses.add(Expense.builder()
+                            .description(valid.row().getDescription())
+                            .amount(valid.row().getAmount())
+                            .paidBy(userRepository.getReferenceById(valid.payerId()))
+                            .group(groupRepository.getReferenceById(valid.groupId()))
+                            .splitType(valid.splitType())
+                            .participants(participants)
+                            .build());
+                }
+                expenseRepository.saveAll(expenses);
+
+                List<LedgerService.Transfer> transfers = new ArrayList<>();
+                for (int i = 0; i < chunk.size(); i++) {
+                    ValidRow valid = chunk.get(i);
+                    Expense expense = expenses.get(i);
+                    valid.shares().forEach((participantId, share) -> {
+                        if (!participantId.equals(valid.payerId())) {
+                            transfers.add(new LedgerService.Transfer(
+                                    participantId,
+                                    valid.payerId(),
+                                    share,
+                                    expenseSplitService.splitDescription(expense, valid.row(), participantId),
+                                    expense.getId(),
+                                    valid.groupId()));
+                        }
+                    });
+                }
+                ledgerService.recordDoubleEntries(transfers);
+                groupRepository.incrementVersions(chunk.stream().map(ValidRow::groupId).collect(Collectors.toSet()));
+            });
+            chunk.forEach(valid -> businessMetrics.expenseCreated(
+                    valid.splitType(), valid.participantIds().size(), BusinessMetrics.SOURCE_IMPORT));
+            return chunk.size();
+        } catch (RuntimeException e) {
+            log.warn("Import chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            for (ValidRow valid : chunk) {
+                errors.add(rowError(valid.rowNumber(), "Not saved, batch failed: " + e.getMessage()));
+            }
+            return 0;
+        }
+    }
+
+    private int bulkLoad(List<ValidRow> validRows, List<ImportResultResponse.RowError> errors) {
+        LocalDateTime now = LocalDateTime.now();
+        Iterator<BulkLoadService.ExpenseLoadRow> loadRows = validRows.stream()
+                .map(valid -> {
+                    // Transient, only used to build the ledger descriptions
+                    Expense expense = Expense.builder()
+                            .description(valid.row().getDescription())
+                            .splitType(valid.splitType())
+                            .build();
+                    List<BulkLoadService.Share> shares = valid.shares().entrySet().stream()
+                            .map(share -> new BulkLoadService.Share(share.getKey(), share.getValue(),
+                                    expenseSplitService.splitDescription(expense, valid.row(), share.getKey())))
+                            .collect(Collectors.toList());
+                    return new BulkLoadService.ExpenseLoadRow(valid.row().getDescription(), valid.row().getAmount(),
+                            valid.payerId(), valid.groupId(), valid.splitType(), now, shares);
+                })
+                .iterator();
+        try {
+            return (int) bulkLoadService.loadExpenses(loadRows).expenses();
+        } catch (RuntimeException e) {
+            log.warn("Bulk load of {} rows failed: {}", validRows.size(), e.getMessage());
+            for (ValidRow valid : validRows) {
+                errors.add(rowError(valid.rowNumber(), "Not saved, bulk load failed: " + e.getMessage()));
+            }
+            return 0;
+        }
+    }
+
+    private ImportExpenseRow parseCsvRow(List<String> fields, Map<String, Integer> columns) {
+        ImportExpenseRow row = new ImportExpenseRow();
+        row.setDescription(column(fields, columns, "description"));
+        String amount = column(fields, columns, "amount");
+        row.setAmount(amount != null ? new BigDecimal(amount) : null);
+        String groupId = column(fields, columns, "groupId");
+        row.setGroupId(groupId != null ? Long.valueOf(groupId) : null);
+        row.setSplitType(column(fields, columns, "splitType"));
+        String paidBy = column(fields, columns, "paidByUserId");
+        row.setPaidByUserId(paidBy != null ? Long.valueOf(paidBy) : null);
+
+        String participants = column(fields, columns, "participants");
+        if (participants != null) {
+            if ("EQUAL".equalsIgnoreCase(row.getSplitType())) {
+                row.setParticipantIds(Arrays.stream(participants.split(";"))
+                        .map(String::trim)
+                        .map(Long::valueOf)
+                        .collect(Collectors.toCollection(LinkedHashSet::new)));
+            } else {
+                boolean percentage = "PERCENTAGE".equalsIgnoreCase(row.getSplitType());
+                List<ExpenseParticipant> list = new ArrayList<>();
+                for (String entry : participants.split(";")) {
+                    String[] parts = entry.trim().split(":");
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("participant must be userId:value, got '" + entry + "'");
+                    }
+                    BigDecimal value = new BigDecimal(parts[1].trim());
+                    list.add(new ExpenseParticipant(Long.valueOf(parts[0].trim()),
+                            percentage ? null : value, percentage ? value : null));
+                }
+                row.setParticipants(list);
+            }
+        }
+        return row;
+    }
+
+    private String column(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    // Comma separated, double quotes around fields that contain commas, "" for a literal quote
+    private List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private <T> Map<Long, T> findAllById(Set<Long> ids, Function<List<Long>, List<T>> finder,
+                                         Function<T, Long> idOf) {
+        Map<Long, T> found = new HashMap<>();
+        List<Long> all = new ArrayList<>(ids);
+        for (int i = 0; i < all.size(); i += ID_LOOKUP_BATCH) {
+            finder.apply(all.subList(i, Math.min(all.size(), i + ID_LOOKUP_BATCH)))
+                    .forEach(entity -> found.put(idOf.apply(entity), entity));
+        }
+        return found;
+    }
+
+    private void checkRowLimit(int rowNumber) {
+        if (rowNumber > maxRows) {
+            throw new InvalidRequestException("Import is limited to " + maxRows + " rows");
+        }
+    }
+
+    private ImportResultResponse.RowError rowError(int rowNumber, String message) {
+        return ImportResultResponse.RowError.builder().row(rowNumber).message(message).build();
+    }
+
+    private record ParsedRow(int rowNumber, ImportExpenseRow row, String error) {}
+
+    private record ValidRow(int rowNumber, ImportExpenseRow row, Long payerId, Long groupId,
+                            Expense.SplitType splitType, Set<Long> participantIds,
+                            Map<Long, BigDecimal> shares) {}
+}
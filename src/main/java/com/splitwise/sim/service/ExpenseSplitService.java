@@ -8,9 +8,17 @@ import com.splitwise.sim.entity.Group;
 import com.splitwise.sim.entity.User;
 import com.splitwise.sim.exception.InvalidRequestException;
 import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.live.LiveUpdatePublisher;
+import com.splitwise.sim.monitoring.BusinessMetrics;
+import com.splitwise.sim.monitoring.MetricsConfig;
+import com.splitwise.sim.monitoring.jfr.ExpenseCreateEvent;
+import com.splitwise.sim.outbox.OutboxEvents;
+import com.splitwise.sim.outbox.OutboxPublisher;
 import com.splitwise.sim.repository.ExpenseRepository;
 import com.splitwise.sim.repository.GroupRepository;
 import com.splitwise.sim.repository.UserRepository;
+import com.splitwise.sim.repository.WalletTransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,10 +26,12 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class ExpenseSplitService {
@@ -29,23 +39,32 @@ public class ExpenseSplitService {
     private final ExpenseRepository expenseRepository;
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
+    private final WalletTransactionRepository transactionRepository;
     private final LedgerService ledgerService;
+    private final BusinessMetrics businessMetrics;
+    private final GroupWriteCoordinator groupWriteCoordinator;
+    private final OutboxPublisher outboxPublisher;
+    private final LiveUpdatePublisher liveUpdatePublisher;
 
-    @Transactional
+    /**
+     * Runs in its own transaction under the group's write lock, retried on conflicts
+     */
     public ExpenseResponse createExpense(CreateExpenseRequest request, Long paidByUserId) {
+        return groupWriteCoordinator.execute(request.getGroupId(), () -> insertExpense(request, paidByUserId));
+    }
+
+    private ExpenseResponse insertExpense(CreateExpenseRequest request, Long paidByUserId) {
+        ExpenseCreateEvent event = new ExpenseCreateEvent();
+        event.begin();
+
         User paidBy = userRepository.findById(paidByUserId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + paidByUserId));
 
-        Group group = groupRepository.findById(request.getGroupId())
+        Group group = groupRepository.findByIdForWrite(request.getGroupId())
                 .orElseThrow(() -> new ResourceNotFoundException("Group not found: " + request.getGroupId()));
 
         // Validate split type
-        Expense.SplitType splitType;
-        try {
-            splitType = Expense.SplitType.valueOf(request.getSplitType().toUpperCase());
-        } catch (IllegalArgumentException e) {
-            throw new InvalidRequestException("Invalid split type: " + request.getSplitType());
-        }
+        Expense.SplitType splitType = parseSplitType(request.getSplitType());
 
         // Get participant users
         Set<User> participantUsers = getParticipantUsers(request, splitType);
@@ -63,24 +82,168 @@ public class ExpenseSplitService {
         Expense savedExpense = expenseRepository.save(expense);
 
         // Split based on type
-        switch (splitType) {
-            case EQUAL:
-                splitEqually(savedExpense, request.getParticipantIds(), paidByUserId);
-                break;
-            case EXACT:
-                splitExactly(savedExpense, request.getParticipants(), paidByUserId);
-                break;
-            case PERCENTAGE:
-                splitByPercentage(savedExpense, request.getParticipants(), paidByUserId);
-                break;
+        Map<Long, BigDecimal> shares = calculateShares(splitType, request);
+        int transfers = 0;
+        // In participant id order: with the payer fixed, that is (user_low, user_high) order of the
+        // pair_balances rows, the same order every concurrent writer locks them in
+        for (Map.Entry<Long, BigDecimal> share : new TreeMap<>(shares).entrySet()) {
+            if (!share.getKey().equals(paidByUserId)) {
+                transfers++;
+                ledgerService.recordDoubleEntry(
+                        share.getKey(),
+                        paidByUserId,
+                        share.getValue(),
+                        splitDescription(savedExpense, request, share.getKey()),
+                        savedExpense.getId(),
+                        group.getId()
+                );
+            }
         }
 
-        log.info("Created {} expense: {} for amount: {}",
-                splitType, savedExpense.getDescription(), savedExpense.getAmount());
+        // Everything else that should follow an expense hangs off this event
+        outboxPublisher.publish(OutboxEvents.EXPENSE_CREATED, group.getId(), OutboxEvents.ExpenseChanged.of(savedExpense));
+        liveUpdatePublisher.expenseChanged(OutboxEvents.EXPENSE_CREATED, savedExpense);
+
+        businessMetrics.expenseCreated(splitType, shares.size(), BusinessMetrics.SOURCE_API);
+
+        // Expense + participant rows + per transfer two ledger rows and a pair balance + outbox row
+        event.groupId = group.getId();
+        event.participants = participantUsers.size();
+        event.rows = 2 + participantUsers.size() + 3L * transfers;
+        event.splitType = splitType.name();
+        event.commit();
 
         return mapToResponse(savedExpense);
     }
 
+    /**
+     * Edit an expense in place.
+     * Only the difference between the old and new shares is written to the ledger,
+     * so a correction costs one compensating entry per changed share.
+     */
+    public ExpenseResponse updateExpense(Long expenseId, CreateExpenseRequest request, Long userId) {
+        return groupWriteCoordinator.execute(groupIdOf(expenseId), () -> applyUpdate(expenseId, request, userId));
+    }
+
+    private ExpenseResponse applyUpdate(Long expenseId, CreateExpenseRequest request, Long userId) {
+        Expense expense = getEditableExpense(expenseId, userId);
+
+        if (expense.getGroup() != null && !expense.getGroup().getId().equals(request.getGroupId())) {
+            throw new InvalidRequestException("An expense cannot be moved to another group");
+        }
+
+        Expense.SplitType splitType = parseSplitType(request.getSplitType());
+        Set<User> participantUsers = getParticipantUsers(request, splitType);
+        Map<Long, BigDecimal> newShares = calculateShares(splitType, request);
+
+        expense.setDescription(request.getDescription());
+        expense.setAmount(request.getAmount());
+        expense.setSplitType(splitType);
+        expense.setParticipants(participantUsers);
+
+        int adjusted = reconcileLedger(expense, newShares, "Adjustment: " + expense.getDescription());
+
+        log.info("Updated expense {}: {} compensating ledger entries", expenseId, adjusted);
+
+        Expense saved = expenseRepository.save(expense);
+        outboxPublisher.publish(OutboxEvents.EXPENSE_UPDATED, request.getGroupId(), OutboxEvents.ExpenseChanged.of(saved));
+        liveUpdatePublisher.expenseChanged(OutboxEvents.EXPENSE_UPDATED, saved);
+        return mapToResponse(saved);
+    }
+
+    /**
+     * Soft-delete an expense and reverse whatever is still owed on it
+     */
+    public void deleteExpense(Long expenseId, Long userId) {
+        groupWriteCoordinator.execute(groupIdOf(expenseId), () -> {
+            applyDelete(expenseId, userId);
+            return null;
+        });
+    }
+
+    private void applyDelete(Long expenseId, Long userId) {
+        Expense expense = getEditableExpense(expenseId, userId);
+
+        expense.setDeletedAt(LocalDateTime.now());
+
+        int reversed = reconcileLedger(expense, Collections.emptyMap(), "Reversal: " + expense.getDescription());
+
+        expenseRepository.save(expense);
+        outboxPublisher.publish(OutboxEvents.EXPENSE_DELETED,
+                expense.getGroup() != null ? expense.getGroup().getId() : null, OutboxEvents.ExpenseChanged.of(expense));
+        liveUpdatePublisher.expenseChanged(OutboxEvents.EXPENSE_DELETED, expense);
+        log.info("Deleted expense {}: {} compensating ledger entries", expenseId, reversed);
+    }
+
+    private Expense getEditableExpense(Long expenseId, Long userId) {
+        Expense expense = expenseRepository.findByIdAndDeletedAtIsNull(expenseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found: " + expenseId));
+
+        if (!expense.getPaidBy().getId().equals(userId)) {
+            throw new InvalidRequestException("Only the payer can change expense: " + expenseId);
+        }
+        if (expense.getGroup() != null) {
+            groupRepository.findByIdForWrite(expense.getGroup().getId());
+        }
+        return expense;
+    }
+
+    // Only picks the lock; a missing expense is reported inside the write
+    private Long groupIdOf(Long expenseId) {
+        return expenseRepository.findGroupIdById(expenseId).orElse(null);
+    }
+
+    /**
+     * Brings the ledger for one expense in line with the target shares.
+     * What each participant currently owes the payer is read back as a single aggregate
+     * over the expense's ledger rows (original splits plus earlier corrections).
+     */
+    private int reconcileLedger(Expense expense, Map<Long, BigDecimal> targetShares, String description) {
+        Long payerId = expense.getPaidBy().getId();
+        Long groupId = expense.getGroup() != null ? expense.getGroup().getId() : null;
+
+        Map<Long, BigDecimal> currentShares = new HashMap<>();
+        for (Object[] row : transactionRepository.sumDebitsByExpense(expense.getId())) {
+            Long debtorId = (Long) row[0];
+            Long creditorId = (Long) row[1];
+            BigDecimal amount = (BigDecimal) row[2];
+            if (creditorId.equals(payerId)) {
+                currentShares.merge(debtorId, amount, BigDecimal::add);
+            } else if (debtorId.equals(payerId)) {
+                currentShares.merge(creditorId, amount.negate(), BigDecimal::add);
+            }
+        }
+
+        // Sorted for the same pair_balances lock order as insertExpense
+        Set<Long> participantIds = new TreeSet<>(currentShares.keySet());
+        participantIds.addAll(targetShares.keySet());
+        participantIds.remove(payerId);
+
+        int entries = 0;
+        for (Long participantId : participantIds) {
+            BigDecimal delta = targetShares.getOrDefault(participantId, BigDecimal.ZERO)
+                    .subtract(currentShares.getOrDefault(participantId, BigDecimal.ZERO));
+
+            if (delta.signum() > 0) {
+                ledgerService.recordDoubleEntry(participantId, payerId, delta, description, expense.getId(), groupId);
+                entries++;
+            } else if (delta.signum() < 0) {
+                ledgerService.recordDoubleEntry(payerId, participantId, delta.negate(), description,
+                        expense.getId(), groupId);
+                entries++;
+            }
+        }
+        return entries;
+    }
+
+    private Expense.SplitType parseSplitType(String splitType) {
+        try {
+            return Expense.SplitType.valueOf(splitType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid split type: " + splitType);
+        }
+    }
+
     private Set<User> getParticipantUsers(CreateExpenseRequest request, Expense.SplitType splitType) {
         Set<Long> userIds = new HashSet<>();
 
@@ -98,19 +261,53 @@ public class ExpenseSplitService {
                     .collect(Collectors.toSet()));
         }
 
-        Set<User> users = new HashSet<>();
-        for (Long userId : userIds) {
-            users.add(userRepository.findById(userId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Participant not found: " + userId)));
+        // One query for all participants instead of one per participant
+        Set<User> users = new HashSet<>(userRepository.findAllById(userIds));
+        if (users.size() != userIds.size()) {
+            users.forEach(user -> userIds.remove(user.getId()));
+            throw new ResourceNotFoundException("Participant not found: " + userIds.iterator().next());
         }
         return users;
     }
 
+    /**
+     * Share owed by every participant (payer included), keyed by user ID
+     */
+    public Map<Long, BigDecimal> calculateShares(Expense.SplitType splitType, CreateExpenseRequest request) {
+        switch (splitType) {
+            case EXACT:
+                return splitExactly(request.getAmount(), request.getParticipants());
+            case PERCENTAGE:
+                return splitByPercentage(request.getAmount(), request.getParticipants());
+            case EQUAL:
+            default:
+                return splitEqually(request.getAmount(), request.getParticipantIds());
+        }
+    }
+
+    /**
+     * Ledger description for one participant's share
+     */
+    public String splitDescription(Expense expense, CreateExpenseRequest request, Long participantId) {
+        switch (expense.getSplitType()) {
+            case EXACT:
+                return "Split (Exact): " + expense.getDescription();
+            case PERCENTAGE:
+                BigDecimal percentage = request.getParticipants().stream()
+                        .filter(p -> p.getUserId().equals(participantId))
+                        .map(ExpenseParticipant::getPercentage)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                return String.format("Split (%s%%): %s", percentage, expense.getDescription());
+            case EQUAL:
+            default:
+                return "Split (Equal): " + expense.getDescription();
+        }
+    }
+
     /**
      * EQUAL SPLIT: Divide equally among all participants
      */
-    private void splitEqually(Expense expense, Set<Long> participantIds, Long paidByUserId) {
-        BigDecimal totalAmount = expense.getAmount();
+    private Map<Long, BigDecimal> splitEqually(BigDecimal totalAmount, Set<Long> participantIds) {
         int participantCount = participantIds.size();
         BigDecimal sharePerPerson = totalAmount.divide(
                 BigDecimal.valueOf(participantCount),
@@ -118,24 +315,17 @@ public class ExpenseSplitService {
                 RoundingMode.HALF_UP
         );
 
+        Map<Long, BigDecimal> shares = new LinkedHashMap<>();
         for (Long participantId : participantIds) {
-            if (!participantId.equals(paidByUserId)) {
-                ledgerService.recordDoubleEntry(
-                        participantId,
-                        paidByUserId,
-                        sharePerPerson,
-                        "Split (Equal): " + expense.getDescription(),
-                        expense.getId()
-                );
-            }
+            shares.put(participantId, sharePerPerson);
         }
+        return shares;
     }
 
     /**
      * EXACT SPLIT: Each person owes a specific amount
      */
-    private void splitExactly(Expense expense, List<ExpenseParticipant> participants, Long paidByUserId) {
-        BigDecimal totalAmount = expense.getAmount();
+    private Map<Long, BigDecimal> splitExactly(BigDecimal totalAmount, List<ExpenseParticipant> participants) {
         BigDecimal sumOfSplits = BigDecimal.ZERO;
 
         // Validate: sum of splits should equal total amount
@@ -153,25 +343,17 @@ public class ExpenseSplitService {
             );
         }
 
-        // Record ledger entries
+        Map<Long, BigDecimal> shares = new LinkedHashMap<>();
         for (ExpenseParticipant participant : participants) {
-            if (!participant.getUserId().equals(paidByUserId)) {
-                ledgerService.recordDoubleEntry(
-                        participant.getUserId(),
-                        paidByUserId,
-                        participant.getAmount(),
-                        "Split (Exact): " + expense.getDescription(),
-                        expense.getId()
-                );
-            }
+            shares.merge(participant.getUserId(), participant.getAmount(), BigDecimal::add);
         }
+        return shares;
     }
 
     /**
      * PERCENTAGE SPLIT: Each person owes a percentage of total
      */
-    private void splitByPercentage(Expense expense, List<ExpenseParticipant> participants, Long paidByUserId) {
-        BigDecimal totalAmount = expense.getAmount();
+    private Map<Long, BigDecimal> splitByPercentage(BigDecimal totalAmount, List<ExpenseParticipant> participants) {
         BigDecimal sumOfPercentages = BigDecimal.ZERO;
 
         // Validate: sum of percentages should be 100
@@ -190,28 +372,19 @@ public class ExpenseSplitService {
             );
         }
 
-        // Calculate and record ledger entries
+        Map<Long, BigDecimal> shares = new LinkedHashMap<>();
         for (ExpenseParticipant participant : participants) {
             BigDecimal owedAmount = totalAmount
                     .multiply(participant.getPercentage())
                     .divide(new BigDecimal("100"), 2, RoundingMode.HALF_UP);
-
-            if (!participant.getUserId().equals(paidByUserId)) {
-                ledgerService.recordDoubleEntry(
-                        participant.getUserId(),
-                        paidByUserId,
-                        owedAmount,
-                        String.format("Split (%s%%): %s",
-                                participant.getPercentage(), expense.getDescription()),
-                        expense.getId()
-                );
-            }
+            shares.merge(participant.getUserId(), owedAmount, BigDecimal::add);
         }
+        return shares;
     }
 
     @Transactional(readOnly = true)
     public List<ExpenseResponse> getGroupExpenses(Long groupId) {
-        return expenseRepository.findByGroupId(groupId).stream()
+        return expenseRepository.findByGroupIdAndDeletedAtIsNull(groupId).stream()
                 .map(this::mapToResponse)
                 .collect(Collectors.toList());
     }
@@ -48,6 +48,11 @@ public class FriendService {
         userRepository.save(friend);
     }
 
+    @Transactional(readOnly = true)
+    public long countFriends(Long userId) {
+        return userRepository.countFriends(userId);
+    }
+
     @Transactional(readOnly = true)
     public Set<User> getFriends(Long userId) {
         User user = userRepository.findById(userId)
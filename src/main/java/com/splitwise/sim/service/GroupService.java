@@ -1,31 +1,39 @@
 package com.splitwise.sim.service;
 
+import com.splitwise.sim.cache.ReferenceDataCache;
 import com.splitwise.sim.dto.group.BalanceResponse;
 import com.splitwise.sim.dto.group.GroupRequest;
 import com.splitwise.sim.dto.group.GroupResponse;
-import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.dto.group.GroupSummaryResponse;
 import com.splitwise.sim.entity.Group;
-import com.splitwise.sim.entity.Settlement;
 import com.splitwise.sim.entity.User;
 import com.splitwise.sim.exception.ResourceNotFoundException;
-import com.splitwise.sim.repository.ExpenseRepository;
+import com.splitwise.sim.monitoring.MetricsConfig;
+import com.splitwise.sim.monitoring.jfr.GroupBalanceEvent;
 import com.splitwise.sim.repository.GroupRepository;
-import com.splitwise.sim.repository.SettlementRepository;
 import com.splitwise.sim.repository.UserRepository;
+import com.splitwise.sim.repository.WalletTransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 public class GroupService {
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
-    private final ExpenseRepository expenseRepository;
-    private final SettlementRepository settlementRepository;
+    private final WalletTransactionRepository walletTransactionRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final ReferenceDataCache referenceDataCache;
+    private final GroupWriteCoordinator groupWriteCoordinator;
 
     @Transactional
     public GroupResponse createGroup(GroupRequest request, Long creatorId) {
@@ -59,6 +67,25 @@ public class GroupService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The user's groups with member counts and their own net in each, in two statements
+     */
+    @Transactional(readOnly = true)
+    public List<GroupSummaryResponse> getUserGroupSummaries(Long userId) {
+        Map<Long, BigDecimal> nets = new HashMap<>();
+        for (Object[] row : walletTransactionRepository.sumNetByGroupForUser(userId)) {
+            nets.put((Long) row[0], (BigDecimal) row[1]);
+        }
+        return groupRepository.findSummariesByMemberId(userId).stream()
+                .map(row -> GroupSummaryResponse.builder()
+                        .id((Long) row[0])
+                        .name((String) row[1])
+                        .memberCount(((Number) row[2]).intValue())
+                        .netBalance(nets.getOrDefault((Long) row[0], BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
     @Transactional(readOnly = true)
     public GroupResponse getGroupById(Long groupId) {
         Group group = groupRepository.findById(groupId)
@@ -66,14 +93,25 @@ public class GroupService {
         return mapToResponse(group);
     }
 
-    @Transactional
+    /**
+     * Runs in its own transaction under the group's write lock, retried on conflicts
+     */
     public void addMember(Long groupId, Long userId) {
+        groupWriteCoordinator.execute(groupId, () -> {
+            insertMember(groupId, userId);
+            return null;
+        });
+    }
+
+    private void insertMember(Long groupId, Long userId) {
+        // Changing the member collection already bumps the group version
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Group not found: " + groupId));
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
         group.getMembers().add(user);
         groupRepository.save(group);
+        referenceDataCache.evictGroup(groupId);
     }
 
     /**
@@ -82,58 +120,37 @@ public class GroupService {
      */
     @Transactional(readOnly = true)
     public List<BalanceResponse> calculateGroupBalance(Long groupId) {
-        // 1. Initialize map (UserId -> NetAmount)
-        Map<Long, Double> balances = new HashMap<>();
+        return calculateGroupBalance(groupId, LocalDateTime.now());
+    }
+
+    /**
+     * Same as above, but as the balances stood at the given instant
+     */
+    @Transactional(readOnly = true)
+    public List<BalanceResponse> calculateGroupBalance(Long groupId, LocalDateTime asOf) {
+        GroupBalanceEvent event = new GroupBalanceEvent();
+        event.begin();
 
-        // Ensure all group members are in the map starting at 0.0
         Group group = groupRepository.findById(groupId)
                 .orElseThrow(() -> new ResourceNotFoundException("Group not found: " + groupId));
-        group.getMembers().forEach(member -> balances.put(member.getId(), 0.0));
-
-        // 2. Process Expenses
-        List<Expense> expenses = expenseRepository.findByGroupId(groupId);
-        for (Expense expense : expenses) {
-            // Convert BigDecimal to Double for calculation
-            double amount = expense.getAmount().doubleValue();
-
-            // Payer gets +Amount (They are owed this money)
-            balances.merge(expense.getPaidBy().getId(), amount, Double::sum);
-
-            // Subtract shares (Using Expense.SplitType since it is a nested enum)
-            if (expense.getSplitType() == Expense.SplitType.EQUAL && !expense.getParticipants().isEmpty()) {
-                double splitAmount = amount / expense.getParticipants().size();
-                for (User participant : expense.getParticipants()) {
-                    // Consumer gets -Amount (They owe this money)
-                    balances.merge(participant.getId(), -splitAmount, Double::sum);
-                }
-            }
-        }
-
-        // 3. Process Settlements
-        // This will now work because we updated the Entity and Repository
-        List<Settlement> settlements = settlementRepository.findAllByGroupId(groupId);
-
-        for (Settlement settlement : settlements) {
-            // Explicitly convert BigDecimal to Double
-            double settlementAmount = settlement.getAmount().doubleValue();
 
-            // Debtor (Payer) balances goes UP (Debt reduces)
-            balances.merge(settlement.getDebtor().getId(), settlementAmount, Double::sum);
+        Map<Long, BigDecimal> balances = balanceCheckpointService.groupBalancesAsOf(group, asOf);
 
-            // Creditor (Receiver) balances goes DOWN (Owed amount reduces)
-            balances.merge(settlement.getCreditor().getId(), -settlementAmount, Double::sum);
-        }
-
-        // 4. Convert to DTO List
-        return balances.entrySet().stream()
+        List<BalanceResponse> response = balances.entrySet().stream()
                 .map(entry -> {
                     User user = userRepository.findById(entry.getKey()).orElse(null);
                     String username = (user != null) ? user.getUsername() : "Unknown";
                     // Round to 2 decimal places for clean display
-                    double roundedBalance = Math.round(entry.getValue() * 100.0) / 100.0;
+                    double roundedBalance = entry.getValue().setScale(2, RoundingMode.HALF_UP).doubleValue();
                     return new BalanceResponse(entry.getKey(), username, roundedBalance);
                 })
                 .collect(Collectors.toList());
+
+        event.groupId = groupId;
+        event.participants = balances.size();
+        event.rows = response.size();
+        event.commit();
+        return response;
     }
 
     private GroupResponse mapToResponse(Group group) {
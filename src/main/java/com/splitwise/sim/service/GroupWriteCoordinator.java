@@ -0,0 +1,104 @@
+package com.splitwise.sim.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs writes that change a group's balances (expenses, settlements, membership).
+ *
+ * Within this instance, writers of the same group take turns on a striped lock keyed by group
+ * id, held across the whole transaction including its commit. Across instances the group's
+ * optimistic version decides: the losing transaction gets a concurrency failure and is re-run
+ * from scratch, as are transactions that hit a deadlock or lock timeout in the database.
+ */
+@Component
+@Slf4j
+public class GroupWriteCoordinator {
+
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] locks;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    public GroupWriteCoordinator(PlatformTransactionManager transactionManager,
+                                 @Value("${app.group-writes.lock-stripes:256}") int lockStripes,
+                                 @Value("${app.group-writes.max-attempts:5}") int maxAttempts,
+                                 @Value("${app.group-writes.backoff:PT0.02S}") Duration backoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.locks = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoff.toMillis();
+    }
+
+    /**
+     * Runs the write in its own transaction under the group's lock, retrying on conflicts.
+     * A null group id skips the lock. Inside an existing transaction the write simply joins it:
+     * neither the lock nor a retry could cover the outer commit.
+     */
+    public <T> T execute(Long groupId, Supplier<T> write) {
+        return execute(groupId != null ? List.of(groupId) : List.<Long>of(), write);
+    }
+
+    /**
+     * Same for one transaction writing to several groups. Their locks are taken in stripe order,
+     * so two such writes cannot deadlock each other.
+     */
+    public <T> T execute(Collection<Long> groupIds, Supplier<T> write) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return write.get();
+        }
+
+        int[] stripes = groupIds.stream().mapToInt(this::stripeOf).distinct().sorted().toArray();
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> write.get());
+                } catch (ConcurrencyFailureException e) {
+                    if (attempt >= maxAttempts) {
+                        log.warn("Write to group {} still conflicting after {} attempts", groupIds, attempt);
+                        throw e;
+                    }
+                    log.debug("Write to group {} conflicted (attempt {}): {}", groupIds, attempt, e.getMessage());
+                    backOff(attempt);
+                }
+            }
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                locks[stripes[i]].unlock();
+            }
+        }
+    }
+
+    private int stripeOf(long groupId) {
+        return Math.floorMod(Long.hashCode(groupId * 0x9E3779B97F4A7C15L), locks.length);
+    }
+
+    // Exponential with full jitter, so retrying instances do not collide again in lockstep
+    private void backOff(int attempt) {
+        long ceiling = backoffMillis << Math.min(attempt - 1, 10);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a group write", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.splitwise.sim.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds user pairs whose pair_balances row is updated often enough to become a lock hot spot
+ * (one person paying every shared bill in a busy group) and spreads their updates over
+ * several stripe rows. Readers always sum the stripes, so promotion needs no migration and
+ * a pair that cools down simply goes back to stripe 0.
+ *
+ * Rates are counted per fixed window and per application instance.
+ */
+@Component
+@Slf4j
+public class HotPairDetector {
+
+    private final int stripes;
+    private final long threshold;
+    private final long windowNanos;
+    private final long hotNanos;
+
+    private volatile boolean enabled = true;
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private volatile ConcurrentHashMap<PairKey, AtomicLong> updates = new ConcurrentHashMap<>();
+    // Pair -> System.nanoTime() until which it stays striped
+    private final ConcurrentHashMap<PairKey, Long> hotUntil = new ConcurrentHashMap<>();
+
+    public HotPairDetector(@Value("${app.pair-balance.hot.stripes:8}") int stripes,
+                           @Value("${app.pair-balance.hot.threshold:10}") long threshold,
+                           @Value("${app.pair-balance.hot.window:PT1S}") Duration window,
+                           @Value("${app.pair-balance.hot.duration:PT10M}") Duration duration) {
+        this.stripes = stripes;
+        this.threshold = threshold;
+        this.windowNanos = window.toNanos();
+        this.hotNanos = duration.toNanos();
+    }
+
+    /**
+     * Stripe for this update of the pair: 0 unless the pair is hot, otherwise picked at random,
+     * so concurrent transactions mostly update different stripes. Inside a transaction the first
+     * pick is kept for the pair, so one transaction never holds locks on two stripes of a pair.
+     */
+    public int stripeFor(long userLow, long userHigh) {
+        if (!enabled || stripes <= 1) {
+            return 0;
+        }
+        PairKey pair = new PairKey(userLow, userHigh);
+        long now = System.nanoTime();
+        rollWindow(now);
+
+        if (updates.computeIfAbsent(pair, key -> new AtomicLong()).incrementAndGet() == threshold) {
+            if (hotUntil.put(pair, now + hotNanos) == null) {
+                log.info("Pair balance of users {} and {} is hot, spreading updates over {} stripes",
+                        userLow, userHigh, stripes);
+            }
+        }
+
+        Long until = hotUntil.get(pair);
+        if (until == null) {
+            return 0;
+        }
+        if (now - until > 0) {
+            hotUntil.remove(pair, until);
+            return 0;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return ThreadLocalRandom.current().nextInt(stripes);
+        }
+        return stripesOfCurrentTransaction()
+                .computeIfAbsent(pair, key -> ThreadLocalRandom.current().nextInt(stripes));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<PairKey, Integer> stripesOfCurrentTransaction() {
+        Map<PairKey, Integer> chosen = (Map<PairKey, Integer>) TransactionSynchronizationManager.getResource(this);
+        if (chosen == null) {
+            chosen = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, chosen);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(HotPairDetector.this);
+                }
+            });
+        }
+        return chosen;
+    }
+
+    /**
+     * Runtime switch; when off every update goes to stripe 0 again
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) {
+            hotUntil.clear();
+        }
+    }
+
+    public int hotPairCount() {
+        return hotUntil.size();
+    }
+
+    private void rollWindow(long now) {
+        long start = windowStart.get();
+        // Counts racing with the swap may be lost; the rate is an estimate anyway
+        if (now - start >= windowNanos && windowStart.compareAndSet(start, now)) {
+            updates = new ConcurrentHashMap<>();
+            // Pairs that went quiet are otherwise only dropped when they are updated again
+            hotUntil.values().removeIf(until -> now - until > 0);
+        }
+    }
+
+    private record PairKey(long userLow, long userHigh) {}
+}
@@ -2,38 +2,68 @@ package com.splitwise.sim.service;
 
 import com.splitwise.sim.dto.wallet.TransactionResponse;
 import com.splitwise.sim.dto.wallet.WalletBalanceResponse;
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.entity.Group;
 import com.splitwise.sim.entity.User;
 import com.splitwise.sim.entity.WalletTransaction;
 import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.id.SnowflakeIdGenerator;
+import com.splitwise.sim.live.LiveUpdatePublisher;
+import com.splitwise.sim.monitoring.BusinessMetrics;
+import com.splitwise.sim.monitoring.MetricsConfig;
+import com.splitwise.sim.monitoring.jfr.LedgerWriteEvent;
+import com.splitwise.sim.repository.ExpenseRepository;
+import com.splitwise.sim.repository.GroupRepository;
 import com.splitwise.sim.repository.UserRepository;
 import com.splitwise.sim.repository.WalletTransactionRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
+@Slf4j
 public class LedgerService {
     private final WalletTransactionRepository transactionRepository;
     private final UserRepository userRepository;
+    private final ExpenseRepository expenseRepository;
+    private final GroupRepository groupRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final PairBalanceService pairBalanceService;
+    private final BusinessMetrics businessMetrics;
+    private final ResourceVersionService resourceVersionService;
+    private final LiveUpdatePublisher liveUpdatePublisher;
 
     @Value("${app.wallet.currency:USD}")
     private String currency;
 
     @Transactional
     public void recordDoubleEntry(Long fromUserId, Long toUserId, BigDecimal amount,
-                                  String description, Long expenseId) {
+                                  String description, Long expenseId, Long groupId) {
+        LedgerWriteEvent event = new LedgerWriteEvent();
+        event.begin();
+
         User fromUser = userRepository.findById(fromUserId)
                 .orElseThrow(() -> new ResourceNotFoundException("From user not found: " + fromUserId));
         User toUser = userRepository.findById(toUserId)
                 .orElseThrow(() -> new ResourceNotFoundException("To user not found: " + toUserId));
 
-        String referenceId = UUID.randomUUID().toString();
+        Expense expense = expenseId != null ? expenseRepository.getReferenceById(expenseId) : null;
+        Group group = groupId != null ? groupRepository.getReferenceById(groupId) : null;
+        String referenceId = SnowflakeIdGenerator.shared().nextReferenceId();
 
         // DEBIT from payer
         WalletTransaction debit = WalletTransaction.builder()
@@ -41,6 +71,8 @@ public class LedgerService {
                 .transactionType(WalletTransaction.TransactionType.DEBIT)
                 .amount(amount)
                 .counterparty(toUser)
+                .expense(expense)
+                .group(group)
                 .description(description)
                 .referenceId(referenceId)
                 .build();
@@ -51,27 +83,102 @@ public class LedgerService {
                 .transactionType(WalletTransaction.TransactionType.CREDIT)
                 .amount(amount)
                 .counterparty(fromUser)
+                .expense(expense)
+                .group(group)
                 .description(description)
                 .referenceId(referenceId)
                 .build();
 
         transactionRepository.save(debit);
         transactionRepository.save(credit);
+        pairBalanceService.recordTransfer(fromUserId, toUserId, amount);
+        resourceVersionService.touchUsers(List.of(fromUserId, toUserId));
+        liveUpdatePublisher.transferRecorded(groupId, fromUserId, toUserId, amount);
+        businessMetrics.ledgerRowsWritten(2);
+
+        event.groupId = groupId != null ? groupId : 0;
+        event.participants = 2;
+        event.rows = 3;
+        event.commit();
+    }
+
+    /**
+     * Batched variant of recordDoubleEntry for callers that already validated every user, group
+     * and expense (bulk import). Uses references instead of lookups, saves all rows in one
+     * batch and folds pair balance updates to one upsert per user pair, applied in
+     * (user_low, user_high) order so concurrent batches lock pair_balances rows in the same order.
+     */
+    @Transactional
+    public void recordDoubleEntries(List<Transfer> transfers) {
+        List<WalletTransaction> rows = new ArrayList<>(transfers.size() * 2);
+        // [userLow, userHigh] -> how much more userHigh owes userLow
+        Map<List<Long>, BigDecimal> pairDeltas = new TreeMap<>(
+                Comparator.<List<Long>, Long>comparing(pair -> pair.get(0)).thenComparing(pair -> pair.get(1)));
+
+        for (Transfer transfer : transfers) {
+            User fromUser = userRepository.getReferenceById(transfer.fromUserId());
+            User toUser = userRepository.getReferenceById(transfer.toUserId());
+            Expense expense = transfer.expenseId() != null ? expenseRepository.getReferenceById(transfer.expenseId()) : null;
+            Group group = transfer.groupId() != null ? groupRepository.getReferenceById(transfer.groupId()) : null;
+            String referenceId = SnowflakeIdGenerator.shared().nextReferenceId();
+
+            rows.add(WalletTransaction.builder()
+                    .user(fromUser)
+                    .transactionType(WalletTransaction.TransactionType.DEBIT)
+                    .amount(transfer.amount())
+                    .counterparty(toUser)
+                    .expense(expense)
+                    .group(group)
+                    .description(transfer.description())
+                    .referenceId(referenceId)
+                    .build());
+            rows.add(WalletTransaction.builder()
+                    .user(toUser)
+                    .transactionType(WalletTransaction.TransactionType.CREDIT)
+                    .amount(transfer.amount())
+                    .counterparty(fromUser)
+                    .expense(expense)
+                    .group(group)
+                    .description(transfer.description())
+                    .referenceId(referenceId)
+                    .build());
+
+            if (transfer.fromUserId() > transfer.toUserId()) {
+                pairDeltas.merge(List.of(transfer.toUserId(), transfer.fromUserId()), transfer.amount(), BigDecimal::add);
+            } else {
+                pairDeltas.merge(List.of(transfer.fromUserId(), transfer.toUserId()), transfer.amount().negate(),
+                        BigDecimal::add);
+            }
+        }
+
+        transactionRepository.saveAll(rows);
+        pairDeltas.forEach((pair, highOwesLow) -> {
+            if (highOwesLow.signum() != 0) {
+                pairBalanceService.recordTransfer(pair.get(1), pair.get(0), highOwesLow);
+            }
+        });
+        resourceVersionService.touchUsers(pairDeltas.keySet().stream().flatMap(List::stream).collect(Collectors.toSet()));
+        businessMetrics.ledgerRowsWritten(rows.size());
     }
 
     @Transactional(readOnly = true)
     public WalletBalanceResponse getBalance(Long userId) {
+        return getBalance(userId, LocalDateTime.now());
+    }
+
+    @Transactional(readOnly = true)
+    public WalletBalanceResponse getBalance(Long userId, LocalDateTime asOf) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + userId));
 
-        BigDecimal balance = transactionRepository.calculateBalance(userId);
-        if (balance == null) balance = BigDecimal.ZERO;
+        BigDecimal balance = balanceCheckpointService.walletBalanceAsOf(userId, asOf);
 
         return WalletBalanceResponse.builder()
                 .userId(userId)
                 .username(user.getUsername())
                 .balance(balance)
                 .currency(currency)
+                .asOf(asOf)
                 .build();
     }
 
@@ -82,6 +189,29 @@ public class LedgerService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * The user's latest ledger rows, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> getRecentTransactions(Long userId, int limit) {
+        return transactionRepository.findRecentByUserId(userId, PageRequest.of(0, limit)).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A user's ledger rows inside one group, served by the (group_id, user_id) index
+     */
+    @Transactional(readOnly = true)
+    public List<TransactionResponse> getGroupTransactionHistory(Long userId, Long groupId) {
+        return transactionRepository.findByGroupIdAndUserIdOrderByCreatedAtDesc(groupId, userId).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public record Transfer(Long fromUserId, Long toUserId, BigDecimal amount,
+                           String description, Long expenseId, Long groupId) {}
+
     private TransactionResponse mapToResponse(WalletTransaction txn) {
         return TransactionResponse.builder()
                 .id(txn.getId())
@@ -0,0 +1,148 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.dto.balance.PairBalanceResponse;
+import com.splitwise.sim.entity.PairBalance;
+import com.splitwise.sim.entity.User;
+import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.repository.PairBalanceRepository;
+import com.splitwise.sim.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * "How much do I owe X overall?" answered from one row per user pair (a few stripe rows
+ * for hot pairs) instead of scanning the ledger between the two users.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PairBalanceService {
+
+    private final PairBalanceRepository pairBalanceRepository;
+    private final UserRepository userRepository;
+    private final HotPairDetector hotPairDetector;
+
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${app.pair-balance.reconcile-repair:true}")
+    private boolean repairOnMismatch;
+
+    // Users (as the lower id of their pairs) compared per transaction
+    @Value("${app.pair-balance.reconcile-page-size:1000}")
+    private int pageSize;
+
+    /**
+     * Called for every ledger double entry: fromUser now owes toUser `amount` more
+     */
+    @Transactional
+    public void recordTransfer(Long fromUserId, Long toUserId, BigDecimal amount) {
+        if (fromUserId.equals(toUserId)) {
+            return;
+        }
+        // Positive net = userHigh owes userLow
+        if (fromUserId < toUserId) {
+            pairBalanceRepository.applyDelta(fromUserId, toUserId,
+                    hotPairDetector.stripeFor(fromUserId, toUserId), amount.negate());
+        } else {
+            pairBalanceRepository.applyDelta(toUserId, fromUserId,
+                    hotPairDetector.stripeFor(toUserId, fromUserId), amount);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public PairBalanceResponse getBalanceWith(Long userId, Long counterpartyId) {
+        User counterparty = userRepository.findById(counterpartyId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + counterpartyId));
+
+        List<PairBalance> stripes = userId < counterpartyId
+                ? pairBalanceRepository.findByUserLowIdAndUserHighId(userId, counterpartyId)
+                : pairBalanceRepository.findByUserLowIdAndUserHighId(counterpartyId, userId);
+
+        BigDecimal lowNet = stripes.stream().map(PairBalance::getNetAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        return PairBalanceResponse.builder()
+                .counterpartyId(counterpartyId)
+                .counterpartyUsername(counterparty.getUsername())
+                .netAmount(userId < counterpartyId ? lowNet : lowNet.negate())
+                .updatedAt(stripes.stream().map(PairBalance::getUpdatedAt).filter(Objects::nonNull)
+                        .max(Comparator.naturalOrder()).orElse(null))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PairBalanceResponse> getNonZeroBalances(Long userId) {
+        return pairBalanceRepository.sumNonZeroByUserId(userId).stream()
+                .map(row -> {
+                    boolean userIsLow = row[0].equals(userId);
+                    BigDecimal lowNet = (BigDecimal) row[4];
+                    return PairBalanceResponse.builder()
+                            .counterpartyId((Long) (userIsLow ? row[2] : row[0]))
+                            .counterpartyUsername((String) (userIsLow ? row[3] : row[1]))
+                            .netAmount(userIsLow ? lowNet : lowNet.negate())
+                            .updatedAt((LocalDateTime) row[5])
+                            .build();
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Verify the pair table against the raw ledger, a page of users (as user_low) at a time.
+     * Each page is compared in the database inside its own REPEATABLE READ transaction, so
+     * in-flight writes can't show up as drift; if a repaired row is written concurrently, that
+     * page fails and the next run retries it.
+     */
+    @Scheduled(cron = "${app.pair-balance.reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        int mismatches = 0;
+        List<Long> userIds = userRepository.findIdsAfter(0L, PageRequest.of(0, pageSize));
+        while (!userIds.isEmpty()) {
+            Long fromUserId = userIds.get(0);
+            Long toUserId = userIds.get(userIds.size() - 1);
+            try {
+                mismatches += snapshot.execute(status -> reconcilePage(fromUserId, toUserId));
+            } catch (ConcurrencyFailureException e) {
+                log.warn("Pair balance reconciliation of users {}..{} conflicted with a write, left for the next run",
+                        fromUserId, toUserId);
+            }
+            userIds = userRepository.findIdsAfter(toUserId, PageRequest.of(0, pageSize));
+        }
+
+        log.info("Pair balance reconciliation finished: {} mismatches{}", mismatches,
+                repairOnMismatch && mismatches > 0 ? " (repaired)" : "");
+        return mismatches;
+    }
+
+    private int reconcilePage(Long fromUserId, Long toUserId) {
+        List<Object[]> drift = pairBalanceRepository.findDrift(fromUserId, toUserId);
+        for (Object[] row : drift) {
+            Long userLow = (Long) row[0];
+            Long userHigh = (Long) row[1];
+            BigDecimal tableAmount = (BigDecimal) row[2];
+            BigDecimal ledgerAmount = (BigDecimal) row[3];
+            log.warn("Pair balance drift for users [{}, {}]: table={}, ledger={}",
+                    userLow, userHigh, tableAmount, ledgerAmount);
+            if (repairOnMismatch) {
+                // The difference goes onto stripe 0, which also covers pairs missing from the table
+                pairBalanceRepository.applyDelta(userLow, userHigh, 0, ledgerAmount.subtract(tableAmount));
+            }
+        }
+        return drift.size();
+    }
+}
@@ -0,0 +1,83 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.repository.UserVersionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Version counters behind the conditional GETs. Groups use the optimistic-lock version already
+ * bumped by every expense, settlement and membership write; users get a counter in user_versions
+ * that is bumped for every ledger row written for them.
+ *
+ * The lookups are read-only, so they follow the replica routing of the request; the
+ * interceptor pins conditional GETs to the primary before calling them.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResourceVersionService {
+    private final GroupRepository groupRepository;
+    private final UserVersionRepository userVersionRepository;
+
+    /**
+     * Marks users as changed. Inside a transaction the ids are collected and written with one
+     * upsert just before commit, so an expense with many ledger rows bumps each user once and
+     * the rows stay locked only for the end of the transaction.
+     */
+    public void touchUsers(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            userVersionRepository.incrementVersions(userIds);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<Long> touched = new TreeSet<>();
+            TransactionSynchronizationManager.bindResource(this, touched);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    userVersionRepository.incrementVersions(touched);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ResourceVersionService.this);
+                }
+            });
+            pending = touched;
+        }
+        pending.addAll(userIds);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Long> groupVersion(Long groupId) {
+        return groupRepository.findVersionById(groupId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<VersionedUser> userVersion(String username) {
+        List<Object[]> rows = userVersionRepository.findIdAndVersionByUsername(username);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        return Optional.of(new VersionedUser(((Number) row[0]).longValue(), ((Number) row[1]).longValue()));
+    }
+
+    public record VersionedUser(Long userId, long version) {}
+}
@@ -6,9 +6,14 @@ import com.splitwise.sim.entity.Group; // ✅ Import Group
 import com.splitwise.sim.entity.Settlement;
 import com.splitwise.sim.entity.User;
 import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.live.LiveUpdatePublisher;
+import com.splitwise.sim.monitoring.MetricsConfig;
+import com.splitwise.sim.outbox.OutboxEvents;
+import com.splitwise.sim.outbox.OutboxPublisher;
 import com.splitwise.sim.repository.GroupRepository; // ✅ Import Repository
 import com.splitwise.sim.repository.SettlementRepository;
 import com.splitwise.sim.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,6 +23,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class SettlementService {
@@ -26,9 +32,18 @@ public class SettlementService {
     private final UserRepository userRepository;
     private final GroupRepository groupRepository; // ✅ 1. Add this
     private final LedgerService ledgerService;
+    private final GroupWriteCoordinator groupWriteCoordinator;
+    private final OutboxPublisher outboxPublisher;
+    private final LiveUpdatePublisher liveUpdatePublisher;
 
-    @Transactional
+    /**
+     * Runs in its own transaction under the group's write lock, retried on conflicts
+     */
     public SettlementResponse settleUp(Long debtorId, SettlementRequest request) {
+        return groupWriteCoordinator.execute(request.getGroupId(), () -> recordSettlement(debtorId, request));
+    }
+
+    private SettlementResponse recordSettlement(Long debtorId, SettlementRequest request) {
         User debtor = userRepository.findById(debtorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Debtor not found: " + debtorId));
 
@@ -36,7 +51,7 @@ public class SettlementService {
                 .orElseThrow(() -> new ResourceNotFoundException("Creditor not found: " + request.getCreditorId()));
 
         // ✅ 2. Fetch the Group using the ID
-        Group group = groupRepository.findById(request.getGroupId())
+        Group group = groupRepository.findByIdForWrite(request.getGroupId())
                 .orElseThrow(() -> new ResourceNotFoundException("Group not found: " + request.getGroupId()));
 
         if (debtorId.equals(request.getCreditorId())) {
@@ -61,11 +76,12 @@ public class SettlementService {
                 debtor.getId(),
                 request.getAmount(),
                 "Settlement: " + (request.getNote() != null ? request.getNote() : "Payment received"),
-                null
+                null,
+                group.getId()
         );
 
-        log.info("Settlement completed: {} paid {} to {}",
-                debtor.getUsername(), request.getAmount(), creditor.getUsername());
+        outboxPublisher.publish(OutboxEvents.SETTLEMENT_COMPLETED, group.getId(), OutboxEvents.SettlementCompleted.of(saved));
+        liveUpdatePublisher.settlementCompleted(saved);
 
         return mapToResponse(saved);
     }
@@ -1,5 +1,6 @@
 package com.splitwise.sim.service;
 
+import com.splitwise.sim.cache.ReferenceDataCache;
 import com.splitwise.sim.dto.auth.SignupRequest;
 import com.splitwise.sim.dto.user.UpdateProfileRequest;
 import com.splitwise.sim.dto.user.UserProfileResponse;
@@ -8,7 +9,6 @@ import com.splitwise.sim.entity.User;
 import com.splitwise.sim.exception.ResourceAlreadyExistsException;
 import com.splitwise.sim.exception.ResourceNotFoundException;
 import com.splitwise.sim.repository.UserRepository;
-import com.splitwise.sim.repository.WalletTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -17,6 +17,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -27,7 +28,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
-    private final WalletTransactionRepository transactionRepository;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final ReferenceDataCache referenceDataCache;
 
     @Value("${app.wallet.currency:USD}")
     private String currency;
@@ -82,8 +84,7 @@ public class UserService {
     public UserProfileResponse getUserProfile(Long userId) {
         User user = getUserById(userId);
 
-        BigDecimal balance = transactionRepository.calculateBalance(userId);
-        if (balance == null) balance = BigDecimal.ZERO;
+        BigDecimal balance = balanceCheckpointService.walletBalanceAsOf(userId, LocalDateTime.now());
 
         return UserProfileResponse.builder()
                 .id(user.getId())
@@ -114,11 +115,24 @@ public class UserService {
         }
 
         userRepository.save(user);
+        referenceDataCache.evictUser(userId);
         log.info("Updated profile for user: {}", userId);
 
         return getUserProfile(userId);
     }
 
+    /**
+     * Deactivate an account; the user can no longer log in but stays in ledgers and groups
+     */
+    @Transactional
+    public void deactivateUser(Long userId) {
+        User user = getUserById(userId);
+        user.setIsActive(false);
+        userRepository.save(user);
+        referenceDataCache.evictUser(userId);
+        log.info("Deactivated user: {}", userId);
+    }
+
     /**
      * NEW: Search users by username, email, or full name
      */
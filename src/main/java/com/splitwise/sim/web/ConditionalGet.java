@@ -0,0 +1,28 @@
+package com.splitwise.sim.web;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET endpoint whose response only changes when a version counter changes.
+ * ConditionalGetInterceptor sets the ETag and answers If-None-Match with 304 before the
+ * handler runs. Requests with query parameters (asOf and the like) are always served in full.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    Scope value();
+
+    // Path variable holding the group id, for Scope.GROUP
+    String pathVariable() default "groupId";
+
+    enum Scope {
+        // groups.version: expense, settlement and membership writes
+        GROUP,
+        // user_versions of the authenticated user: ledger writes
+        USER
+    }
+}
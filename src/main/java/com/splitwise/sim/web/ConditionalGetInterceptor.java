@@ -0,0 +1,117 @@
+package com.splitwise.sim.web;
+
+import com.splitwise.sim.datasource.ReadYourWritesFilter;
+import com.splitwise.sim.service.ResourceVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.security.Principal;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ETags for @ConditionalGet endpoints, e.g. W/"g42-17" for version 17 of group 42.
+ * The version is read before the handler, so a write racing the request can only make the
+ * client refetch an unchanged body, never keep a stale one. That only holds when the body is
+ * read from data at least as new as the version, so the version and the body are both read on
+ * the primary: a lagging replica could otherwise send an old body with the current ETag.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+    private static final String PINNED_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".pinned";
+
+    private final ResourceVersionService resourceVersionService;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (!(handler instanceof HandlerMethod method) || request.getQueryString() != null
+                || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))) {
+            return true;
+        }
+        ConditionalGet conditionalGet = method.getMethodAnnotation(ConditionalGet.class);
+        if (conditionalGet == null) {
+            return true;
+        }
+
+        if (ReadYourWritesFilter.pinToPrimary()) {
+            request.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE);
+        }
+        boolean notModified;
+        try {
+            notModified = checkNotModified(request, response, conditionalGet);
+        } catch (RuntimeException e) {
+            unpin(request);
+            throw e;
+        }
+        // afterCompletion is not called for a 304, which skips the handler
+        if (notModified) {
+            unpin(request);
+        }
+        return !notModified;
+    }
+
+    private boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, ConditionalGet conditionalGet) {
+        Optional<String> etag = switch (conditionalGet.value()) {
+            case GROUP -> groupEtag(request, conditionalGet.pathVariable());
+            case USER -> userEtag(request);
+        };
+        // Unknown group or user: let the handler produce the 404
+        if (etag.isEmpty()) {
+            return false;
+        }
+
+        // Revalidate on every use; private because the user ETags depend on who is asking
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        return new ServletWebRequest(request, response).checkNotModified(etag.get());
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        unpin(request);
+    }
+
+    private static void unpin(HttpServletRequest request) {
+        if (request.getAttribute(PINNED_ATTRIBUTE) != null) {
+            request.removeAttribute(PINNED_ATTRIBUTE);
+            ReadYourWritesFilter.unpin();
+        }
+    }
+
+    private Optional<String> groupEtag(HttpServletRequest request, String pathVariable) {
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = variables != null ? variables.get(pathVariable) : null;
+        if (value == null) {
+            return Optional.empty();
+        }
+        Long groupId;
+        try {
+            groupId = Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+        return resourceVersionService.groupVersion(groupId)
+                .map(version -> "W/\"g" + groupId + "-" + version + "\"");
+    }
+
+    private Optional<String> userEtag(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal == null) {
+            return Optional.empty();
+        }
+        return resourceVersionService.userVersion(principal.getName())
+                .map(user -> "W/\"u" + user.userId() + "-" + user.version() + "\"");
+    }
+}
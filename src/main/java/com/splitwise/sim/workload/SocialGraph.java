@@ -0,0 +1,159 @@
+package com.splitwise.sim.workload;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Friend graph over user indexes 0..n-1, grown by preferential attachment
+ * (Barabasi-Albert), which gives the power-law degree distribution of real social graphs:
+ * most users have a handful of friends, a few have hundreds.
+ */
+public final class SocialGraph {
+
+    private final int[][] adjacency;
+    private final int[] degree;
+    // Every edge endpoint once per edge; a uniform pick from it is a pick proportional to degree
+    private final int[] endpoints;
+    private final int endpointCount;
+
+    private SocialGraph(int[][] adjacency, int[] degree, int[] endpoints, int endpointCount) {
+        this.adjacency = adjacency;
+        this.degree = degree;
+        this.endpoints = endpoints;
+        this.endpointCount = endpointCount;
+    }
+
+    public static SocialGraph preferentialAttachment(int users, int averageFriends, SplittableRandom random) {
+        int edgesPerUser = Math.max(1, averageFriends / 2);
+        int[][] adjacency = new int[users][];
+        int[] degree = new int[users];
+        for (int i = 0; i < users; i++) {
+            adjacency[i] = new int[Math.min(edgesPerUser * 2, Math.max(users - 1, 1))];
+        }
+        int[] endpoints = new int[(int) Math.min(Integer.MAX_VALUE - 8,
+                2L * edgesPerUser * users + (long) edgesPerUser * (edgesPerUser + 1))];
+        int[] endpointCount = {0};
+
+        // Fully connected seed so every early user has someone to attach to
+        int seedSize = Math.min(users, edgesPerUser + 1);
+        for (int a = 0; a < seedSize; a++) {
+            for (int b = a + 1; b < seedSize; b++) {
+                addEdge(adjacency, degree, endpoints, endpointCount, a, b);
+            }
+        }
+
+        int[] targets = new int[edgesPerUser];
+        for (int user = seedSize; user < users; user++) {
+            int picked = 0;
+            while (picked < edgesPerUser) {
+                int candidate = endpoints[random.nextInt(endpointCount[0])];
+                if (!contains(targets, picked, candidate)) {
+                    targets[picked++] = candidate;
+                }
+            }
+            for (int i = 0; i < picked; i++) {
+                addEdge(adjacency, degree, endpoints, endpointCount, user, targets[i]);
+            }
+        }
+        return new SocialGraph(adjacency, degree, endpoints, endpointCount[0]);
+    }
+
+    private static void addEdge(int[][] adjacency, int[] degree, int[] endpoints, int[] endpointCount, int a, int b) {
+        append(adjacency, degree, a, b);
+        append(adjacency, degree, b, a);
+        endpoints[endpointCount[0]++] = a;
+        endpoints[endpointCount[0]++] = b;
+    }
+
+    private static void append(int[][] adjacency, int[] degree, int user, int friend) {
+        if (degree[user] == adjacency[user].length) {
+            adjacency[user] = Arrays.copyOf(adjacency[user], adjacency[user].length * 2);
+        }
+        adjacency[user][degree[user]++] = friend;
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int size() {
+        return adjacency.length;
+    }
+
+    public int degree(int user) {
+        return degree[user];
+    }
+
+    public long edgeCount() {
+        return endpointCount / 2;
+    }
+
+    /**
+     * Calls the visitor once per undirected edge, lower index first
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int user = 0; user < adjacency.length; user++) {
+            for (int i = 0; i < degree[user]; i++) {
+                if (user < adjacency[user][i]) {
+                    visitor.visit(user, adjacency[user][i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * A user picked with probability proportional to their number of friends
+     */
+    public int pickByDegree(SplittableRandom random) {
+        if (endpointCount == 0) {
+            return random.nextInt(adjacency.length);
+        }
+        return endpoints[random.nextInt(endpointCount)];
+    }
+
+    /**
+     * Members for a group started by the creator: the creator's friends first, then their
+     * friends, topped up with random users when the neighbourhood is too small.
+     */
+    public int[] groupMembers(int creator, int size, SplittableRandom random) {
+        int target = Math.min(size, adjacency.length);
+        int[] members = new int[target];
+        Set<Integer> chosen = new HashSet<>();
+        members[0] = creator;
+        chosen.add(creator);
+        int count = 1;
+
+        for (int head = 0; head < count && count < target; head++) {
+            int user = members[head];
+            int friends = degree[user];
+            // Start at a random offset so groups of the same creator differ
+            int offset = friends == 0 ? 0 : random.nextInt(friends);
+            for (int i = 0; i < friends && count < target; i++) {
+                int friend = adjacency[user][(offset + i) % friends];
+                if (chosen.add(friend)) {
+                    members[count++] = friend;
+                }
+            }
+        }
+
+        while (count < target) {
+            int user = random.nextInt(adjacency.length);
+            if (chosen.add(user)) {
+                members[count++] = user;
+            }
+        }
+        return members;
+    }
+
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void visit(int user, int friend);
+    }
+}
@@ -0,0 +1,521 @@
+package com.splitwise.sim.workload;
+
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.expense.ExpenseParticipant;
+import com.splitwise.sim.dto.group.GroupRequest;
+import com.splitwise.sim.dto.settlement.SettlementRequest;
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.entity.User;
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.repository.UserRepository;
+import com.splitwise.sim.service.BalanceCheckpointService;
+import com.splitwise.sim.service.BulkLoadService;
+import com.splitwise.sim.service.ExpenseSplitService;
+import com.splitwise.sim.service.FriendService;
+import com.splitwise.sim.service.GroupService;
+import com.splitwise.sim.service.SettlementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Seeded synthetic dataset generator for capacity planning.
+ *
+ * Users get a power-law friend graph, groups are formed around friend circles with a
+ * power-law size distribution, and group activity is Zipf-distributed. Expenses follow a
+ * configurable EQUAL/EXACT/PERCENTAGE mix, and settlements pay down the debts those
+ * expenses actually created.
+ *
+ * In SERVICE mode friendships, groups, expenses and settlements go through the regular
+ * services (timestamps are "now"). In BULK mode expenses and settlements are spread over
+ * the configured history and written with BulkLoadService. Users are written through
+ * the repository in both modes, all with the password "password".
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WorkloadGenerator {
+
+    public static final String PASSWORD = "password";
+
+    private static final int ENTITY_CHUNK = 1_000;
+    private static final int FRIENDSHIP_CHUNK = 100_000;
+    private static final double MEDIAN_EXPENSE_CENTS = 3_500;
+
+    private static final String[] EXPENSE_NAMES = {
+            "Groceries", "Dinner", "Lunch", "Coffee", "Rent", "Electricity bill", "Internet",
+            "Taxi", "Fuel", "Movie tickets", "Drinks", "Hotel", "Flights", "Concert", "Takeaway"
+    };
+    private static final String[] GROUP_NAMES = {
+            "Flatmates", "Trip", "Office lunch", "Football", "Family", "Weekend getaway", "Book club"
+    };
+
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final FriendService friendService;
+    private final GroupService groupService;
+    private final ExpenseSplitService expenseSplitService;
+    private final SettlementService settlementService;
+    private final BulkLoadService bulkLoadService;
+    private final BalanceCheckpointService balanceCheckpointService;
+    private final PlatformTransactionManager transactionManager;
+
+    public WorkloadSummary generate(WorkloadSpec spec) {
+        long started = System.currentTimeMillis();
+        log.info("Generating workload: {}", spec);
+
+        // Independent streams, so changing one part of the spec leaves the others unchanged
+        SplittableRandom root = new SplittableRandom(spec.seed());
+        SplittableRandom graphRandom = root.split();
+        SplittableRandom groupRandom = root.split();
+        SplittableRandom activityRandom = root.split();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        long[] userIds = createUsers(spec, transaction);
+        SocialGraph graph = SocialGraph.preferentialAttachment(spec.users(), spec.averageFriends(), graphRandom);
+        long friendships = createFriendships(spec, graph, userIds);
+        List<GroupPlan> groups = createGroups(spec, graph, userIds, groupRandom, transaction);
+        long[] activity = generateActivity(spec, groups, activityRandom, transaction);
+
+        balanceCheckpointService.writeCheckpoints();
+
+        WorkloadSummary summary = new WorkloadSummary(userIds.length, friendships, groups.size(),
+                activity[0], activity[1], System.currentTimeMillis() - started);
+        log.info("Workload generated: {}", summary);
+        return summary;
+    }
+
+    private long[] createUsers(WorkloadSpec spec, TransactionTemplate transaction) {
+        if (userRepository.existsByUsername(username(spec, 0))) {
+            throw new IllegalStateException("Workload users already exist for prefix '" + spec.usernamePrefix()
+                    + "' and seed " + spec.seed());
+        }
+
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        long[] userIds = new long[spec.users()];
+        for (int from = 0; from < spec.users(); from += ENTITY_CHUNK) {
+            int start = from;
+            int end = Math.min(from + ENTITY_CHUNK, spec.users());
+            transaction.executeWithoutResult(status -> {
+                List<User> chunk = new ArrayList<>(end - start);
+                for (int i = start; i < end; i++) {
+                    String username = username(spec, i);
+                    chunk.add(User.builder()
+                            .username(username)
+                            .email(username + "@workload.test")
+                            .password(encodedPassword)
+                            .fullName("Workload User " + i)
+                            .isActive(true)
+                            .build());
+                }
+                List<User> saved = userRepository.saveAll(chunk);
+                for (int i = 0; i < saved.size(); i++) {
+                    userIds[start + i] = saved.get(i).getId();
+                }
+            });
+        }
+        log.info("Created {} users", userIds.length);
+        return userIds;
+    }
+
+    private long createFriendships(WorkloadSpec spec, SocialGraph graph, long[] userIds) {
+        if (spec.mode() == WorkloadSpec.Mode.SERVICE) {
+            graph.forEachEdge((user, friend) -> friendService.addFriend(userIds[user], userIds[friend]));
+        } else {
+            List<long[]> chunk = new ArrayList<>(FRIENDSHIP_CHUNK);
+            graph.forEachEdge((user, friend) -> {
+                chunk.add(new long[]{userIds[user], userIds[friend]});
+                if (chunk.size() == FRIENDSHIP_CHUNK) {
+                    bulkLoadService.loadFriendships(chunk.iterator());
+                    chunk.clear();
+                }
+            });
+            if (!chunk.isEmpty()) {
+                bulkLoadService.loadFriendships(chunk.iterator());
+            }
+        }
+        log.info("Created {} friendships", graph.edgeCount());
+        return graph.edgeCount();
+    }
+
+    private List<GroupPlan> createGroups(WorkloadSpec spec, SocialGraph graph, long[] userIds,
+                                         SplittableRandom random, TransactionTemplate transaction) {
+        double[] sizeCdf = powerLawCdf(spec.maxGroupSize() - spec.minGroupSize() + 1, spec.groupSizeExponent());
+
+        List<GroupPlan> groups = new ArrayList<>(spec.groups());
+        for (int i = 0; i < spec.groups(); i++) {
+            int size = spec.minGroupSize() + sample(sizeCdf, random);
+            int[] members = graph.groupMembers(graph.pickByDegree(random), size, random);
+            long[] memberIds = new long[members.length];
+            for (int m = 0; m < members.length; m++) {
+                memberIds[m] = userIds[members[m]];
+            }
+            groups.add(new GroupPlan(GROUP_NAMES[random.nextInt(GROUP_NAMES.length)] + " " + (i + 1), memberIds));
+        }
+
+        if (spec.mode() == WorkloadSpec.Mode.SERVICE) {
+            for (GroupPlan plan : groups) {
+                GroupRequest request = new GroupRequest();
+                request.setName(plan.name);
+                request.setDescription("Generated workload group");
+                request.setMemberIds(memberIdSet(plan.memberIds));
+                plan.id = groupService.createGroup(request, plan.memberIds[0]).getId();
+            }
+        } else {
+            for (int from = 0; from < groups.size(); from += ENTITY_CHUNK) {
+                List<GroupPlan> plans = groups.subList(from, Math.min(from + ENTITY_CHUNK, groups.size()));
+                transaction.executeWithoutResult(status -> {
+                    List<Group> chunk = new ArrayList<>(plans.size());
+                    for (GroupPlan plan : plans) {
+                        Set<User> members = new HashSet<>();
+                        for (long memberId : plan.memberIds) {
+                            members.add(userRepository.getReferenceById(memberId));
+                        }
+                        chunk.add(Group.builder()
+                                .name(plan.name)
+                                .description("Generated workload group")
+                                .createdBy(userRepository.getReferenceById(plan.memberIds[0]))
+                                .members(members)
+                                .isActive(true)
+                                .build());
+                    }
+                    List<Group> saved = groupRepository.saveAll(chunk);
+                    for (int i = 0; i < saved.size(); i++) {
+                        plans.get(i).id = saved.get(i).getId();
+                    }
+                });
+            }
+        }
+        log.info("Created {} groups", groups.size());
+        return groups;
+    }
+
+    /**
+     * Returns {expenses, settlements} written
+     */
+    private long[] generateActivity(WorkloadSpec spec, List<GroupPlan> groups, SplittableRandom random,
+                                    TransactionTemplate transaction) {
+        double[] activityCdf = powerLawCdf(groups.size(), spec.groupActivityExponent());
+        LocalDateTime start = LocalDateTime.now().minusDays(spec.historyDays());
+        long stepNanos = spec.historyDays() * 86_400_000_000_000L / Math.max(1, spec.expenses());
+
+        List<BulkLoadService.ExpenseLoadRow> expenseBatch = new ArrayList<>();
+        List<BulkLoadService.SettlementLoadRow> settlementBatch = new ArrayList<>();
+        long settlements = 0;
+
+        for (long i = 0; i < spec.expenses(); i++) {
+            GroupPlan group = groups.get(sample(activityCdf, random));
+            LocalDateTime at = start.plusNanos(i * stepNanos);
+
+            int payer = random.nextInt(group.memberIds.length);
+            CreateExpenseRequest request = nextExpense(spec, group, payer, random);
+            Expense.SplitType splitType = Expense.SplitType.valueOf(request.getSplitType());
+            Map<Long, BigDecimal> shares = expenseSplitService.calculateShares(splitType, request);
+            Long payerId = group.memberIds[payer];
+            group.apply(payerId, shares);
+
+            if (spec.mode() == WorkloadSpec.Mode.SERVICE) {
+                expenseSplitService.createExpense(request, payerId);
+            } else {
+                expenseBatch.add(toLoadRow(request, splitType, payerId, shares, at));
+            }
+
+            if (random.nextDouble() < spec.settlementRatio()) {
+                PlannedSettlement settlement = nextSettlement(group, random);
+                if (settlement != null) {
+                    settlements++;
+                    SettlementRequest settlementRequest = settlement.request();
+                    if (spec.mode() == WorkloadSpec.Mode.SERVICE) {
+                        settlementService.settleUp(settlement.debtorId(), settlementRequest);
+                    } else {
+                        settlementBatch.add(new BulkLoadService.SettlementLoadRow(settlement.debtorId(),
+                                settlementRequest.getCreditorId(), group.id, settlementRequest.getAmount(),
+                                settlementRequest.getNote(), at.plusMinutes(1)));
+                    }
+                }
+            }
+
+            if (expenseBatch.size() == spec.batchSize()) {
+                flush(expenseBatch, settlementBatch, transaction);
+            }
+            if ((i + 1) % 100_000 == 0) {
+                log.info("Generated {} of {} expenses", i + 1, spec.expenses());
+            }
+        }
+        flush(expenseBatch, settlementBatch, transaction);
+        return new long[]{spec.expenses(), settlements};
+    }
+
+    private void flush(List<BulkLoadService.ExpenseLoadRow> expenses,
+                       List<BulkLoadService.SettlementLoadRow> settlements, TransactionTemplate transaction) {
+        if (expenses.isEmpty() && settlements.isEmpty()) {
+            return;
+        }
+        transaction.executeWithoutResult(status -> {
+            bulkLoadService.loadExpenses(expenses.iterator());
+            bulkLoadService.loadSettlements(settlements.iterator());
+        });
+        expenses.clear();
+        settlements.clear();
+    }
+
+    private CreateExpenseRequest nextExpense(WorkloadSpec spec, GroupPlan group, int payer, SplittableRandom random) {
+        int[] participants = pickParticipants(group.memberIds.length, payer, random);
+        long amountCents = Math.round(MEDIAN_EXPENSE_CENTS * Math.exp(0.9 * random.nextGaussian()));
+        amountCents = Math.max(100, Math.min(500_000, amountCents));
+
+        Expense.SplitType splitType = pickSplitType(spec, random);
+        if ((splitType == Expense.SplitType.PERCENTAGE && participants.length > 100)
+                || (splitType == Expense.SplitType.EXACT && amountCents < participants.length)) {
+            splitType = Expense.SplitType.EQUAL;
+        }
+
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription(EXPENSE_NAMES[random.nextInt(EXPENSE_NAMES.length)]);
+        request.setAmount(BigDecimal.valueOf(amountCents, 2));
+        request.setGroupId(group.id);
+        request.setSplitType(splitType.name());
+
+        switch (splitType) {
+            case EXACT: {
+                long[] cents = apportion(amountCents, participants.length, 1, random);
+                List<ExpenseParticipant> exact = new ArrayList<>();
+                for (int i = 0; i < participants.length; i++) {
+                    exact.add(new ExpenseParticipant(group.memberIds[participants[i]],
+                            BigDecimal.valueOf(cents[i], 2), null));
+                }
+                request.setParticipants(exact);
+                break;
+            }
+            case PERCENTAGE: {
+                long[] percentages = apportion(100, participants.length, 1, random);
+                List<ExpenseParticipant> percentage = new ArrayList<>();
+                for (int i = 0; i < participants.length; i++) {
+                    percentage.add(new ExpenseParticipant(group.memberIds[participants[i]],
+                            null, BigDecimal.valueOf(percentages[i])));
+                }
+                request.setParticipants(percentage);
+                break;
+            }
+            case EQUAL:
+            default: {
+                Set<Long> ids = new LinkedHashSet<>();
+                for (int participant : participants) {
+                    ids.add(group.memberIds[participant]);
+                }
+                request.setParticipantIds(ids);
+            }
+        }
+        return request;
+    }
+
+    /**
+     * Usually the whole group; bigger groups often split among a subset.
+     * The payer is included unless they paid on others' behalf.
+     */
+    private int[] pickParticipants(int groupSize, int payer, SplittableRandom random) {
+        if (groupSize <= 6 || random.nextDouble() < 0.6) {
+            int[] all = new int[groupSize];
+            for (int i = 0; i < groupSize; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] others = new int[groupSize - 1];
+        for (int i = 0, j = 0; i < groupSize; i++) {
+            if (i != payer) {
+                others[j++] = i;
+            }
+        }
+        boolean payerIncluded = random.nextDouble() >= 0.1;
+        int count = 2 + random.nextInt(groupSize - 1);
+        int fromOthers = payerIncluded ? count - 1 : Math.min(count, others.length);
+
+        // Partial Fisher-Yates shuffle
+        for (int i = 0; i < fromOthers; i++) {
+            int swap = i + random.nextInt(others.length - i);
+            int tmp = others[i];
+            others[i] = others[swap];
+            others[swap] = tmp;
+        }
+
+        int[] participants = new int[payerIncluded ? fromOthers + 1 : fromOthers];
+        int next = 0;
+        if (payerIncluded) {
+            participants[next++] = payer;
+        }
+        System.arraycopy(others, 0, participants, next, fromOthers);
+        return participants;
+    }
+
+    private Expense.SplitType pickSplitType(WorkloadSpec spec, SplittableRandom random) {
+        double total = spec.equalWeight() + spec.exactWeight() + spec.percentageWeight();
+        double pick = random.nextDouble() * total;
+        if (pick < spec.equalWeight()) {
+            return Expense.SplitType.EQUAL;
+        }
+        if (pick < spec.equalWeight() + spec.exactWeight()) {
+            return Expense.SplitType.EXACT;
+        }
+        return Expense.SplitType.PERCENTAGE;
+    }
+
+    /**
+     * Splits total into parts random weights, each at least minimum, summing exactly to total
+     */
+    private long[] apportion(long total, int parts, long minimum, SplittableRandom random) {
+        double[] weights = new double[parts];
+        double weightSum = 0;
+        for (int i = 0; i < parts; i++) {
+            weights[i] = 0.5 + random.nextDouble();
+            weightSum += weights[i];
+        }
+
+        long spare = total - minimum * parts;
+        long[] result = new long[parts];
+        long assigned = 0;
+        for (int i = 0; i < parts; i++) {
+            result[i] = minimum + (long) Math.floor(spare * weights[i] / weightSum);
+            assigned += result[i];
+        }
+        result[parts - 1] += total - assigned;
+        return result;
+    }
+
+    /**
+     * The most indebted member pays (part of) what they owe to the member who is owed most
+     */
+    private PlannedSettlement nextSettlement(GroupPlan group, SplittableRandom random) {
+        int debtor = 0;
+        int creditor = 0;
+        for (int i = 1; i < group.balanceCents.length; i++) {
+            if (group.balanceCents[i] < group.balanceCents[debtor]) {
+                debtor = i;
+            }
+            if (group.balanceCents[i] > group.balanceCents[creditor]) {
+                creditor = i;
+            }
+        }
+        long owed = Math.min(-group.balanceCents[debtor], group.balanceCents[creditor]);
+        if (owed <= 0) {
+            return null;
+        }
+
+        long amountCents = random.nextDouble() < 0.6
+                ? owed
+                : Math.max(1, Math.round(owed * (0.3 + 0.6 * random.nextDouble())));
+        group.balanceCents[debtor] += amountCents;
+        group.balanceCents[creditor] -= amountCents;
+
+        return new PlannedSettlement(group.memberIds[debtor], new SettlementRequest(group.memberIds[creditor],
+                group.id, BigDecimal.valueOf(amountCents, 2), random.nextBoolean() ? "Cash" : "Bank transfer"));
+    }
+
+    private BulkLoadService.ExpenseLoadRow toLoadRow(CreateExpenseRequest request, Expense.SplitType splitType,
+                                                     Long payerId, Map<Long, BigDecimal> shares, LocalDateTime at) {
+        // Transient, only used to build the ledger descriptions
+        Expense expense = Expense.builder()
+                .description(request.getDescription())
+                .splitType(splitType)
+                .build();
+        List<BulkLoadService.Share> loadShares = new ArrayList<>(shares.size());
+        for (Map.Entry<Long, BigDecimal> share : shares.entrySet()) {
+            loadShares.add(new BulkLoadService.Share(share.getKey(), share.getValue(),
+                    expenseSplitService.splitDescription(expense, request, share.getKey())));
+        }
+        return new BulkLoadService.ExpenseLoadRow(request.getDescription(), request.getAmount(), payerId,
+                request.getGroupId(), splitType, at, loadShares);
+    }
+
+    /**
+     * Cumulative distribution of P(k) ~ (k + 1)^-exponent over k = 0..n-1
+     */
+    static double[] powerLawCdf(int n, double exponent) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += Math.pow(k + 1, -exponent);
+            cdf[k] = sum;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= sum;
+        }
+        return cdf;
+    }
+
+    static int sample(double[] cdf, SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+
+    private static String username(WorkloadSpec spec, int index) {
+        return username(spec.usernamePrefix(), spec.seed(), index);
+    }
+
+    /**
+     * Username of the index-th generated user
+     */
+    public static String username(String prefix, long seed, int index) {
+        return prefix + "_" + seed + "_" + index;
+    }
+
+    private static Set<Long> memberIdSet(long[] memberIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (long memberId : memberIds) {
+            ids.add(memberId);
+        }
+        return ids;
+    }
+
+    /**
+     * A generated group and the running net position of each member, in cents
+     */
+    private static final class GroupPlan {
+        final String name;
+        final long[] memberIds;
+        final long[] balanceCents;
+        Long id;
+
+        GroupPlan(String name, long[] memberIds) {
+            this.name = name;
+            this.memberIds = memberIds;
+            this.balanceCents = new long[memberIds.length];
+        }
+
+        void apply(Long payerId, Map<Long, BigDecimal> shares) {
+            int payer = indexOf(payerId);
+            for (Map.Entry<Long, BigDecimal> share : shares.entrySet()) {
+                if (!share.getKey().equals(payerId)) {
+                    long cents = share.getValue().movePointRight(2).longValueExact();
+                    balanceCents[indexOf(share.getKey())] -= cents;
+                    balanceCents[payer] += cents;
+                }
+            }
+        }
+
+        private int indexOf(long userId) {
+            for (int i = 0; i < memberIds.length; i++) {
+                if (memberIds[i] == userId) {
+                    return i;
+                }
+            }
+            throw new IllegalArgumentException("Not a member: " + userId);
+        }
+    }
+
+    private record PlannedSettlement(Long debtorId, SettlementRequest request) {}
+
+    public record WorkloadSummary(long users, long friendships, long groups, long expenses, long settlements,
+                                  long durationMs) {}
+}
@@ -0,0 +1,63 @@
+package com.splitwise.sim.workload;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generates a dataset on startup when the "workload" profile is active, e.g.
+ * --spring.profiles.active=workload --app.workload.scale=medium --app.workload.seed=7
+ * Any WorkloadSpec field can be overridden with app.workload.[field-name].
+ */
+@Component
+@Profile("workload")
+@RequiredArgsConstructor
+@Slf4j
+public class WorkloadRunner implements ApplicationRunner {
+
+    private final WorkloadGenerator workloadGenerator;
+    private final Environment environment;
+    private final ApplicationContext applicationContext;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        WorkloadSpec spec = resolveSpec();
+        workloadGenerator.generate(spec);
+
+        if (environment.getProperty("app.workload.exit-when-done", Boolean.class, false)) {
+            System.exit(SpringApplication.exit(applicationContext));
+        }
+    }
+
+    private WorkloadSpec resolveSpec() {
+        WorkloadSpec preset = WorkloadSpec.forScale(environment.getProperty("app.workload.scale", "small"));
+        return new WorkloadSpec(
+                property("seed", Long.class, preset.seed()),
+                property("mode", WorkloadSpec.Mode.class, preset.mode()),
+                property("username-prefix", String.class, preset.usernamePrefix()),
+                property("users", Integer.class, preset.users()),
+                property("average-friends", Integer.class, preset.averageFriends()),
+                property("groups", Integer.class, preset.groups()),
+                property("min-group-size", Integer.class, preset.minGroupSize()),
+                property("max-group-size", Integer.class, preset.maxGroupSize()),
+                property("group-size-exponent", Double.class, preset.groupSizeExponent()),
+                property("group-activity-exponent", Double.class, preset.groupActivityExponent()),
+                property("expenses", Long.class, preset.expenses()),
+                property("settlement-ratio", Double.class, preset.settlementRatio()),
+                property("equal-weight", Double.class, preset.equalWeight()),
+                property("exact-weight", Double.class, preset.exactWeight()),
+                property("percentage-weight", Double.class, preset.percentageWeight()),
+                property("history-days", Integer.class, preset.historyDays()),
+                property("batch-size", Integer.class, preset.batchSize()));
+    }
+
+    private <T> T property(String name, Class<T> type, T defaultValue) {
+        return environment.getProperty("app.workload." + name, type, defaultValue);
+    }
+}
@@ -0,0 +1,54 @@
+package com.splitwise.sim.workload;
+
+/**
+ * Shape of a synthetic dataset. The same spec and seed always produce the same users,
+ * friendships, groups, expenses and settlements (database IDs and wall-clock timestamps aside).
+ */
+public record WorkloadSpec(
+        long seed,
+        Mode mode,
+        String usernamePrefix,
+        int users,
+        int averageFriends,
+        int groups,
+        int minGroupSize,
+        int maxGroupSize,
+        // P(size = k) ~ k^-exponent, so most groups are small
+        double groupSizeExponent,
+        // Expense rate of the group of rank r ~ r^-exponent, so a few groups are very busy
+        double groupActivityExponent,
+        long expenses,
+        // Settlements generated per expense
+        double settlementRatio,
+        double equalWeight,
+        double exactWeight,
+        double percentageWeight,
+        int historyDays,
+        int batchSize) {
+
+    public enum Mode {
+        // Every write goes through the regular services (slow, exercises the real code paths)
+        SERVICE,
+        // Expenses and settlements go through BulkLoadService (COPY)
+        BULK
+    }
+
+    /**
+     * Presets for the benchmark datasets: small (10k expenses), medium (1M) and large (10M)
+     */
+    public static WorkloadSpec forScale(String scale) {
+        switch (scale.toLowerCase()) {
+            case "large":
+                return new WorkloadSpec(42L, Mode.BULK, "wl", 500_000, 16, 100_000, 2, 40,
+                        2.2, 1.0, 10_000_000L, 0.1, 0.7, 0.2, 0.1, 365, 50_000);
+            case "medium":
+                return new WorkloadSpec(42L, Mode.BULK, "wl", 50_000, 12, 10_000, 2, 30,
+                        2.2, 1.0, 1_000_000L, 0.1, 0.7, 0.2, 0.1, 365, 50_000);
+            case "small":
+                return new WorkloadSpec(42L, Mode.SERVICE, "wl", 1_000, 8, 200, 2, 20,
+                        2.2, 1.0, 10_000L, 0.1, 0.7, 0.2, 0.1, 180, 1_000);
+            default:
+                throw new IllegalArgumentException("Unknown workload scale: " + scale);
+        }
+    }
+}
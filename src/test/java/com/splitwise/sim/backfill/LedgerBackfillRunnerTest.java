@@ -0,0 +1,107 @@
+package com.splitwise.sim.backfill;
+
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.settlement.SettlementRequest;
+import com.splitwise.sim.repository.WalletTransactionRepository;
+import com.splitwise.sim.service.SettlementService;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerBackfillRunnerTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private WalletTransactionRepository transactionRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void linksOnlyRowsWithASingleCandidateExpense() {
+        List<Long> users = signup("legacy", 2);
+        Long groupId = createGroup(users);
+        Long unique = addExpense(groupId, users.get(0), "30.00", users);
+        // Same payer and description within seconds of each other: either expense could own the rows
+        Long first = addExpenseDescribed(groupId, users.get(1), "Taxi", users);
+        Long second = addExpenseDescribed(groupId, users.get(1), "Taxi", users);
+        forgetExpenseIds(List.of(unique, first, second));
+
+        runner().run(null);
+        runner().run(null);
+
+        assertEquals(List.of(unique, unique), expenseIdsOfSplitRows(users, "Dinner"));
+        assertEquals(4, expenseIdsOfSplitRows(users, "Taxi").stream().filter(id -> id == null).count());
+    }
+
+    @Test
+    void takesTheGroupOfTheExpenseOrOfSettlementsInASingleGroup() {
+        List<Long> users = signup("legacy", 2);
+        Long home = createGroup(users);
+        Long trip = createGroup(users);
+        Long expenseId = addExpense(trip, users.get(0), "30.00", users);
+        settle(users.get(1), users.get(0), home, "12.00", "Cash");
+        settle(users.get(1), users.get(0), home, "12.00", "Cash");
+        // Equal settlements of the same pair in two groups
+        settle(users.get(1), users.get(0), home, "25.00", null);
+        settle(users.get(1), users.get(0), trip, "25.00", null);
+        jdbcTemplate.update("UPDATE wallet_transactions SET group_id = NULL WHERE group_id IN (?, ?)", home, trip);
+
+        runner().run(null);
+
+        assertEquals(List.of(trip, trip), jdbcTemplate.queryForList(
+                "SELECT group_id FROM wallet_transactions WHERE expense_id = ?", Long.class, expenseId));
+        assertEquals(4, groupIdsOfRows(users, "Settlement: Cash").stream().filter(home::equals).count());
+        assertEquals(4, groupIdsOfRows(users, "Settlement: Payment received").stream()
+                .filter(id -> id == null).count());
+    }
+
+    private LedgerBackfillRunner runner() {
+        return new LedgerBackfillRunner(transactionRepository, transactionTemplate, new MockEnvironment(),
+                applicationContext);
+    }
+
+    private Long addExpenseDescribed(Long groupId, Long payerId, String description, List<Long> participantIds) {
+        CreateExpenseRequest request = equalSplit(groupId, "20.00", participantIds);
+        request.setDescription(description);
+        return expenseSplitService.createExpense(request, payerId).getId();
+    }
+
+    private void settle(Long debtorId, Long creditorId, Long groupId, String amount, String note) {
+        settlementService.settleUp(debtorId, new SettlementRequest(creditorId, groupId, new BigDecimal(amount), note));
+    }
+
+    private List<Long> groupIdsOfRows(List<Long> userIds, String description) {
+        return jdbcTemplate.queryForList("SELECT group_id FROM wallet_transactions " +
+                "WHERE user_id IN (?, ?) AND description = ? ORDER BY id",
+                Long.class, userIds.get(0), userIds.get(1), description);
+    }
+
+    private void forgetExpenseIds(List<Long> expenseIds) {
+        expenseIds.forEach(id -> jdbcTemplate.update(
+                "UPDATE wallet_transactions SET expense_id = NULL WHERE expense_id = ?", id));
+    }
+
+    private List<Long> expenseIdsOfSplitRows(List<Long> userIds, String description) {
+        return jdbcTemplate.queryForList("SELECT expense_id FROM wallet_transactions " +
+                "WHERE user_id IN (?, ?) AND description = ? ORDER BY id",
+                Long.class, userIds.get(0), userIds.get(1), "Split (Equal): " + description);
+    }
+}
@@ -0,0 +1,125 @@
+package com.splitwise.sim.cache;
+
+import com.splitwise.sim.dto.user.UpdateProfileRequest;
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.entity.User;
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceDataCacheTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void ledgerWritesKeepCachedUsersAndGroups() {
+        Long bystander = signup("bystander");
+        Long bystanderGroup = createGroup(signup("neighbour", 2));
+        List<Long> users = signup("ledger", 2);
+        Long groupId = createGroup(users);
+        cacheUser(bystander);
+        cacheGroup(bystanderGroup);
+
+        addExpense(groupId, users.get(0), "30.00", users);
+
+        assertTrue(cache().containsEntity(User.class, bystander), "Ledger write evicted an unrelated user");
+        assertTrue(cache().containsEntity(Group.class, bystanderGroup), "Ledger write evicted an unrelated group");
+        assertTrue(cache().containsCollection(SecondLevelCacheConfig.GROUP_MEMBERS_REGION, bystanderGroup),
+                "Ledger write evicted unrelated group members");
+    }
+
+    @Test
+    void profileUpdateEvictsTheUser() {
+        Long userId = signup("profile");
+        cacheUser(userId);
+
+        userService.updateProfile(userId, new UpdateProfileRequest("Pat Doe", null));
+
+        assertFalse(cache().containsEntity(User.class, userId));
+        assertEquals("Pat Doe", userService.getUserById(userId).getFullName());
+    }
+
+    @Test
+    void deactivationEvictsTheUser() {
+        Long userId = signup("deactivate");
+        cacheUser(userId);
+
+        userService.deactivateUser(userId);
+
+        assertFalse(cache().containsEntity(User.class, userId));
+        assertFalse(userService.getUserById(userId).getIsActive());
+    }
+
+    @Test
+    void addMemberEvictsTheGroupAndItsMembers() {
+        List<Long> users = signup("member", 3);
+        Long groupId = createGroup(users.subList(0, 2));
+        cacheGroup(groupId);
+
+        groupService.addMember(groupId, users.get(2));
+
+        assertFalse(cache().containsEntity(Group.class, groupId));
+        assertFalse(cache().containsCollection(SecondLevelCacheConfig.GROUP_MEMBERS_REGION, groupId));
+        assertEquals(3, memberCount(groupId));
+    }
+
+    @Test
+    void hitsAndMissesArePublishedPerRegion() {
+        Long userId = signup("metrics");
+        cache().evictEntityData(User.class, userId);
+        double hits = gets("hit");
+        double misses = gets("miss");
+
+        userService.getUserById(userId);
+        userService.getUserById(userId);
+
+        assertTrue(gets("miss") > misses, "First read was not counted as a miss");
+        assertTrue(gets("hit") > hits, "Second read was not counted as a hit");
+    }
+
+    private void cacheUser(Long userId) {
+        cache().evictEntityData(User.class, userId);
+        userService.getUserById(userId);
+        assertTrue(cache().containsEntity(User.class, userId));
+    }
+
+    private void cacheGroup(Long groupId) {
+        memberCount(groupId);
+        assertTrue(cache().containsEntity(Group.class, groupId));
+        assertTrue(cache().containsCollection(SecondLevelCacheConfig.GROUP_MEMBERS_REGION, groupId));
+    }
+
+    private int memberCount(Long groupId) {
+        return transactionTemplate.execute(status -> groupRepository.findById(groupId).orElseThrow().getMembers().size());
+    }
+
+    private double gets(String result) {
+        return registry.get("cache.gets")
+                .tags("cache", SecondLevelCacheConfig.USER_REGION, "result", result)
+                .functionCounter()
+                .count();
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+}
@@ -0,0 +1,125 @@
+package com.splitwise.sim.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routing against two local PostgreSQL instances, told apart by their port
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static EmbeddedPostgres primaryDb;
+    private static EmbeddedPostgres replicaDb;
+
+    private ReplicaRoutingDataSource dataSource;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void startDatabases() throws IOException {
+        primaryDb = EmbeddedPostgres.builder().start();
+        replicaDb = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopDatabases() throws IOException {
+        primaryDb.close();
+        replicaDb.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReplicaRoutingDataSource(pool(primaryDb), pool(replicaDb), Duration.ofSeconds(5));
+        dataSource.afterPropertiesSet();
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertEquals(replicaDb.getPort(), portIn(readOnly));
+        assertEquals(primaryDb.getPort(), portIn(readWrite));
+        assertEquals(primaryDb.getPort(), port());
+    }
+
+    @Test
+    void mutatingRequestsAndRecentWritersStayOnThePrimary() throws Exception {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+        AtomicInteger port = new AtomicInteger();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/v1/expenses"), new MockHttpServletResponse(),
+                (request, response) -> port.set(portIn(readOnly)));
+        assertEquals(primaryDb.getPort(), port.get());
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/wallet/balance"), new MockHttpServletResponse(),
+                (request, response) -> port.set(portIn(readOnly)));
+        assertEquals(replicaDb.getPort(), port.get());
+        assertFalse(ReadYourWritesFilter.isPinnedToPrimary());
+    }
+
+    @Test
+    void readYourWritesWindowExpires() throws InterruptedException {
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMillis(50));
+
+        filter.recordWrite("alice");
+
+        assertTrue(filter.recentlyWrote("alice"));
+        assertFalse(filter.recentlyWrote("bob"));
+        Thread.sleep(60);
+        assertFalse(filter.recentlyWrote("alice"));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        HikariDataSource deadReplica = new HikariDataSource();
+        deadReplica.setJdbcUrl("jdbc:postgresql://localhost:1/postgres");
+        deadReplica.setConnectionTimeout(250);
+        deadReplica.setInitializationFailTimeout(-1);
+        dataSource.close();
+        dataSource = new ReplicaRoutingDataSource(pool(primaryDb), deadReplica, Duration.ofSeconds(5));
+        dataSource.afterPropertiesSet();
+        readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        assertEquals(primaryDb.getPort(), portIn(readOnly));
+    }
+
+    private int portIn(TransactionTemplate transaction) {
+        Integer port = transaction.execute(status -> port());
+        return port != null ? port : -1;
+    }
+
+    private int port() {
+        return Integer.parseInt(new JdbcTemplate(dataSource).queryForObject("SELECT current_setting('port')", String.class));
+    }
+
+    private static HikariDataSource pool(EmbeddedPostgres db) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(db.getJdbcUrl("postgres", "postgres"));
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+}
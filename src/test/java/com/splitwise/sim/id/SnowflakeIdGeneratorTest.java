@@ -0,0 +1,97 @@
+package com.splitwise.sim.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void idsAreMonotonicAndCarryTheNodeId() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous, "IDs must increase");
+            assertEquals(5, (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID);
+            previous = id;
+        }
+        // Safe as a JavaScript number
+        assertTrue(previous < (1L << 53));
+    }
+
+    @Test
+    void referenceIdsSortInCreationOrder() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        String first = generator.nextReferenceId();
+        String second = generator.nextReferenceId();
+        assertEquals(16, first.length());
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    void rejectsOutOfRangeNodeId() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+
+    @Test
+    void sharedGeneratorIsConfiguredOnce() {
+        // Test contexts in this JVM all run as node 0
+        SnowflakeIdGenerator shared = SnowflakeIdGenerator.configureShared(0);
+        long issued = shared.nextId();
+
+        assertSame(shared, SnowflakeIdGenerator.configureShared(0));
+        assertTrue(SnowflakeIdGenerator.shared().nextId() > issued);
+        assertThrows(IllegalStateException.class, () -> SnowflakeIdGenerator.configureShared(1));
+        assertSame(shared, SnowflakeIdGenerator.shared());
+    }
+
+    /**
+     * Throughput across many threads; every ID must be unique
+     */
+    @Test
+    void uniqueAcrossThreads() throws Exception {
+        int threads = 32;
+        int idsPerThread = 50_000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        Set<Long> seen = ConcurrentHashMap.newKeySet(threads * idsPerThread);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                long[] ids = new long[idsPerThread];
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids[i] = generator.nextId();
+                }
+                for (long id : ids) {
+                    seen.add(id);
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - began;
+        pool.shutdown();
+
+        assertEquals(threads * idsPerThread, seen.size());
+        System.out.printf("Snowflake: %d threads, %d ids, %.0f ids/s%n",
+                threads, seen.size(), seen.size() / (elapsedNanos / 1e9));
+    }
+}
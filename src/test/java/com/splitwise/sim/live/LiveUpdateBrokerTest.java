@@ -0,0 +1,110 @@
+package com.splitwise.sim.live;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.SignalType;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LiveUpdateBrokerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final LiveUpdateBroker broker =
+            new LiveUpdateBroker(registry, 4, Duration.ofMillis(50), Duration.ofSeconds(3));
+
+    @AfterEach
+    void shutdown() {
+        broker.shutdown();
+    }
+
+    @Test
+    void deliversToSubscribedUsersOnly() {
+        Client alice = new Client(Long.MAX_VALUE);
+        broker.subscribe(1L).subscribe(alice);
+        assertEquals(1, broker.subscriberCount());
+
+        broker.publish(List.of(1L, 2L), LiveEvents.BALANCE_CHANGED, "payload");
+
+        List<ServerSentEvent<Object>> events = alice.events.stream().filter(event -> event.event() != null).toList();
+        assertEquals(1, events.size());
+        assertEquals(LiveEvents.BALANCE_CHANGED, events.get(0).event());
+        assertEquals("payload", events.get(0).data());
+        assertNotNull(events.get(0).id());
+        assertEquals("connected", alice.events.get(0).comment());
+
+        alice.dispose();
+        assertEquals(0, broker.subscriberCount());
+        assertFalse(broker.hasSubscribers());
+    }
+
+    @Test
+    void evictsAClientThatFallsBehind() throws InterruptedException {
+        // Takes the connected comment and then stops reading
+        Client stalled = new Client(1);
+        Client reading = new Client(Long.MAX_VALUE);
+        broker.subscribe(1L).subscribe(stalled);
+        broker.subscribe(1L).subscribe(reading);
+
+        for (int i = 0; i < 5; i++) {
+            broker.publish(List.of(1L), LiveEvents.BALANCE_CHANGED, i);
+        }
+
+        assertTrue(stalled.finished.await(1, TimeUnit.SECONDS));
+        assertEquals(SignalType.ON_COMPLETE, stalled.finalSignal);
+        assertEquals(1, broker.subscriberCount());
+        assertEquals(1.0, registry.get("splitwise.live.evicted").counter().count());
+        assertEquals(5, reading.events.stream().filter(event -> event.event() != null).count());
+        reading.dispose();
+    }
+
+    @Test
+    void sendsHeartbeats() throws InterruptedException {
+        Client client = new Client(Long.MAX_VALUE);
+        broker.subscribe(1L).subscribe(client);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (client.events.stream().noneMatch(event -> "heartbeat".equals(event.comment()))
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(client.events.stream().anyMatch(event -> "heartbeat".equals(event.comment())));
+        client.dispose();
+    }
+
+    private static final class Client extends BaseSubscriber<ServerSentEvent<Object>> {
+        private final long demand;
+        private final List<ServerSentEvent<Object>> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile SignalType finalSignal;
+
+        Client(long demand) {
+            this.demand = demand;
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            request(demand);
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<Object> event) {
+            events.add(event);
+        }
+
+        @Override
+        protected void hookFinally(SignalType type) {
+            finalSignal = type;
+            finished.countDown();
+        }
+    }
+}
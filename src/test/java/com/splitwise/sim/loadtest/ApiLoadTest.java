@@ -0,0 +1,97 @@
+package com.splitwise.sim.loadtest;
+
+import com.splitwise.sim.security.JwtTokenProvider;
+import com.splitwise.sim.workload.WorkloadGenerator;
+import com.splitwise.sim.workload.WorkloadSpec;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts the application in-process on an embedded PostgreSQL, seeds it with the workload
+ * generator and runs the load test against it over HTTP.
+ * Only runs with the load-test Maven profile: mvn -Pload-test test
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=INFO",
+        "logging.level.org.springframework.web.cors=INFO"
+})
+class ApiLoadTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private WorkloadGenerator workloadGenerator;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void apiUnderLoad() throws Exception {
+        WorkloadSpec spec = new WorkloadSpec(Long.getLong("loadtest.seed", 42L), WorkloadSpec.Mode.BULK, "lt",
+                Integer.getInteger("loadtest.dataset-users", 2_000), 10, 400, 2, 20, 2.2, 1.0,
+                Long.getLong("loadtest.dataset-expenses", 50_000L), 0.1, 0.7, 0.2, 0.1, 90, 10_000);
+        workloadGenerator.generate(spec);
+
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties("http://localhost:" + port);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < Math.min(settings.users(), spec.users()); i++) {
+            usernames.add(WorkloadGenerator.username(spec.usernamePrefix(), spec.seed(), i));
+        }
+        LoadTestFixture fixture = LoadTestFixture.discover(client, settings.baseUrl(), usernames,
+                WorkloadGenerator.PASSWORD, jwtTokenProvider::generateTokenFromUsername);
+
+        LoadTestReport report = new LoadTestHarness(settings, fixture, client).run();
+        Path results = report.writeJson();
+        System.out.println(report.summary());
+        System.out.println("Load test results written to " + results.toAbsolutePath());
+
+        assertTrue(report.totalRequests() > 0, "No requests were measured");
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
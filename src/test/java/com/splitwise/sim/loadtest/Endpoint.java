@@ -0,0 +1,36 @@
+package com.splitwise.sim.loadtest;
+
+/**
+ * The API calls the load test mixes
+ */
+public enum Endpoint {
+    CREATE_EXPENSE("expenses", "POST /api/v1/expenses"),
+    GROUP_BALANCE("balance", "GET /api/v1/groups/{id}/balance"),
+    WALLET_TRANSACTIONS("transactions", "GET /api/v1/wallet/transactions"),
+    LOGIN("login", "POST /api/v1/auth/login");
+
+    private final String key;
+    private final String route;
+
+    Endpoint(String key, String route) {
+        this.key = key;
+        this.route = route;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getRoute() {
+        return route;
+    }
+
+    public static Endpoint fromKey(String key) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.key.equalsIgnoreCase(key)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint: " + key);
+    }
+}
@@ -0,0 +1,237 @@
+package com.splitwise.sim.loadtest;
+
+import com.splitwise.sim.dto.auth.SignupRequest;
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.group.BalanceResponse;
+import com.splitwise.sim.dto.group.GroupRequest;
+import com.splitwise.sim.dto.settlement.SettlementRequest;
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.service.ExpenseSplitService;
+import com.splitwise.sim.service.GroupService;
+import com.splitwise.sim.service.GroupWriteCoordinator;
+import com.splitwise.sim.service.PairBalanceService;
+import com.splitwise.sim.service.SettlementService;
+import com.splitwise.sim.service.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 32 writers hammering one group with expenses, settlements and new members. Half of them go
+ * through a second GroupWriteCoordinator with its own locks, standing in for another app
+ * instance, so those only stay correct through the group version and retries. Afterwards the
+ * group balances must match what the successful writes add up to, the pair table must agree
+ * with the ledger and the group version must have moved once per write. The writers get a fixed
+ * deadline, so a stuck lock fails the test instead of hanging the build.
+ * Only runs with the load-test Maven profile: mvn -Pload-test test -Dtest=GroupConsistencyStressTest
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.splitwise.sim=WARN",
+        "spring.datasource.hikari.maximum-pool-size=40",
+        "app.group-writes.max-attempts=20"
+})
+class GroupConsistencyStressTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseSplitService expenseSplitService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private PairBalanceService pairBalanceService;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void concurrentWritersKeepTheGroupConsistent() throws Exception {
+        int threads = Integer.getInteger("loadtest.stress.threads", 32);
+        int writesPerThread = Integer.getInteger("loadtest.stress.writes", 8);
+        int members = 8;
+
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < members; i++) {
+            memberIds.add(signup("member" + i));
+        }
+        GroupRequest groupRequest = new GroupRequest();
+        groupRequest.setName("Trip");
+        groupRequest.setMemberIds(new HashSet<>(memberIds.subList(1, members)));
+        Long groupId = groupService.createGroup(groupRequest, memberIds.get(0)).getId();
+        List<Long> joiners = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            joiners.add(signup("joiner" + i));
+        }
+        long initialVersion = groupVersion(groupId);
+
+        GroupWriteCoordinator otherInstance =
+                new GroupWriteCoordinator(transactionManager, 256, 20, Duration.ofMillis(20));
+        Map<Long, BigDecimal> expected = new ConcurrentHashMap<>();
+        AtomicLong writes = new AtomicLong();
+        Queue<String> failures = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                Random random = new Random(thread);
+                try {
+                    start.await();
+                    for (int i = 0; i < writesPerThread; i++) {
+                        Supplier<Map<Long, BigDecimal>> write;
+                        if (i == 0) {
+                            write = () -> {
+                                groupService.addMember(groupId, joiners.get(thread));
+                                return Map.of();
+                            };
+                        } else if (i % 4 == 0) {
+                            write = () -> settle(groupId, memberIds, random);
+                        } else {
+                            write = () -> spend(groupId, memberIds, random);
+                        }
+                        try {
+                            // Odd threads play the other instance
+                            Map<Long, BigDecimal> changes = thread % 2 == 1 ? otherInstance.execute(groupId, write) : write.get();
+                            writes.incrementAndGet();
+                            changes.forEach((userId, amount) -> expected.merge(userId, amount, BigDecimal::add));
+                        } catch (RuntimeException e) {
+                            failures.add("thread " + thread + ", write " + i + ": " + e);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        boolean finished = done.await(5, TimeUnit.MINUTES);
+        executor.shutdownNow();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        System.out.printf("Group stress, %d threads: %d writes in %.1fs, %d failed%n",
+                threads, writes.get(), seconds, failures.size());
+
+        assertTrue(finished, "Writers still running after 5 minutes");
+        assertEquals(List.of(), List.copyOf(failures), "Writes failed after retries");
+        Map<Long, BigDecimal> actual = new HashMap<>();
+        for (BalanceResponse balance : groupService.calculateGroupBalance(groupId)) {
+            actual.put(balance.getUserId(), BigDecimal.valueOf(balance.getNetBalance()).setScale(2, RoundingMode.HALF_UP));
+        }
+        for (Long memberId : memberIds) {
+            BigDecimal want = expected.getOrDefault(memberId, BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+            assertEquals(want, actual.getOrDefault(memberId, BigDecimal.ZERO.setScale(2)), "Balance of " + memberId);
+        }
+        assertEquals(0, actual.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add).signum(), "Balances do not sum to zero");
+        assertEquals(0, pairBalanceService.reconcile(), "Pair balances drifted from the ledger");
+        assertEquals(initialVersion + writes.get(), groupVersion(groupId), "Group version does not count the writes");
+    }
+
+    private Map<Long, BigDecimal> spend(Long groupId, List<Long> memberIds, Random random) {
+        Long payerId = memberIds.get(random.nextInt(memberIds.size()));
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Dinner");
+        request.setAmount(BigDecimal.valueOf(1_000 + random.nextInt(9_000), 2));
+        request.setGroupId(groupId);
+        request.setSplitType("EQUAL");
+        request.setParticipantIds(new HashSet<>(memberIds));
+        expenseSplitService.createExpense(request, payerId);
+
+        Map<Long, BigDecimal> changes = new HashMap<>();
+        expenseSplitService.calculateShares(Expense.SplitType.EQUAL, request).forEach((userId, share) -> {
+            if (!userId.equals(payerId)) {
+                changes.merge(userId, share.negate(), BigDecimal::add);
+                changes.merge(payerId, share, BigDecimal::add);
+            }
+        });
+        return changes;
+    }
+
+    private Map<Long, BigDecimal> settle(Long groupId, List<Long> memberIds, Random random) {
+        int debtor = random.nextInt(memberIds.size());
+        int creditor = (debtor + 1 + random.nextInt(memberIds.size() - 1)) % memberIds.size();
+        BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(2_000), 2);
+        settlementService.settleUp(memberIds.get(debtor),
+                new SettlementRequest(memberIds.get(creditor), groupId, amount, "Cash"));
+        return Map.of(memberIds.get(debtor), amount, memberIds.get(creditor), amount.negate());
+    }
+
+    private long groupVersion(Long groupId) {
+        return groupRepository.findById(groupId).orElseThrow().getVersion();
+    }
+
+    private Long signup(String name) {
+        SignupRequest request = new SignupRequest();
+        request.setUsername(name);
+        request.setEmail(name + "@example.com");
+        request.setPassword("password");
+        return userService.createUser(request).getId();
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
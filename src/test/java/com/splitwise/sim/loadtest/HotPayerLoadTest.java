@@ -0,0 +1,160 @@
+package com.splitwise.sim.loadtest;
+
+import com.splitwise.sim.dto.auth.SignupRequest;
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.group.GroupRequest;
+import com.splitwise.sim.service.ExpenseSplitService;
+import com.splitwise.sim.service.GroupService;
+import com.splitwise.sim.service.HotPairDetector;
+import com.splitwise.sim.service.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Expense-creation throughput when one person pays every expense of a busy group, so every
+ * transaction updates the same payer/member pair_balances rows. Runs once with pair striping
+ * off and once with it on (after a JIT warm-up) and prints both rates.
+ * Only runs with the load-test Maven profile: mvn -Pload-test test -Dtest=HotPayerLoadTest
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.splitwise.sim=WARN",
+        "spring.datasource.hikari.maximum-pool-size=40"
+})
+class HotPayerLoadTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseSplitService expenseSplitService;
+
+    @Autowired
+    private HotPairDetector hotPairDetector;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void hotPayerThroughput() throws Exception {
+        int threads = Integer.getInteger("loadtest.hot.threads", 32);
+        int members = Integer.getInteger("loadtest.hot.members", 8);
+        Duration warmup = Duration.parse(System.getProperty("loadtest.hot.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("loadtest.hot.duration", "PT15S"));
+
+        Long payerId = signup("payer");
+        Set<Long> memberIds = new HashSet<>();
+        for (int i = 0; i < members; i++) {
+            memberIds.add(signup("member" + i));
+        }
+        GroupRequest group = new GroupRequest();
+        group.setName("Flat");
+        group.setMemberIds(memberIds);
+        Long groupId = groupService.createGroup(group, payerId).getId();
+
+        CreateExpenseRequest rent = new CreateExpenseRequest();
+        rent.setDescription("Rent");
+        rent.setAmount(new BigDecimal("900.00"));
+        rent.setGroupId(groupId);
+        rent.setSplitType("EQUAL");
+        Set<Long> participants = new HashSet<>(memberIds);
+        participants.add(payerId);
+        rent.setParticipantIds(participants);
+
+        hotPairDetector.setEnabled(false);
+        run(threads, warmup, () -> expenseSplitService.createExpense(rent, payerId));
+        Result single = run(threads, duration, () -> expenseSplitService.createExpense(rent, payerId));
+        hotPairDetector.setEnabled(true);
+        Result striped = run(threads, duration, () -> expenseSplitService.createExpense(rent, payerId));
+
+        System.out.printf("Hot payer, %d threads, %d members%n", threads, members);
+        System.out.printf("  single row per pair: %8.1f expenses/s (%d failed)%n", single.rate(), single.failed());
+        System.out.printf("  striped hot pairs:   %8.1f expenses/s (%d failed, %d hot pairs)%n",
+                striped.rate(), striped.failed(), hotPairDetector.hotPairCount());
+
+        assertTrue(single.completed() > 0 && striped.completed() > 0, "No expenses were created");
+    }
+
+    private Long signup(String name) {
+        SignupRequest request = new SignupRequest();
+        request.setUsername(name);
+        request.setEmail(name + "@example.com");
+        request.setPassword("password");
+        return userService.createUser(request).getId();
+    }
+
+    private static Result run(int threads, Duration duration, Runnable action) throws InterruptedException {
+        AtomicLong completed = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long deadline = System.nanoTime() + duration.toNanos();
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long started = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            action.run();
+                            completed.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        executor.shutdown();
+        double seconds = (System.nanoTime() - started) / 1e9;
+        return new Result(completed.get(), failed.get(), completed.get() / seconds);
+    }
+
+    private record Result(long completed, long failed, double rate) {}
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
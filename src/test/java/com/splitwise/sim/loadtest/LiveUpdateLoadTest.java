@@ -0,0 +1,317 @@
+package com.splitwise.sim.loadtest;
+
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.group.GroupRequest;
+import com.splitwise.sim.live.LiveEvents;
+import com.splitwise.sim.live.LiveUpdateBroker;
+import com.splitwise.sim.outbox.OutboxEvents;
+import com.splitwise.sim.security.JwtTokenProvider;
+import com.splitwise.sim.service.ExpenseSplitService;
+import com.splitwise.sim.service.GroupService;
+import com.sun.management.UnixOperatingSystemMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Thousands of users hold an event stream open on one node while expenses are created in their
+ * groups. Checks that every member of a group receives the expense and the balance delta,
+ * that everyone gets heartbeats, and that a client which stopped reading is evicted without
+ * holding up the others; prints fan-out latency from commit to receipt.
+ * Each stream costs two file descriptors in-process, so the subscriber count is capped to the fd limit:
+ * mvn -Pload-test test -Dtest=LiveUpdateLoadTest -Dloadtest.live.subscribers=5000 -Dloadtest.live.ramp=250
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.splitwise.sim=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "server.tomcat.max-connections=30000",
+        "server.tomcat.accept-count=10000",
+        "app.live.heartbeat-interval=PT1S",
+        "app.reactive.pool.max-acquire-time=PT60S"
+})
+class LiveUpdateLoadTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final Pattern EXPENSE_ID = Pattern.compile("\"expenseId\":(\\d+)");
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseSplitService expenseSplitService;
+
+    @Autowired
+    private LiveUpdateBroker broker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Long, Long> committedAt = new ConcurrentHashMap<>();
+    private final Map<Long, List<Long>> receivedAt = new ConcurrentHashMap<>();
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @TestConfiguration
+    static class SmallSendBuffers {
+        // Small kernel send buffers, so a client that stops reading pushes back within a few KB
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> smallSendBuffers() {
+            return factory -> factory.addConnectorCustomizers(connector ->
+                    connector.setProperty("socket.txBufSize", "8192"));
+        }
+    }
+
+    @Test
+    void fansOutToThousandsOfSubscribers() throws Exception {
+        int subscribers = Integer.getInteger("loadtest.live.subscribers", 2_000);
+        int groupSize = Integer.getInteger("loadtest.live.group-size", 20);
+        int ramp = Integer.getInteger("loadtest.live.ramp", 250);
+        long maxFiles = ((UnixOperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getMaxFileDescriptorCount();
+        int fdCap = (int) Math.max(100, (maxFiles - 2_000) / 2);
+        if (subscribers > fdCap) {
+            System.out.printf("fd limit %d allows %d in-process subscribers, not %d; raise ulimit -n for more%n",
+                    maxFiles, fdCap, subscribers);
+            subscribers = fdCap;
+        }
+        subscribers -= subscribers % groupSize;
+
+        // Users straight into the table: nobody logs in, tokens are minted below
+        jdbcTemplate.update("""
+                INSERT INTO users (username, email, password, is_active, created_at)
+                SELECT 'live' || g, 'live' || g || '@example.com', 'unused', true, now()
+                FROM generate_series(0, ? - 1) g
+                """, subscribers);
+        Map<Long, String> usernames = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id, username FROM users WHERE username LIKE 'live%' ORDER BY id",
+                (RowCallbackHandler) row -> usernames.put(row.getLong(1), row.getString(2)));
+        List<Long> userIds = new ArrayList<>(usernames.keySet());
+        List<List<Long>> groups = new ArrayList<>();
+        List<Long> groupIds = new ArrayList<>();
+        for (int first = 0; first < userIds.size(); first += groupSize) {
+            List<Long> members = userIds.subList(first, first + groupSize);
+            GroupRequest request = new GroupRequest();
+            request.setName("Live " + first / groupSize);
+            request.setMemberIds(new HashSet<>(members.subList(1, members.size())));
+            groupIds.add(groupService.createGroup(request, members.get(0)).getId());
+            groups.add(members);
+        }
+
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI events = URI.create("http://localhost:" + context.getWebServer().getPort() + "/api/v1/reactive/events");
+        Map<Long, StreamReader> readers = new ConcurrentHashMap<>();
+        long connectStarted = System.nanoTime();
+        for (Long userId : userIds) {
+            // Connects at the ramp rate, like clients coming back after a deploy
+            if (readers.size() % ramp == 0 && !readers.isEmpty()) {
+                Thread.sleep(1_000);
+            }
+            StreamReader reader = new StreamReader();
+            readers.put(userId, reader);
+            httpClient.sendAsync(HttpRequest.newBuilder(events)
+                            .header("Authorization", "Bearer "
+                                    + jwtTokenProvider.generateTokenFromUsername(usernames.get(userId)))
+                            .build(),
+                    HttpResponse.BodyHandlers.fromLineSubscriber(reader));
+        }
+        int expected = subscribers;
+        await(Duration.ofSeconds(120), () -> broker.subscriberCount() >= expected);
+        System.out.printf("%d streams open after %d ms%n", broker.subscriberCount(),
+                Duration.ofNanos(System.nanoTime() - connectStarted).toMillis());
+        assertEquals(subscribers, broker.subscriberCount());
+
+        // A member of the first group that takes the response headers and then never reads
+        SocketChannel stalled = openStalledStream(usernames.get(userIds.get(1)));
+        await(Duration.ofSeconds(10), () -> broker.subscriberCount() == expected + 1);
+
+        // The first group is busy until the stalled stream has been evicted
+        List<Long> first = groups.get(0);
+        int busyExpenses = 0;
+        while (meterRegistry.get("splitwise.live.evicted").counter().count() < 1 && busyExpenses < 3_000) {
+            createExpense(groupIds.get(0), first);
+            busyExpenses++;
+        }
+        // ... then every group gets one expense
+        for (int i = 0; i < groups.size(); i++) {
+            createExpense(groupIds.get(i), groups.get(i));
+        }
+        int firstGroupExpenses = busyExpenses + 1;
+        await(Duration.ofSeconds(60), () -> readers.entrySet().stream().allMatch(entry ->
+                entry.getValue().count(OutboxEvents.EXPENSE_CREATED)
+                        == (first.contains(entry.getKey()) ? firstGroupExpenses : 1)));
+        Thread.sleep(1_500);
+
+        List<Long> latencies = new ArrayList<>();
+        receivedAt.forEach((expenseId, receipts) -> receipts.forEach(received ->
+                latencies.add(Math.max(0, received - committedAt.get(expenseId)) / 1_000)));
+        latencies.sort(null);
+        System.out.printf("%d subscribers in %d groups, %d expenses (%d in the busy group), %d events delivered%n",
+                subscribers, groups.size(), committedAt.size(), firstGroupExpenses, latencies.size());
+        System.out.printf("commit to receipt: p50 %.1f ms, p99 %.1f ms, max %.1f ms; %d live threads, %d evicted%n",
+                percentile(latencies, 0.50) / 1000.0, percentile(latencies, 0.99) / 1000.0,
+                percentile(latencies, 1.0) / 1000.0, Thread.activeCount(),
+                (long) meterRegistry.get("splitwise.live.evicted").counter().count());
+
+        for (Map.Entry<Long, StreamReader> entry : readers.entrySet()) {
+            StreamReader reader = entry.getValue();
+            int expenses = first.contains(entry.getKey()) ? firstGroupExpenses : 1;
+            assertEquals(expenses, reader.count(OutboxEvents.EXPENSE_CREATED), "expenses seen by " + entry.getKey());
+            assertEquals(expenses, reader.count(LiveEvents.BALANCE_CHANGED), "balance deltas seen by " + entry.getKey());
+            assertTrue(reader.heartbeats.get() > 0, "no heartbeat for " + entry.getKey());
+        }
+        assertEquals(1.0, meterRegistry.get("splitwise.live.evicted").counter().count());
+        assertEquals(subscribers, broker.subscriberCount());
+        stalled.close();
+    }
+
+    private void createExpense(Long groupId, List<Long> members) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Round");
+        request.setAmount(new BigDecimal("40.00"));
+        request.setGroupId(groupId);
+        request.setSplitType("EQUAL");
+        request.setParticipantIds(new LinkedHashSet<>(members.subList(0, 4)));
+        Long expenseId = expenseSplitService.createExpense(request, members.get(0)).getId();
+        committedAt.put(expenseId, System.nanoTime());
+    }
+
+    private SocketChannel openStalledStream(String username) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+        channel.connect(new InetSocketAddress("localhost", context.getWebServer().getPort()));
+        String token = jwtTokenProvider.generateTokenFromUsername(username);
+        channel.write(ByteBuffer.wrap(("GET /api/v1/reactive/events HTTP/1.1\r\nHost: localhost\r\n"
+                + "Authorization: Bearer " + token + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII)));
+        return channel;
+    }
+
+    private static void await(Duration timeout, BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+    }
+
+    private static long percentile(List<Long> sorted, double percentile) {
+        return sorted.isEmpty() ? 0 : sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Counts events by name as the lines arrive; runs on the client's selector, no thread per stream
+    private final class StreamReader implements Flow.Subscriber<String> {
+        private final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+        private final AtomicInteger heartbeats = new AtomicInteger();
+        private String event;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.startsWith(":heartbeat")) {
+                heartbeats.incrementAndGet();
+            } else if (line.startsWith("event:")) {
+                event = line.substring("event:".length());
+            } else if (line.startsWith("data:") && event != null) {
+                if (OutboxEvents.EXPENSE_CREATED.equals(event)) {
+                    long now = System.nanoTime();
+                    Matcher matcher = EXPENSE_ID.matcher(line);
+                    if (matcher.find()) {
+                        receivedAt.computeIfAbsent(Long.valueOf(matcher.group(1)), id -> new CopyOnWriteArrayList<>())
+                                .add(now);
+                    }
+                }
+                counts.computeIfAbsent(event, name -> new AtomicInteger()).incrementAndGet();
+            } else if (line.isEmpty()) {
+                event = null;
+            }
+        }
+
+        int count(String eventType) {
+            AtomicInteger count = counts.get(eventType);
+            return count != null ? count.get() : 0;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.splitwise.sim.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Users the load test acts as, each with a pre-minted JWT and the groups they belong to.
+ * Minting tokens up front keeps BCrypt and signing out of the measured requests
+ * (only the LOGIN endpoint pays for them).
+ */
+public record LoadTestFixture(List<Member> members) {
+
+    public record Member(String username, String password, String token, List<GroupRef> groups) {}
+
+    public record GroupRef(long groupId, List<Long> memberIds) {}
+
+    /**
+     * Looks up the groups of each user through the API, skipping users without groups
+     */
+    public static LoadTestFixture discover(HttpClient client, String baseUrl, List<String> usernames,
+                                           String password, Function<String, String> tokenMinter)
+            throws IOException, InterruptedException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Member> members = new ArrayList<>();
+
+        for (String username : usernames) {
+            String token = tokenMinter.apply(username);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/groups"))
+                    .header("Authorization", "Bearer " + token)
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Could not load groups of " + username + ": HTTP "
+                        + response.statusCode() + " " + response.body());
+            }
+
+            List<GroupRef> groups = new ArrayList<>();
+            for (JsonNode group : mapper.readTree(response.body())) {
+                List<Long> memberIds = new ArrayList<>();
+                group.path("members").forEach(member -> memberIds.add(member.path("id").asLong()));
+                groups.add(new GroupRef(group.path("id").asLong(), memberIds));
+            }
+            if (!groups.isEmpty()) {
+                members.add(new Member(username, password, token, groups));
+            }
+        }
+
+        if (members.isEmpty()) {
+            throw new IllegalStateException("None of the " + usernames.size() + " load test users is in a group");
+        }
+        return new LoadTestFixture(members);
+    }
+}
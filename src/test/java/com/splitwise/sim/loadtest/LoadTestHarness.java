@@ -0,0 +1,155 @@
+package com.splitwise.sim.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the REST API over real HTTP with a weighted endpoint mix and records the
+ * latency of every request into one HdrHistogram per endpoint.
+ */
+public class LoadTestHarness {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final LoadTestSettings settings;
+    private final LoadTestFixture fixture;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Endpoint[] weightedEndpoints;
+    private final Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+    public LoadTestHarness(LoadTestSettings settings, LoadTestFixture fixture, HttpClient client) {
+        this.settings = settings;
+        this.fixture = fixture;
+        this.client = client;
+
+        List<Endpoint> weighted = new ArrayList<>();
+        settings.mix().forEach((endpoint, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weighted.add(endpoint);
+            }
+            latencies.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+        });
+        this.weightedEndpoints = weighted.toArray(new Endpoint[0]);
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        long intervalNanos = settings.targetRps() > 0 ? TimeUnit.SECONDS.toNanos(1) / settings.targetRps() : 0;
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        AtomicLong sequence = new AtomicLong();
+
+        ExecutorService workers = Executors.newFixedThreadPool(settings.concurrency());
+        for (int i = 0; i < settings.concurrency(); i++) {
+            workers.submit(() -> {
+                while (true) {
+                    long intended = intervalNanos > 0
+                            ? start + sequence.getAndIncrement() * intervalNanos
+                            : System.nanoTime();
+                    if (intended >= end) {
+                        return;
+                    }
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    execute(intended, intended >= measureFrom);
+                }
+            });
+        }
+
+        workers.shutdown();
+        if (!workers.awaitTermination(settings.warmup().plus(settings.duration()).plusMinutes(5).toMillis(),
+                TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+        return LoadTestReport.from(settings, latencies, errors);
+    }
+
+    private void execute(long intendedNanos, boolean measured) {
+        Endpoint endpoint = weightedEndpoints[ThreadLocalRandom.current().nextInt(weightedEndpoints.length)];
+        boolean ok;
+        try {
+            HttpResponse<Void> response = client.send(buildRequest(endpoint), HttpResponse.BodyHandlers.discarding());
+            ok = response.statusCode() >= 200 && response.statusCode() < 300;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        if (measured) {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+            latencies.get(endpoint).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            if (!ok) {
+                errors.get(endpoint).increment();
+            }
+        }
+    }
+
+    private HttpRequest buildRequest(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LoadTestFixture.Member member = fixture.members().get(random.nextInt(fixture.members().size()));
+        LoadTestFixture.GroupRef group = member.groups().get(random.nextInt(member.groups().size()));
+
+        switch (endpoint) {
+            case CREATE_EXPENSE:
+                Map<String, Object> expense = new LinkedHashMap<>();
+                expense.put("description", "Load test expense");
+                expense.put("amount", BigDecimal.valueOf(random.nextLong(500, 20_000), 2));
+                expense.put("groupId", group.groupId());
+                expense.put("splitType", "EQUAL");
+                expense.put("participantIds", group.memberIds());
+                return json(authorized("/api/v1/expenses", member), expense);
+            case GROUP_BALANCE:
+                return authorized("/api/v1/groups/" + group.groupId() + "/balance", member).GET().build();
+            case WALLET_TRANSACTIONS:
+                return authorized("/api/v1/wallet/transactions", member).GET().build();
+            case LOGIN:
+            default:
+                return json(request("/api/v1/auth/login"),
+                        Map.of("usernameOrEmail", member.username(), "password", member.password()));
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(settings.baseUrl() + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private HttpRequest.Builder authorized(String path, LoadTestFixture.Member member) {
+        return request(path).header("Authorization", "Bearer " + member.token());
+    }
+
+    private HttpRequest json(HttpRequest.Builder builder, Object body) {
+        try {
+            return builder.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
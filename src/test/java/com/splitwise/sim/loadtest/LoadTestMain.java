@@ -0,0 +1,53 @@
+package com.splitwise.sim.loadtest;
+
+import com.splitwise.sim.security.JwtTokenProvider;
+import com.splitwise.sim.workload.WorkloadGenerator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the load test against an already running instance seeded by the workload profile, e.g.
+ * mvn exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.splitwise.sim.loadtest.LoadTestMain
+ *     -Dloadtest.base-url=http://localhost:8081 -Dloadtest.rps=500
+ * Tokens are minted locally, so loadtest.jwt-secret must match the server's jwt.secret.
+ */
+public final class LoadTestMain {
+
+    private static final String DEFAULT_JWT_SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties("http://localhost:8081");
+        String prefix = System.getProperty("loadtest.username-prefix", "wl");
+        long seed = Long.getLong("loadtest.seed", 42L);
+
+        JwtTokenProvider tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", System.getProperty("loadtest.jwt-secret",
+                System.getenv().getOrDefault("JWT_SECRET", DEFAULT_JWT_SECRET)));
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationMs", Duration.ofHours(12).toMillis());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < settings.users(); i++) {
+            usernames.add(WorkloadGenerator.username(prefix, seed, i));
+        }
+        LoadTestFixture fixture = LoadTestFixture.discover(client, settings.baseUrl(), usernames,
+                WorkloadGenerator.PASSWORD, tokenProvider::generateTokenFromUsername);
+
+        LoadTestReport report = new LoadTestHarness(settings, fixture, client).run();
+        Path results = report.writeJson();
+        System.out.println(report.summary());
+        System.out.println("Load test results written to " + results.toAbsolutePath());
+    }
+}
@@ -0,0 +1,87 @@
+package com.splitwise.sim.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Results of one load test run. Saved as JSON (latencies in milliseconds) together with
+ * each endpoint's compressed histogram, so runs can be compared or re-aggregated later.
+ */
+public record LoadTestReport(Instant finishedAt, LoadTestSettings settings, Map<String, EndpointStats> endpoints) {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    public record EndpointStats(String route, long requests, long errors, double throughputPerSecond,
+                                double meanMs, double p50Ms, double p90Ms, double p99Ms, double p999Ms,
+                                double maxMs, String histogram) {}
+
+    static LoadTestReport from(LoadTestSettings settings, Map<Endpoint, Histogram> latencies,
+                               Map<Endpoint, LongAdder> errors) {
+        double seconds = settings.duration().toMillis() / 1000.0;
+        Map<String, EndpointStats> endpoints = new LinkedHashMap<>();
+        latencies.forEach((endpoint, histogram) -> endpoints.put(endpoint.getKey(), new EndpointStats(
+                endpoint.getRoute(),
+                histogram.getTotalCount(),
+                errors.get(endpoint).sum(),
+                histogram.getTotalCount() / seconds,
+                histogram.getMean() / 1000.0,
+                millis(histogram, 50.0),
+                millis(histogram, 90.0),
+                millis(histogram, 99.0),
+                millis(histogram, 99.9),
+                histogram.getMaxValue() / 1000.0,
+                encode(histogram))));
+        return new LoadTestReport(Instant.now(), settings, endpoints);
+    }
+
+    public long totalRequests() {
+        return endpoints.values().stream().mapToLong(EndpointStats::requests).sum();
+    }
+
+    public Path writeJson() throws IOException {
+        Path directory = Path.of(settings.resultsDir());
+        Files.createDirectories(directory);
+        Path file = directory.resolve("load-test-" + FILE_TIMESTAMP.format(finishedAt) + ".json");
+        new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(file.toFile(), this);
+        return file;
+    }
+
+    public String summary() {
+        StringBuilder table = new StringBuilder(String.format("%-14s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        endpoints.forEach((key, stats) -> table.append(String.format("%-14s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                key, stats.requests(), stats.errors(), stats.throughputPerSecond(),
+                stats.p50Ms(), stats.p99Ms(), stats.p999Ms(), stats.maxMs())));
+        return table.toString();
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
@@ -0,0 +1,57 @@
+package com.splitwise.sim.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load shape, read from -Dloadtest.* system properties.
+ * A target rate of 0 runs a closed model (every worker fires as fast as responses come back);
+ * otherwise requests are scheduled at the fixed arrival rate and latency is measured from the
+ * scheduled start, so a stalled server is not hidden by the workers waiting on it.
+ */
+public record LoadTestSettings(
+        String baseUrl,
+        Duration warmup,
+        Duration duration,
+        int targetRps,
+        int concurrency,
+        int users,
+        Map<Endpoint, Integer> mix,
+        String resultsDir) {
+
+    private static final String DEFAULT_MIX = "expenses=20,balance=40,transactions=30,login=10";
+
+    public static LoadTestSettings fromSystemProperties(String defaultBaseUrl) {
+        return new LoadTestSettings(
+                System.getProperty("loadtest.base-url", defaultBaseUrl),
+                Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+                Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+                Integer.getInteger("loadtest.rps", 200),
+                Integer.getInteger("loadtest.concurrency", 32),
+                Integer.getInteger("loadtest.users", 200),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                System.getProperty("loadtest.results-dir", "target/load-test"));
+    }
+
+    /**
+     * "expenses=20,balance=40" -> relative weight per endpoint; unlisted endpoints are not called
+     */
+    static Map<Endpoint, Integer> parseMix(String mix) {
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Endpoint.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Load mix is empty: " + mix);
+        }
+        return weights;
+    }
+}
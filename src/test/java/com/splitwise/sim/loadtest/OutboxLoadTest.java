@@ -0,0 +1,210 @@
+package com.splitwise.sim.loadtest;
+
+import com.splitwise.sim.dto.auth.SignupRequest;
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.group.GroupRequest;
+import com.splitwise.sim.entity.OutboxEvent;
+import com.splitwise.sim.outbox.OutboxEventHandler;
+import com.splitwise.sim.outbox.OutboxEvents;
+import com.splitwise.sim.repository.OutboxEventRepository;
+import com.splitwise.sim.service.ExpenseSplitService;
+import com.splitwise.sim.service.GroupService;
+import com.splitwise.sim.service.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Expense creation with a slow, occasionally failing outbox handler. The handler's time must
+ * not show up in createExpense, every event must be delivered, and each group's events must
+ * reach the handler in the order they were written despite the retries. Handlers must run with
+ * no transaction open, and no claim may be left behind.
+ * Only runs with the load-test Maven profile: mvn -Pload-test test -Dtest=OutboxLoadTest
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.splitwise.sim=WARN",
+        "app.outbox.poll-interval=PT0.05S",
+        "app.outbox.retry-backoff=PT0.1S"
+})
+class OutboxLoadTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final long HANDLER_MILLIS = 20;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseSplitService expenseSplitService;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RecordingHandler handler;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @TestConfiguration
+    static class Handlers {
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+
+    @Test
+    void sideEffectsAreDeliveredAfterCommitInGroupOrder() throws Exception {
+        int groups = 4;
+        int expensesPerGroup = Integer.getInteger("loadtest.outbox.expenses", 50);
+
+        List<Long> memberIds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            memberIds.add(signup("member" + i));
+        }
+        List<Long> groupIds = new ArrayList<>();
+        for (int g = 0; g < groups; g++) {
+            GroupRequest request = new GroupRequest();
+            request.setName("Group " + g);
+            request.setMemberIds(new HashSet<>(memberIds.subList(1, memberIds.size())));
+            groupIds.add(groupService.createGroup(request, memberIds.get(0)).getId());
+        }
+
+        AtomicLong requestNanos = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < groups * expensesPerGroup; i++) {
+            Long groupId = groupIds.get(i % groups);
+            writes.add(executor.submit(() -> {
+                CreateExpenseRequest request = new CreateExpenseRequest();
+                request.setDescription("Lunch");
+                request.setAmount(new BigDecimal("40.00"));
+                request.setGroupId(groupId);
+                request.setSplitType("EQUAL");
+                request.setParticipantIds(new HashSet<>(memberIds));
+                long started = System.nanoTime();
+                expenseSplitService.createExpense(request, memberIds.get(0));
+                requestNanos.addAndGet(System.nanoTime() - started);
+            }));
+        }
+        for (Future<?> write : writes) {
+            write.get();
+        }
+        executor.shutdown();
+
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (!outboxEventRepository.pendingStats().get(0)[0].equals(0L) && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+
+        int total = groups * expensesPerGroup;
+        System.out.printf("Outbox: %d expenses, createExpense %.1f ms avg, handler %d ms, %d redeliveries%n",
+                total, requestNanos.get() / 1e6 / total, HANDLER_MILLIS, handler.failures.get());
+
+        assertEquals(0L, outboxEventRepository.pendingStats().get(0)[0], "Undelivered outbox events");
+        assertEquals(total, handler.delivered.values().stream().mapToInt(List::size).sum());
+        for (List<Long> eventIds : handler.delivered.values()) {
+            for (int i = 1; i < eventIds.size(); i++) {
+                assertTrue(eventIds.get(i - 1) < eventIds.get(i), "Group events out of order: " + eventIds);
+            }
+        }
+        assertTrue(handler.failures.get() > 0, "No delivery was retried");
+        assertTrue(handler.threads.stream().allMatch(name -> name.startsWith("outbox-")),
+                "Handler ran on " + handler.threads);
+        assertEquals(0, handler.inTransaction.get(), "Handler ran inside a transaction");
+        assertTrue(outboxEventRepository.findAll().stream().allMatch(event -> event.getClaimedUntil() == null),
+                "Outbox claims left behind");
+    }
+
+    private Long signup(String name) {
+        SignupRequest request = new SignupRequest();
+        request.setUsername(name);
+        request.setEmail(name + "@example.com");
+        request.setPassword("password");
+        return userService.createUser(request).getId();
+    }
+
+    /**
+     * Slow handler that fails the first attempt of every tenth event
+     */
+    static class RecordingHandler implements OutboxEventHandler {
+        private final Map<Long, List<Long>> delivered = new ConcurrentHashMap<>();
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong inTransaction = new AtomicLong();
+        private final List<Long> failedOnce = new CopyOnWriteArrayList<>();
+
+        @Override
+        public Set<String> eventTypes() {
+            return Set.of(OutboxEvents.EXPENSE_CREATED);
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            threads.add(Thread.currentThread().getName());
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                inTransaction.incrementAndGet();
+            }
+            try {
+                Thread.sleep(HANDLER_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (event.getId() % 10 == 0 && !failedOnce.contains(event.getId())) {
+                failedOnce.add(event.getId());
+                failures.incrementAndGet();
+                throw new IllegalStateException("Downstream unavailable");
+            }
+            delivered.computeIfAbsent(event.getGroupId(), groupId -> new CopyOnWriteArrayList<>()).add(event.getId());
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.splitwise.sim.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.sim.dto.auth.SignupRequest;
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.group.GroupRequest;
+import com.splitwise.sim.security.JwtTokenProvider;
+import com.splitwise.sim.service.ExpenseSplitService;
+import com.splitwise.sim.service.GroupService;
+import com.splitwise.sim.service.UserService;
+import com.sun.management.UnixOperatingSystemMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.tomcat.util.threads.ThreadPoolExecutor;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Thread and connection footprint of many slow readers of a user's transaction history, servlet
+ * endpoint versus the reactive stream (after checking that the reactive reads return what the
+ * servlet ones do). Every client opens a socket with a tiny receive buffer and reads 512 bytes a
+ * second, like a phone on a bad network; while they hang on, the test samples JVM threads, busy
+ * Tomcat workers and connections held in the JDBC and R2DBC pools.
+ * Each socket costs two file descriptors in-process, so the client count is capped to the fd limit:
+ * ulimit -n 25000; mvn -Pload-test test -Dtest=SlowClientFootprintLoadTest -Dloadtest.slow.clients=10000
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.splitwise.sim=WARN",
+        "logging.level.org.springframework.security=WARN",
+        "server.tomcat.max-connections=30000",
+        "server.tomcat.accept-count=10000",
+        "app.reactive.stream-page-size=50",
+        "app.reactive.pool.max-acquire-time=PT60S"
+})
+class SlowClientFootprintLoadTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Autowired
+    private ServletWebServerApplicationContext context;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private ExpenseSplitService expenseSplitService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @TestConfiguration
+    static class SmallSendBuffers {
+        // Small kernel send buffers, so a slow reader pushes back on the server within a few KB
+        @Bean
+        WebServerFactoryCustomizer<TomcatServletWebServerFactory> smallSendBuffers() {
+            return factory -> factory.addConnectorCustomizers(connector ->
+                    connector.setProperty("socket.txBufSize", "8192"));
+        }
+    }
+
+    @Test
+    void slowReadersOfServletAndReactiveHistory() throws Exception {
+        int clients = Integer.getInteger("loadtest.slow.clients", 10_000);
+        int rows = Integer.getInteger("loadtest.slow.rows", 2_000);
+        int ramp = Integer.getInteger("loadtest.slow.ramp", 200);
+        Duration hold = Duration.parse(System.getProperty("loadtest.slow.hold", "PT30S"));
+
+        long maxFiles = ((UnixOperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean()).getMaxFileDescriptorCount();
+        int fdCap = (int) Math.max(100, (maxFiles - 4_000) / 2);
+        if (clients > fdCap) {
+            System.out.printf("fd limit %d allows %d in-process clients, not %d; raise ulimit -n for more%n",
+                    maxFiles, fdCap, clients);
+            clients = fdCap;
+        }
+
+        SignupRequest signup = new SignupRequest();
+        signup.setUsername("reader");
+        signup.setEmail("reader@example.com");
+        signup.setPassword("password");
+        Long userId = userService.createUser(signup).getId();
+        SignupRequest other = new SignupRequest();
+        other.setUsername("friend");
+        other.setEmail("friend@example.com");
+        other.setPassword("password");
+        Long friendId = userService.createUser(other).getId();
+        new JdbcTemplate(dataSource).update("""
+                INSERT INTO wallet_transactions (id, user_id, transaction_type, amount, counterparty_id, description, created_at)
+                SELECT 9000000000 + g, ?, CASE WHEN g % 2 = 0 THEN 'CREDIT' ELSE 'DEBIT' END, 12.50, ?,
+                       'Dinner #' || g, now() - interval '1 day' + g * interval '1 second'
+                FROM generate_series(1, ?) g
+                """, userId, friendId, rows);
+        GroupRequest groupRequest = new GroupRequest();
+        groupRequest.setName("Flat");
+        groupRequest.setMemberIds(Set.of(friendId));
+        Long groupId = groupService.createGroup(groupRequest, userId).getId();
+        CreateExpenseRequest expense = new CreateExpenseRequest();
+        expense.setDescription("Groceries");
+        expense.setAmount(new BigDecimal("30.00"));
+        expense.setGroupId(groupId);
+        expense.setSplitType("EQUAL");
+        expense.setParticipantIds(Set.of(userId, friendId));
+        expenseSplitService.createExpense(expense, userId);
+        String token = jwtTokenProvider.generateTokenFromUsername("reader");
+
+        assertReactiveReadsMatchServlet(token, groupId);
+
+        Footprint servlet = run("servlet", "/api/v1/wallet/transactions", token, clients, ramp, hold);
+        Footprint reactive = run("reactive", "/api/v1/reactive/wallet/transactions/stream", token, clients, ramp, hold);
+
+        System.out.printf("%d slow clients (%d/s ramp), %d history rows each, held %ds%n",
+                clients, ramp, rows, hold.toSeconds());
+        System.out.printf("%-9s %8s %8s %11s %11s %11s %8s %10s%n", "endpoint", "threads", "tcp",
+                "busy peak/now", "jdbc peak/now", "r2dbc peak/now", "served", "KB read");
+        for (Footprint footprint : List.of(servlet, reactive)) {
+            System.out.printf("%-9s %8d %8d %6d/%-6d %6d/%-6d %7d/%-6d %8d %10d%n", footprint.name,
+                    footprint.peakThreads, footprint.peakTcpConnections,
+                    footprint.peakBusyWorkers, footprint.busyWorkers,
+                    footprint.peakJdbcConnections, footprint.jdbcConnections,
+                    footprint.peakR2dbcConnections, footprint.r2dbcConnections,
+                    footprint.clientsServed, footprint.bytesRead / 1024);
+        }
+
+        assertTrue(reactive.busyWorkers < servlet.busyWorkers,
+                "Reactive stream kept " + reactive.busyWorkers + " workers busy");
+        assertTrue(reactive.jdbcConnections < servlet.jdbcConnections,
+                "Reactive stream held " + reactive.jdbcConnections + " JDBC connections");
+    }
+
+    private void assertReactiveReadsMatchServlet(String token, Long groupId) throws Exception {
+        JsonNode balance = get(token, "/api/v1/wallet/balance");
+        JsonNode reactiveBalance = get(token, "/api/v1/reactive/wallet/balance");
+        assertEquals(balance.get("balance").decimalValue(), reactiveBalance.get("balance").decimalValue());
+        assertEquals(balance.get("username"), reactiveBalance.get("username"));
+
+        List<Long> history = new ArrayList<>();
+        get(token, "/api/v1/wallet/transactions").forEach(row -> history.add(row.get("id").asLong()));
+        List<Long> paged = new ArrayList<>();
+        String before = "";
+        JsonNode page;
+        do {
+            page = get(token, "/api/v1/reactive/wallet/transactions?limit=500" + before);
+            page.forEach(row -> paged.add(row.get("id").asLong()));
+            before = page.isEmpty() ? before : "&before=" + page.get(page.size() - 1).get("id").asLong();
+        } while (!page.isEmpty());
+        assertEquals(history, paged, "Reactive pages differ from the servlet history");
+        List<Long> streamed = new ArrayList<>();
+        for (String line : send(token, "/api/v1/reactive/wallet/transactions/stream").split("\n")) {
+            streamed.add(objectMapper.readTree(line).get("id").asLong());
+        }
+        assertEquals(history, streamed, "Reactive stream differs from the servlet history");
+
+        Set<JsonNode> groupBalances = new HashSet<>();
+        get(token, "/api/v1/groups/" + groupId + "/balance").forEach(groupBalances::add);
+        Set<JsonNode> reactiveGroupBalances = new HashSet<>();
+        get(token, "/api/v1/reactive/groups/" + groupId + "/balance").forEach(reactiveGroupBalances::add);
+        assertEquals(groupBalances, reactiveGroupBalances);
+        assertEquals(404, httpClient.send(request(token, "/api/v1/reactive/groups/-1/balance"),
+                HttpResponse.BodyHandlers.discarding()).statusCode());
+    }
+
+    private JsonNode get(String token, String path) throws Exception {
+        return objectMapper.readTree(send(token, path));
+    }
+
+    private String send(String token, String path) throws Exception {
+        HttpResponse<String> response = httpClient.send(request(token, path), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode(), path + ": " + response.body());
+        return response.body();
+    }
+
+    private HttpRequest request(String token, String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + context.getWebServer().getPort() + path))
+                .header("Authorization", "Bearer " + token)
+                .build();
+    }
+
+    private Footprint run(String name, String path, String token, int clients, int rampPerSecond, Duration hold) throws Exception {
+        int port = context.getWebServer().getPort();
+        byte[] request = ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nAuthorization: Bearer " + token
+                + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+        Footprint footprint = new Footprint(name);
+        List<SlowClient> open = new ArrayList<>(clients);
+        try {
+            // Clients connect at the ramp rate and every open one reads at most 512 bytes a
+            // second; the hold starts once all of them are connected
+            ByteBuffer buffer = ByteBuffer.allocate(512);
+            long deadline = Long.MAX_VALUE;
+            while (System.nanoTime() < deadline) {
+                for (int i = 0; i < rampPerSecond && open.size() < clients; i++) {
+                    SocketChannel channel = SocketChannel.open();
+                    channel.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+                    channel.connect(new InetSocketAddress("localhost", port));
+                    channel.write(ByteBuffer.wrap(request));
+                    channel.configureBlocking(false);
+                    open.add(new SlowClient(channel));
+                }
+                if (deadline == Long.MAX_VALUE && open.size() == clients) {
+                    deadline = System.nanoTime() + hold.toNanos();
+                }
+                for (SlowClient client : open) {
+                    buffer.clear();
+                    int read = client.channel.isOpen() ? client.channel.read(buffer) : -1;
+                    if (read > 0) {
+                        client.bytesRead += read;
+                        footprint.bytesRead += read;
+                    } else if (read < 0 && client.channel.isOpen()) {
+                        client.channel.close();
+                    }
+                }
+                footprint.sample(this);
+                Thread.sleep(1000);
+            }
+            footprint.clientsServed = (int) open.stream().filter(client -> client.bytesRead > 0).count();
+        } finally {
+            for (SlowClient client : open) {
+                client.channel.close();
+            }
+        }
+        awaitIdle();
+        return footprint;
+    }
+
+    // Until the server let go of the previous round's sockets, threads and connections
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(120).toNanos();
+        while ((tomcatExecutor().getActiveCount() > 0
+                || ((AbstractProtocol<?>) tomcat().getProtocolHandler()).getConnectionCount() > 1
+                || jdbcPool().getHikariPoolMXBean().getActiveConnections() > 0
+                || reactivePool().getMetrics().map(metrics -> metrics.pendingAcquireSize()).orElse(0) > 0)
+                && System.nanoTime() < deadline) {
+            Thread.sleep(200);
+        }
+    }
+
+    private ThreadPoolExecutor tomcatExecutor() {
+        return (ThreadPoolExecutor) tomcat().getProtocolHandler().getExecutor();
+    }
+
+    private Connector tomcat() {
+        return ((TomcatWebServer) context.getWebServer()).getTomcat().getConnector();
+    }
+
+    private ConnectionPool reactivePool() {
+        return (ConnectionPool) reactiveDatabaseClient.getConnectionFactory();
+    }
+
+    private HikariDataSource jdbcPool() {
+        try {
+            return dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class SlowClient {
+        private final SocketChannel channel;
+        private long bytesRead;
+
+        SlowClient(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    // Peaks include the connect burst; the "now" values are from the last sample, once clients only read
+    private static final class Footprint {
+        private final String name;
+        private int peakThreads;
+        private long peakTcpConnections;
+        private int peakBusyWorkers;
+        private int busyWorkers;
+        private int peakJdbcConnections;
+        private int jdbcConnections;
+        private int peakR2dbcConnections;
+        private int r2dbcConnections;
+        private int clientsServed;
+        private long bytesRead;
+
+        Footprint(String name) {
+            this.name = name;
+        }
+
+        void sample(SlowClientFootprintLoadTest test) {
+            peakThreads = Math.max(peakThreads, ManagementFactory.getThreadMXBean().getThreadCount());
+            peakTcpConnections = Math.max(peakTcpConnections,
+                    ((AbstractProtocol<?>) test.tomcat().getProtocolHandler()).getConnectionCount());
+            busyWorkers = test.tomcatExecutor().getActiveCount();
+            peakBusyWorkers = Math.max(peakBusyWorkers, busyWorkers);
+            jdbcConnections = test.jdbcPool().getHikariPoolMXBean().getActiveConnections();
+            peakJdbcConnections = Math.max(peakJdbcConnections, jdbcConnections);
+            r2dbcConnections = test.reactivePool().getMetrics()
+                    .map(metrics -> metrics.acquiredSize()).orElse(0);
+            peakR2dbcConnections = Math.max(peakR2dbcConnections, r2dbcConnections);
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
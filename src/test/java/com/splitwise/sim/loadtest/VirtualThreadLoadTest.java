@@ -0,0 +1,119 @@
+package com.splitwise.sim.loadtest;
+
+import com.splitwise.sim.SplitwiseSimApplication;
+import com.splitwise.sim.security.JwtTokenProvider;
+import com.splitwise.sim.workload.WorkloadGenerator;
+import com.splitwise.sim.workload.WorkloadSpec;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the HTTP load test twice against the same seeded database: once on Tomcat's platform
+ * worker pool and once in virtual-thread mode, then prints throughput and p99 side by side.
+ * Needs a Java 21 runtime:
+ * JAVA_HOME=/path/to/jdk-21 mvn -Pload-test test -Dtest=VirtualThreadLoadTest -Dloadtest.concurrency=256
+ * -Dloadtest.tomcat-threads=50 shrinks the platform pool to make queueing behind it visible.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @Test
+    void platformVersusVirtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21, "Virtual threads need Java 21");
+
+        WorkloadSpec spec = new WorkloadSpec(Long.getLong("loadtest.seed", 42L), WorkloadSpec.Mode.BULK, "vt",
+                Integer.getInteger("loadtest.dataset-users", 2_000), 10, 400, 2, 20, 2.2, 1.0,
+                Long.getLong("loadtest.dataset-expenses", 50_000L), 0.1, 0.7, 0.2, 0.1, 90, 10_000);
+
+        LoadTestReport platform;
+        try (ServletWebServerApplicationContext context = start(false)) {
+            context.getBean(WorkloadGenerator.class).generate(spec);
+            platform = run(context, spec);
+        }
+        LoadTestReport virtual;
+        try (ServletWebServerApplicationContext context = start(true)) {
+            virtual = run(context, spec);
+        }
+
+        System.out.printf("%-14s %12s %12s %12s %12s%n", "endpoint", "platform/s", "virtual/s", "platform p99", "virtual p99");
+        platform.endpoints().forEach((endpoint, stats) -> {
+            LoadTestReport.EndpointStats other = virtual.endpoints().get(endpoint);
+            System.out.printf("%-14s %12.1f %12.1f %12.2f %12.2f%n", endpoint,
+                    stats.throughputPerSecond(), other != null ? other.throughputPerSecond() : 0.0,
+                    stats.p99Ms(), other != null ? other.p99Ms() : 0.0);
+        });
+
+        assertTrue(platform.totalRequests() > 0 && virtual.totalRequests() > 0, "No requests were measured");
+    }
+
+    private ServletWebServerApplicationContext start(boolean virtualThreads) {
+        // As command line arguments, so they win over application.yml
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=" + POSTGRES.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.jpa.show-sql=false",
+                "--logging.level.com.splitwise.sim=WARN"));
+        String tomcatThreads = System.getProperty("loadtest.tomcat-threads");
+        if (tomcatThreads != null && !virtualThreads) {
+            args.add("--server.tomcat.threads.max=" + tomcatThreads);
+        }
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(SplitwiseSimApplication.class)
+                .profiles(virtualThreads ? new String[] {"virtual"} : new String[0])
+                .run(args.toArray(String[]::new));
+    }
+
+    private LoadTestReport run(ServletWebServerApplicationContext context, WorkloadSpec spec) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties(
+                "http://localhost:" + context.getWebServer().getPort());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        List<String> usernames = new ArrayList<>();
+        for (int i = 0; i < Math.min(settings.users(), spec.users()); i++) {
+            usernames.add(WorkloadGenerator.username(spec.usernamePrefix(), spec.seed(), i));
+        }
+        JwtTokenProvider jwtTokenProvider = context.getBean(JwtTokenProvider.class);
+        LoadTestFixture fixture = LoadTestFixture.discover(client, settings.baseUrl(), usernames,
+                WorkloadGenerator.PASSWORD, jwtTokenProvider::generateTokenFromUsername);
+
+        LoadTestReport report = new LoadTestHarness(settings, fixture, client).run();
+        Path results = report.writeJson();
+        System.out.println(report.summary());
+        System.out.println("Load test results written to " + results.toAbsolutePath());
+        return report;
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.splitwise.sim.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Statement-count assertions for tests that run against a real database, e.g.
+ * <pre>
+ * SqlStatementAssertions.assertMaxStatements(3, () -> groupService.calculateGroupBalance(groupId));
+ * </pre>
+ * Counting happens on the calling thread only.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static SqlStats capture(Runnable action) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            action.run();
+            return scope.stats();
+        }
+    }
+
+    public static SqlStats assertStatementCount(long expected, Runnable action) {
+        SqlStats stats = capture(action);
+        assertEquals(expected, stats.getStatements(), () -> "Unexpected statement count: " + stats);
+        return stats;
+    }
+
+    public static SqlStats assertSelectCount(long expected, Runnable action) {
+        SqlStats stats = capture(action);
+        assertEquals(expected, stats.getSelects(), () -> "Unexpected select count: " + stats);
+        return stats;
+    }
+
+    public static SqlStats assertMaxStatements(long max, Runnable action) {
+        SqlStats stats = capture(action);
+        assertTrue(stats.getStatements() <= max, () -> "Expected at most " + max + " statements: " + stats);
+        return stats;
+    }
+
+    public static SqlStats assertNoLazyLoads(Runnable action) {
+        SqlStats stats = capture(action);
+        assertEquals(0, stats.getCollectionLoads(), () -> "Lazy collection initialization: " + stats);
+        return stats;
+    }
+}
@@ -0,0 +1,62 @@
+package com.splitwise.sim.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementCounterTest {
+
+    private final SqlStatementCounter counter = new SqlStatementCounter();
+
+    @Test
+    void countsStatementsByKind() {
+        SqlStats stats = SqlStatementAssertions.assertStatementCount(5, () -> {
+            counter.inspect("select u1_0.id from users u1_0 where u1_0.id=?");
+            counter.inspect("  (select 1) union (select 2)");
+            counter.inspect("insert into expenses (amount) values (?)");
+            counter.inspect("update pair_balances set net_amount=? where id=?");
+            counter.inspect("delete from balance_checkpoints where id=?");
+        });
+
+        assertEquals(2, stats.getSelects());
+        assertEquals(1, stats.getInserts());
+        assertEquals(1, stats.getUpdates());
+        assertEquals(1, stats.getDeletes());
+    }
+
+    @Test
+    void ignoresStatementsOutsideAScope() {
+        counter.inspect("select 1");
+
+        SqlStats stats = SqlStatementAssertions.capture(() -> counter.inspect("select 2"));
+
+        assertEquals(1, stats.getStatements());
+    }
+
+    @Test
+    void nestedScopeAddsToEnclosingScope() {
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.open()) {
+            counter.inspect("select 1");
+            SqlStats inner = SqlStatementAssertions.assertSelectCount(2, () -> {
+                counter.inspect("select 2");
+                counter.inspect("select 3");
+            });
+            counter.onPostLoad(null);
+
+            assertEquals(2, inner.getStatements());
+            assertEquals(3, outer.stats().getStatements());
+            assertEquals(1, outer.stats().getEntityLoads());
+        }
+    }
+
+    @Test
+    void assertionsReportTheCounts() {
+        AssertionError error = assertThrows(AssertionError.class, () ->
+                SqlStatementAssertions.assertMaxStatements(1, () -> {
+                    counter.inspect("select 1");
+                    counter.inspect("select 2");
+                }));
+
+        assertTrue(error.getMessage().contains("2 statements (2 select"), error.getMessage());
+    }
+}
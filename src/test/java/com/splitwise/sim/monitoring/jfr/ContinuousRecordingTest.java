@@ -0,0 +1,73 @@
+package com.splitwise.sim.monitoring.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContinuousRecordingTest {
+
+    @TempDir
+    Path dumpDirectory;
+
+    private ContinuousRecording recording;
+
+    @AfterEach
+    void stop() {
+        if (recording != null) {
+            recording.stop();
+        }
+    }
+
+    @Test
+    void dumpContainsApplicationEvents() throws Exception {
+        recording = new ContinuousRecording("default", Duration.ofMinutes(5), DataSize.ofMegabytes(20), dumpDirectory);
+        recording.start();
+
+        LedgerWriteEvent event = new LedgerWriteEvent();
+        event.begin();
+        event.groupId = 42;
+        event.participants = 2;
+        event.rows = 3;
+        event.commit();
+
+        Path file = recording.dump();
+
+        assertEquals(dumpDirectory, file.getParent());
+        List<RecordedEvent> ledgerWrites = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.splitwise.LedgerWrite"))
+                .toList();
+        assertEquals(1, ledgerWrites.size());
+        assertEquals(42, ledgerWrites.get(0).getLong("groupId"));
+        assertEquals(3, ledgerWrites.get(0).getLong("rows"));
+    }
+
+    @Test
+    void dumpLeavesOutEnvironmentAndSystemProperties() throws Exception {
+        recording = new ContinuousRecording("default", Duration.ofMinutes(5), DataSize.ofMegabytes(20), dumpDirectory);
+        recording.start();
+
+        List<String> leaked = RecordingFile.readAllEvents(recording.dump()).stream()
+                .map(e -> e.getEventType().getName())
+                .filter(ContinuousRecording.SENSITIVE_EVENTS::contains)
+                .toList();
+        assertEquals(List.of(), leaked);
+    }
+
+    @Test
+    void dumpFailsOnceStopped() {
+        recording = new ContinuousRecording("default", Duration.ofMinutes(5), DataSize.ofMegabytes(20), dumpDirectory);
+        recording.start();
+        recording.stop();
+
+        assertThrows(IllegalStateException.class, recording::dump);
+    }
+}
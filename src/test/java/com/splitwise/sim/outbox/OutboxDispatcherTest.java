@@ -0,0 +1,198 @@
+package com.splitwise.sim.outbox;
+
+import com.splitwise.sim.entity.OutboxEvent;
+import com.splitwise.sim.repository.OutboxEventRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives deliverGroup directly against its own database; the scheduled poll is pushed out so
+ * it does not deliver behind the test's back.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.splitwise.sim=WARN",
+        "app.outbox.poll-interval=PT1H",
+        "app.outbox.retry-backoff=PT1M"
+})
+class OutboxDispatcherTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final String TEST_EVENT = "TEST_EVENT";
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private RecordingHandler handler;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        POSTGRES.close();
+    }
+
+    @TestConfiguration
+    static class Handlers {
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+
+    @Test
+    void groupEventsAreDeliveredInIdOrder() {
+        List<Long> ids = List.of(write(101L), write(101L), write(101L), write(101L));
+
+        assertEquals(4, dispatcher.deliverGroup(101L));
+
+        assertEquals(ids, handler.delivered(101L));
+        for (Long id : ids) {
+            OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+            assertNotNull(event.getPublishedAt());
+            assertNull(event.getClaimedUntil());
+        }
+        assertEquals(0, dispatcher.deliverGroup(101L));
+    }
+
+    @Test
+    void failingEventHoldsBackOnlyItsOwnGroup() {
+        Long first = write(201L);
+        Long failing = write(201L);
+        Long waiting = write(201L);
+        List<Long> otherGroup = List.of(write(202L), write(202L));
+        handler.failing.add(failing);
+
+        assertEquals(1, dispatcher.deliverGroup(201L));
+        assertEquals(2, dispatcher.deliverGroup(202L));
+
+        assertEquals(List.of(first), handler.delivered(201L));
+        assertEquals(otherGroup, handler.delivered(202L));
+        OutboxEvent failed = outboxEventRepository.findById(failing).orElseThrow();
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now()), "No backoff after the failure");
+        assertTrue(failed.getLastError().contains("Downstream unavailable"));
+        assertNull(outboxEventRepository.findById(waiting).orElseThrow().getClaimedUntil(), "Claim not released");
+
+        // Still backing off: the later event waits as well
+        assertEquals(0, dispatcher.deliverGroup(201L));
+
+        handler.failing.remove(failing);
+        failed.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(failed);
+        assertEquals(2, dispatcher.deliverGroup(201L));
+        assertEquals(List.of(first, failing, waiting), handler.delivered(201L));
+    }
+
+    @Test
+    void claimLeftByACrashedWorkerIsTakenOverOnceExpired() {
+        Long id = write(301L);
+        OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+        event.setClaimedUntil(LocalDateTime.now().plusMinutes(5));
+        outboxEventRepository.save(event);
+
+        assertFalse(outboxEventRepository.findGroupsWithDueEvents(LocalDateTime.now(), 1000).contains(301L));
+        assertEquals(0, dispatcher.deliverGroup(301L));
+        assertEquals(List.of(), handler.delivered(301L));
+
+        event.setClaimedUntil(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(event);
+
+        assertTrue(outboxEventRepository.findGroupsWithDueEvents(LocalDateTime.now(), 1000).contains(301L));
+        assertEquals(1, dispatcher.deliverGroup(301L));
+        assertEquals(List.of(id), handler.delivered(301L));
+        assertNull(outboxEventRepository.findById(id).orElseThrow().getClaimedUntil());
+    }
+
+    @Test
+    void deliveredEventsAreRemovedAfterRetention() {
+        Long old = write(401L);
+        Long recent = write(401L);
+        Long pending = write(401L);
+        markPublished(old, LocalDateTime.now().minusDays(8));
+        markPublished(recent, LocalDateTime.now().minusDays(1));
+
+        dispatcher.deleteDelivered();
+
+        assertFalse(outboxEventRepository.existsById(old));
+        assertTrue(outboxEventRepository.existsById(recent));
+        assertTrue(outboxEventRepository.existsById(pending));
+    }
+
+    private Long write(Long groupId) {
+        LocalDateTime now = LocalDateTime.now();
+        return outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(TEST_EVENT)
+                .groupId(groupId)
+                .payload("{}")
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build()).getId();
+    }
+
+    private void markPublished(Long id, LocalDateTime publishedAt) {
+        OutboxEvent event = outboxEventRepository.findById(id).orElseThrow();
+        event.setPublishedAt(publishedAt);
+        outboxEventRepository.save(event);
+    }
+
+    /**
+     * Records deliveries per group and fails the events listed in failing
+     */
+    static class RecordingHandler implements OutboxEventHandler {
+        private final Map<Long, List<Long>> delivered = new ConcurrentHashMap<>();
+        private final Set<Long> failing = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public Set<String> eventTypes() {
+            return Set.of(TEST_EVENT);
+        }
+
+        @Override
+        public void handle(OutboxEvent event) {
+            if (failing.contains(event.getId())) {
+                throw new IllegalStateException("Downstream unavailable");
+            }
+            delivered.computeIfAbsent(event.getGroupId(), groupId -> new CopyOnWriteArrayList<>()).add(event.getId());
+        }
+
+        List<Long> delivered(Long groupId) {
+            return List.copyOf(delivered.getOrDefault(groupId, List.of()));
+        }
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.dto.analytics.ConsolidatedDebtsResponse;
+import com.splitwise.sim.dto.analytics.GroupDebtDto;
+import com.splitwise.sim.entity.User;
+import com.splitwise.sim.repository.UserRepository;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fixture: a, b and c share one group, a, c and d another.
+ * a pays 90 split by a, b, c; c pays 60 split by a, c, d.
+ * Net over both groups: a +40, b -30, c +10, d -20.
+ */
+class AnalyticsServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long a;
+    private Long b;
+    private Long c;
+    private Long d;
+
+    @BeforeEach
+    void createFixture() {
+        List<Long> users = signup("debts", 4);
+        a = users.get(0);
+        b = users.get(1);
+        c = users.get(2);
+        d = users.get(3);
+        Long dinner = createGroup(List.of(a, b, c));
+        Long trip = createGroup(List.of(c, a, d));
+        addExpense(dinner, a, "90.00", List.of(a, b, c));
+        addExpense(trip, c, "60.00", List.of(a, c, d));
+    }
+
+    @Test
+    void pairwiseNetsEachCounterpartyAcrossGroups() {
+        ConsolidatedDebtsResponse forA = analyticsService.getConsolidatedDebts(a, false);
+        assertEquals(Set.of(edge(b, a, 30), edge(c, a, 10)), edges(forA));
+        assertMoney("0.00", forA.getTotalYouOwe());
+        assertMoney("40.00", forA.getTotalOwedToYou());
+
+        ConsolidatedDebtsResponse forC = analyticsService.getConsolidatedDebts(c, false);
+        assertEquals(Set.of(edge(c, a, 10), edge(d, c, 20)), edges(forC));
+        assertMoney("10.00", forC.getTotalYouOwe());
+        assertMoney("20.00", forC.getTotalOwedToYou());
+    }
+
+    @Test
+    void simplifiedRoutesDebtThroughTheNetBalancesOfTheUsersGroups() {
+        // Largest first: b pays a 30, d pays a 10 and c 10
+        ConsolidatedDebtsResponse forA = analyticsService.getConsolidatedDebts(a, true);
+        assertEquals(Set.of(edge(b, a, 30), edge(d, a, 10)), edges(forA));
+        assertMoney("40.00", forA.getTotalOwedToYou());
+
+        ConsolidatedDebtsResponse forC = analyticsService.getConsolidatedDebts(c, true);
+        assertEquals(Set.of(edge(d, c, 10)), edges(forC));
+        assertMoney("0.00", forC.getTotalYouOwe());
+        assertMoney("10.00", forC.getTotalOwedToYou());
+    }
+
+    @Test
+    void simplifiedOnlyLooksAtTheUsersOwnGroups() {
+        // b is only in the first group: a +60, b -30, c -30
+        assertEquals(Set.of(edge(b, a, 30)), edges(analyticsService.getConsolidatedDebts(b, true)));
+
+        // d is only in the second group: c +40, a -20, d -20
+        ConsolidatedDebtsResponse forD = analyticsService.getConsolidatedDebts(d, true);
+        assertEquals(Set.of(edge(d, c, 20)), edges(forD));
+        assertMoney("20.00", forD.getTotalYouOwe());
+    }
+
+    private Set<String> edges(ConsolidatedDebtsResponse response) {
+        return response.getDebts().stream()
+                .map(debt -> debt.getDebtorUsername() + "->" + debt.getCreditorUsername() + ":" + debt.getAmount())
+                .collect(Collectors.toSet());
+    }
+
+    private String edge(Long debtorId, Long creditorId, double amount) {
+        return username(debtorId) + "->" + username(creditorId) + ":" + amount;
+    }
+
+    private String username(Long userId) {
+        return userRepository.findById(userId).map(User::getUsername).orElseThrow();
+    }
+
+    private static void assertMoney(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
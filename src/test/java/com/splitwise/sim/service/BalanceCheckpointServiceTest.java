@@ -0,0 +1,122 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.repository.WalletTransactionRepository;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceCheckpointServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    @Autowired
+    private WalletTransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    void checkpointPlusDeltaMatchesFullLedgerSum() {
+        List<Long> users = signup("checkpoint", 3);
+        Long groupId = createGroup(users);
+
+        addExpense(groupId, users.get(0), "90.00", users);
+        backDate(users, now.minusDays(10));
+        addExpense(groupId, users.get(1), "50.00", users);
+        backDate(users, now.minusDays(3));
+
+        checkpointService.writeCheckpoints(now.minusDays(5));
+        addExpense(groupId, users.get(2), "10.01", users);
+
+        for (Long userId : users) {
+            assertEquals(1, walletCheckpoints(userId).size());
+            for (LocalDateTime asOf : List.of(now.minusDays(7), now.minusDays(5), now.minusDays(4), now.plusMinutes(1))) {
+                assertEquals(fullSum(userId, asOf), checkpointService.walletBalanceAsOf(userId, asOf),
+                        "user " + userId + " as of " + asOf);
+            }
+        }
+    }
+
+    @Test
+    void backDatedRowsBeforeACheckpointAreCounted() {
+        List<Long> users = signup("backdated", 2);
+        Long groupId = createGroup(users);
+
+        addExpense(groupId, users.get(0), "40.00", users);
+        backDate(users, now.minusDays(6));
+        checkpointService.writeCheckpoints(now.minusDays(2));
+
+        Iterator<BulkLoadService.SettlementLoadRow> settlement = List.of(new BulkLoadService.SettlementLoadRow(
+                users.get(1), users.get(0), groupId, new BigDecimal("15.00"), "Cash", now.minusDays(4))).iterator();
+        bulkLoadService.loadSettlements(settlement);
+
+        for (Long userId : users) {
+            for (LocalDateTime asOf : List.of(now.minusDays(5), now.minusDays(3), now.minusDays(1), now.plusMinutes(1))) {
+                assertEquals(fullSum(userId, asOf), checkpointService.walletBalanceAsOf(userId, asOf),
+                        "user " + userId + " as of " + asOf);
+            }
+        }
+    }
+
+    @Test
+    void walletBalanceHasTheSameScaleWithAndWithoutCheckpoint() {
+        Long userId = signup("scale");
+
+        BigDecimal withoutCheckpoint = checkpointService.walletBalanceAsOf(userId, now.plusMinutes(1));
+        checkpointService.writeCheckpoints(now.minusSeconds(30));
+        BigDecimal withCheckpoint = checkpointService.walletBalanceAsOf(userId, now.plusMinutes(1));
+
+        assertEquals(2, withoutCheckpoint.scale());
+        assertEquals(withoutCheckpoint, withCheckpoint);
+    }
+
+    @Test
+    void prunesSupersededCheckpointsPastRetention() {
+        Long userId = signup("prune");
+
+        checkpointService.writeCheckpoints(now.minusDays(300));
+        checkpointService.writeCheckpoints(now.minusDays(200));
+        // The older one is past retention and replaced; the latest stays however old it is
+        assertEquals(List.of(now.minusDays(200)), walletCheckpoints(userId));
+
+        checkpointService.writeCheckpoints(now.minusDays(60));
+        checkpointService.writeCheckpoints(now.minusHours(10));
+        assertEquals(List.of(now.minusDays(60), now.minusHours(10)), walletCheckpoints(userId));
+    }
+
+    private BigDecimal fullSum(Long userId, LocalDateTime asOf) {
+        BigDecimal sum = transactionRepository.calculateBalanceUpTo(userId, asOf);
+        return (sum != null ? sum : BigDecimal.ZERO).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    // Moves the users' ledger rows that are not back-dated yet to the given time
+    private void backDate(List<Long> userIds, LocalDateTime createdAt) {
+        for (Long userId : userIds) {
+            jdbcTemplate.update("UPDATE wallet_transactions SET created_at = ? WHERE user_id = ? AND created_at > ?",
+                    Timestamp.valueOf(createdAt), userId, Timestamp.valueOf(now.minusMinutes(1)));
+        }
+    }
+
+    private List<LocalDateTime> walletCheckpoints(Long userId) {
+        return jdbcTemplate.queryForList("SELECT checkpoint_at FROM balance_checkpoints " +
+                        "WHERE user_id = ? AND group_id IS NULL ORDER BY checkpoint_at", Timestamp.class, userId)
+                .stream().map(Timestamp::toLocalDateTime).toList();
+    }
+}
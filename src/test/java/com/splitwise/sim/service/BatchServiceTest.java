@@ -0,0 +1,177 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.dto.batch.BatchOperation;
+import com.splitwise.sim.dto.batch.BatchOperation.Type;
+import com.splitwise.sim.dto.batch.BatchRequest;
+import com.splitwise.sim.dto.batch.BatchResponse;
+import com.splitwise.sim.dto.batch.BatchResponse.OperationResult;
+import com.splitwise.sim.dto.settlement.SettlementRequest;
+import com.splitwise.sim.entity.Group;
+import com.splitwise.sim.repository.ExpenseRepository;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private BatchService batchService;
+
+    @Autowired
+    private SettlementService settlementService;
+
+    @Autowired
+    private FriendService friendService;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void eachOperationCommitsOrFailsOnItsOwn() {
+        List<Long> users = signup("each", 3);
+        Long groupId = createGroup(users);
+
+        BatchResponse response = batchService.execute(new BatchRequest(false, List.of(
+                createExpense(groupId, "90.00", users),
+                delete(Long.MAX_VALUE),
+                new BatchOperation(Type.CREATE_EXPENSE, null, null, null, null),
+                addFriend(users.get(1)))), users.get(0));
+
+        assertFalse(response.getAtomic());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        List<OperationResult> results = response.getResults();
+        assertEquals(List.of(201, 404, 400, 200), results.stream().map(OperationResult::getStatus).toList());
+        assertNotNull(results.get(0).getBody());
+        assertNull(results.get(0).getError());
+        assertEquals("expense is required for this operation", results.get(2).getError());
+        assertEquals(1, expenseRepository.findByGroupId(groupId).size());
+        assertEquals(1, friendService.countFriends(users.get(1)));
+    }
+
+    @Test
+    void atomicBatchRollsBackAtTheFirstFailure() {
+        List<Long> users = signup("atomic", 3);
+        Long groupId = createGroup(users);
+
+        BatchResponse response = batchService.execute(new BatchRequest(true, List.of(
+                createExpense(groupId, "90.00", users),
+                settle(groupId, users.get(0), "10.00"),
+                delete(Long.MAX_VALUE),
+                createExpense(groupId, "30.00", users))), users.get(1));
+
+        assertTrue(response.getAtomic());
+        assertEquals(0, response.getSucceeded());
+        assertEquals(4, response.getFailed());
+        List<OperationResult> results = response.getResults();
+        assertEquals(List.of(424, 424, 404, 424), results.stream().map(OperationResult::getStatus).toList());
+        assertEquals("Rolled back, operation 2 failed", results.get(0).getError());
+        assertEquals("Rolled back, operation 2 failed", results.get(1).getError());
+        assertEquals("Not run, operation 2 failed", results.get(3).getError());
+        assertNothingWritten(groupId);
+    }
+
+    @Test
+    void atomicBatchCommitsTogether() {
+        List<Long> users = signup("together", 3);
+        Long groupId = createGroup(users);
+
+        BatchResponse response = batchService.execute(new BatchRequest(true, List.of(
+                createExpense(groupId, "90.00", users),
+                settle(groupId, users.get(0), "10.00"))), users.get(1));
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(List.of(201, 201), response.getResults().stream().map(OperationResult::getStatus).toList());
+        assertEquals(1, expenseRepository.findByGroupId(groupId).size());
+        assertEquals(1, settlements(groupId));
+    }
+
+    @Test
+    void conflictAtCommitFailsEveryOperation() {
+        List<Long> users = signup("commit", 3);
+        Long groupId = createGroup(users);
+        BatchService conflicting = new BatchService(expenseSplitService, settlementService, friendService,
+                expenseRepository, new ConflictAtCommit(transactionManager));
+        ReflectionTestUtils.setField(conflicting, "maxOperations", 100);
+
+        BatchResponse response = conflicting.execute(new BatchRequest(true, List.of(
+                createExpense(groupId, "90.00", users),
+                settle(groupId, users.get(0), "10.00"))), users.get(1));
+
+        assertEquals(0, response.getSucceeded());
+        for (OperationResult result : response.getResults()) {
+            assertEquals(409, result.getStatus());
+            assertEquals("The group was changed concurrently, please retry", result.getError());
+        }
+        assertNothingWritten(groupId);
+    }
+
+    private void assertNothingWritten(Long groupId) {
+        assertTrue(expenseRepository.findByGroupId(groupId).isEmpty());
+        assertEquals(0, settlements(groupId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_transactions WHERE group_id = ?",
+                Integer.class, groupId));
+    }
+
+    private int settlements(Long groupId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM settlements WHERE group_id = ?",
+                Integer.class, groupId);
+    }
+
+    private BatchOperation createExpense(Long groupId, String amount, List<Long> participantIds) {
+        return new BatchOperation(Type.CREATE_EXPENSE, null, equalSplit(groupId, amount, participantIds), null, null);
+    }
+
+    private static BatchOperation delete(Long expenseId) {
+        return new BatchOperation(Type.DELETE_EXPENSE, expenseId, null, null, null);
+    }
+
+    private static BatchOperation settle(Long groupId, Long creditorId, String amount) {
+        return new BatchOperation(Type.SETTLE_UP, null, null,
+                new SettlementRequest(creditorId, groupId, new BigDecimal(amount), "Cash"), null);
+    }
+
+    private static BatchOperation addFriend(Long friendId) {
+        return new BatchOperation(Type.ADD_FRIEND, null, null, null, friendId);
+    }
+
+    /**
+     * Runs the batch, then fails its commit the way a version conflict found at flush does
+     */
+    private static final class ConflictAtCommit extends GroupWriteCoordinator {
+        private final TransactionTemplate transactionTemplate;
+
+        private ConflictAtCommit(PlatformTransactionManager transactionManager) {
+            super(transactionManager, 16, 1, Duration.ZERO);
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+        }
+
+        @Override
+        public <T> T execute(Collection<Long> groupIds, Supplier<T> write) {
+            transactionTemplate.executeWithoutResult(status -> {
+                write.get();
+                status.setRollbackOnly();
+            });
+            throw new ObjectOptimisticLockingFailureException(Group.class, groupIds.iterator().next());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.group.BalanceResponse;
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkLoadServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private PairBalanceService pairBalanceService;
+
+    @Autowired
+    private BalanceCheckpointService checkpointService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    void loadedExpensesMatchTheSameExpensesCreatedOneByOne() {
+        List<Long> created = signup("created", 3);
+        List<Long> loaded = signup("loaded", 3);
+        Long createdGroup = createGroup(created);
+        Long loadedGroup = createGroup(loaded);
+        long groupVersion = groupVersion(loadedGroup);
+        Map<Long, Long> userVersions = userVersions(loaded);
+
+        // Payers on both sides of each pair, and a payer outside the split
+        List<BulkLoadService.ExpenseLoadRow> rows = new ArrayList<>();
+        rows.add(expense(created, loaded, createdGroup, loadedGroup, 0, "90.00", List.of(0, 1, 2)));
+        rows.add(expense(created, loaded, createdGroup, loadedGroup, 2, "50.01", List.of(0, 1, 2)));
+        rows.add(expense(created, loaded, createdGroup, loadedGroup, 1, "30.00", List.of(0, 2)));
+        BulkLoadService.BulkLoadResult result = bulkLoadService.loadExpenses(rows.iterator());
+
+        assertEquals(3, result.expenses());
+        assertEquals(8, result.participants());
+        // The payer's own share is a participant without ledger rows: two rows per other share
+        assertEquals(12, result.ledgerRows());
+        assertEquals(0, pairBalanceService.reconcile(), "Pair balances drifted from the ledger");
+        assertSameBalances(created, loaded, createdGroup, loadedGroup);
+        assertEquals(groupVersion + 1, groupVersion(loadedGroup));
+        userVersions(loaded).forEach((userId, version) ->
+                assertEquals(userVersions.get(userId) + 1, version, "version of user " + userId));
+
+        // Later writes to the loaded group go through as usual
+        addExpense(createdGroup, created.get(1), "12.00", created);
+        addExpense(loadedGroup, loaded.get(1), "12.00", loaded);
+        assertEquals(0, pairBalanceService.reconcile());
+        assertSameBalances(created, loaded, createdGroup, loadedGroup);
+    }
+
+    @Test
+    void backDatedLoadDropsLaterCheckpointsOfWhatItTouches() {
+        List<Long> users = signup("backdated", 2);
+        Long groupId = createGroup(users);
+        Long untouched = signup("untouched");
+        addExpense(groupId, users.get(0), "40.00", users);
+        LocalDateTime earlier = now.minusDays(9).minusMinutes(13);
+        LocalDateTime later = now.minusDays(2).minusMinutes(13);
+        checkpointService.writeCheckpoints(earlier);
+        checkpointService.writeCheckpoints(later);
+
+        CreateExpenseRequest request = equalSplit(groupId, "20.00", users);
+        bulkLoadService.loadExpenses(List.of(loadRow(request, users.get(1), now.minusDays(4))).iterator());
+
+        for (Long userId : users) {
+            assertEquals(List.of(earlier), walletCheckpoints(userId));
+        }
+        assertEquals(List.of(earlier, later), walletCheckpoints(untouched));
+        assertEquals(0, groupCheckpointRows(groupId, later));
+        assertTrue(groupCheckpointRows(groupId, earlier) > 0);
+        // 20.00 owed for the first expense, less 10.00 for the loaded one
+        assertEquals(0, new BigDecimal("10.00").compareTo(
+                pairBalanceService.getBalanceWith(users.get(0), users.get(1)).getNetAmount()));
+    }
+
+    private BulkLoadService.ExpenseLoadRow expense(List<Long> created, List<Long> loaded, Long createdGroup,
+                                                   Long loadedGroup, int payer, String amount, List<Integer> participants) {
+        addExpense(createdGroup, created.get(payer), amount, participants.stream().map(created::get).toList());
+        CreateExpenseRequest request = equalSplit(loadedGroup, amount, participants.stream().map(loaded::get).toList());
+        return loadRow(request, loaded.get(payer), LocalDateTime.now());
+    }
+
+    private BulkLoadService.ExpenseLoadRow loadRow(CreateExpenseRequest request, Long payerId, LocalDateTime at) {
+        Expense expense = Expense.builder().description(request.getDescription()).splitType(Expense.SplitType.EQUAL).build();
+        List<BulkLoadService.Share> shares = new ArrayList<>();
+        expenseSplitService.calculateShares(Expense.SplitType.EQUAL, request).forEach((userId, share) ->
+                shares.add(new BulkLoadService.Share(userId, share,
+                        expenseSplitService.splitDescription(expense, request, userId))));
+        return new BulkLoadService.ExpenseLoadRow(request.getDescription(), request.getAmount(), payerId,
+                request.getGroupId(), Expense.SplitType.EQUAL, at, shares);
+    }
+
+    private void assertSameBalances(List<Long> created, List<Long> loaded, Long createdGroup, Long loadedGroup) {
+        Map<Long, Double> createdNets = groupNets(createdGroup);
+        Map<Long, Double> loadedNets = groupNets(loadedGroup);
+        for (int i = 0; i < created.size(); i++) {
+            assertEquals(ledgerService.getBalance(created.get(i)).getBalance(),
+                    ledgerService.getBalance(loaded.get(i)).getBalance(), "wallet of user " + i);
+            assertEquals(createdNets.get(created.get(i)), loadedNets.get(loaded.get(i)), "group net of user " + i);
+            for (int j = i + 1; j < created.size(); j++) {
+                assertEquals(pairBalanceService.getBalanceWith(created.get(i), created.get(j)).getNetAmount(),
+                        pairBalanceService.getBalanceWith(loaded.get(i), loaded.get(j)).getNetAmount(),
+                        "pair " + i + ", " + j);
+            }
+        }
+    }
+
+    private Map<Long, Double> groupNets(Long groupId) {
+        Map<Long, Double> nets = new HashMap<>();
+        for (BalanceResponse balance : groupService.calculateGroupBalance(groupId)) {
+            nets.put(balance.getUserId(), balance.getNetBalance());
+        }
+        return nets;
+    }
+
+    private long groupVersion(Long groupId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM groups WHERE id = ?", Long.class, groupId);
+    }
+
+    private Map<Long, Long> userVersions(List<Long> userIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Long userId : userIds) {
+            versions.put(userId, jdbcTemplate.queryForObject(
+                    "SELECT COALESCE(MAX(version), 0) FROM user_versions WHERE user_id = ?", Long.class, userId));
+        }
+        return versions;
+    }
+
+    private List<LocalDateTime> walletCheckpoints(Long userId) {
+        return jdbcTemplate.queryForList("SELECT checkpoint_at FROM balance_checkpoints " +
+                        "WHERE user_id = ? AND group_id IS NULL ORDER BY checkpoint_at", Timestamp.class, userId)
+                .stream().map(Timestamp::toLocalDateTime).toList();
+    }
+
+    private int groupCheckpointRows(Long groupId, LocalDateTime checkpointAt) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM balance_checkpoints WHERE group_id = ? AND checkpoint_at = ?",
+                Integer.class, groupId, Timestamp.valueOf(checkpointAt));
+    }
+}
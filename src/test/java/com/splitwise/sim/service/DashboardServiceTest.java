@@ -0,0 +1,89 @@
+package com.splitwise.sim.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DashboardService service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void latePartIsLeftOutWithoutHoldingUpTheOthers() {
+        service = newService(4, 10, Duration.ofMillis(200));
+        long deadline = System.nanoTime() + Duration.ofMillis(200).toNanos();
+        CompletableFuture<DashboardService.Part<String>> slow = service.submit(this::blockUntilReleased);
+        CompletableFuture<DashboardService.Part<String>> fast = service.submit(() -> "ok");
+
+        long started = System.nanoTime();
+        List<String> unavailable = new ArrayList<>();
+        assertNull(service.await("slow", slow, deadline, unavailable));
+        assertEquals("ok", service.await("fast", fast, deadline, unavailable));
+
+        assertEquals(List.of("slow"), unavailable);
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(2), "waited for the deadline only");
+        assertEquals(1, registry.counter("splitwise.dashboard.unavailable", "part", "slow", "reason", "timeout").count());
+    }
+
+    @Test
+    void failedPartIsLeftOut() {
+        service = newService(2, 10, Duration.ofSeconds(5));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        CompletableFuture<DashboardService.Part<String>> failing = service.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        List<String> unavailable = new ArrayList<>();
+        assertNull(service.await("failing", failing, deadline, unavailable));
+
+        assertEquals(List.of("failing"), unavailable);
+        assertEquals(1, registry.counter("splitwise.dashboard.unavailable", "part", "failing", "reason", "error").count());
+    }
+
+    @Test
+    void partsBeyondTheQueueAreRejectedRightAway() {
+        service = newService(1, 1, Duration.ofSeconds(5));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        service.submit(this::blockUntilReleased);
+        service.submit(this::blockUntilReleased);
+        CompletableFuture<DashboardService.Part<String>> rejected = service.submit(() -> "never runs");
+
+        List<String> unavailable = new ArrayList<>();
+        assertNull(service.await("rejected", rejected, deadline, unavailable));
+
+        assertEquals(List.of("rejected"), unavailable);
+        assertEquals(1, registry.counter("splitwise.dashboard.unavailable", "part", "rejected", "reason", "rejected").count());
+    }
+
+    private DashboardService newService(int workers, int queueCapacity, Duration partTimeout) {
+        return new DashboardService(null, null, null, null, registry, new MockEnvironment(),
+                workers, queueCapacity, partTimeout, 10);
+    }
+
+    private String blockUntilReleased() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "late";
+    }
+}
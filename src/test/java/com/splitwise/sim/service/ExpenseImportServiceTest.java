@@ -0,0 +1,192 @@
+package com.splitwise.sim.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.splitwise.sim.dto.expense.ImportResultResponse;
+import com.splitwise.sim.dto.expense.ImportResultResponse.RowError;
+import com.splitwise.sim.entity.Expense;
+import com.splitwise.sim.exception.InvalidRequestException;
+import com.splitwise.sim.monitoring.BusinessMetrics;
+import com.splitwise.sim.monitoring.SqlStatementAssertions;
+import com.splitwise.sim.monitoring.SqlStats;
+import com.splitwise.sim.repository.ExpenseRepository;
+import com.splitwise.sim.repository.GroupRepository;
+import com.splitwise.sim.repository.UserRepository;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseImportServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private BulkLoadService bulkLoadService;
+
+    @Autowired
+    private BusinessMetrics businessMetrics;
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private PairBalanceService pairBalanceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void badRowsAreReportedAndTheRestImported() throws IOException {
+        List<Long> users = signup("rows", 3);
+        Long groupId = createGroup(users);
+
+        ImportResultResponse result = importer(500, 100).importJson(json(
+                equalRow("Lunch", "30.00", groupId, users.get(0), users),
+                equalRow("Taxi", "-5.00", groupId, users.get(0), users),
+                "{\"description\":\"Hotel\",\"amount\":\"lots\",\"groupId\":" + groupId + "}",
+                equalRow("Museum", "12.00", groupId, users.get(0), List.of(users.get(0), Long.MAX_VALUE)),
+                "{\"description\":\"Boat\",\"amount\":10,\"groupId\":" + groupId + ",\"splitType\":\"RANDOM\"}",
+                equalRow("Dinner", "60.00", groupId, users.get(1), users)), users.get(0), false);
+
+        assertEquals(6, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(4, result.getFailed());
+        assertEquals(List.of(2, 3, 4, 5), result.getErrors().stream().map(RowError::getRow).toList());
+        assertEquals("Amount must be positive", result.getErrors().get(0).getMessage());
+        assertTrue(result.getErrors().get(1).getMessage().startsWith("Malformed row"));
+        assertEquals("Participant not found: " + Long.MAX_VALUE, result.getErrors().get(2).getMessage());
+        assertEquals("Invalid split type: RANDOM", result.getErrors().get(3).getMessage());
+        assertEquals(List.of("Dinner", "Lunch"), expenseRepository.findByGroupId(groupId).stream()
+                .map(Expense::getDescription).sorted().toList());
+        assertEquals(0, pairBalanceService.reconcile());
+    }
+
+    @Test
+    void referencedUsersAndGroupsAreLoadedWithAFixedNumberOfQueries() {
+        List<Long> few = signup("few", 2);
+        Long fewGroup = createGroup(few);
+        List<Long> many = signup("many", 12);
+        Long manyGroup = createGroup(many);
+        ExpenseImportService importer = importer(500, 100);
+
+        SqlStats small = SqlStatementAssertions.capture(() ->
+                importQuietly(importer, few.get(0), equalRow("Lunch", "10.00", fewGroup, few.get(0), few)));
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < many.size(); i++) {
+            List<Long> pair = List.of(many.get(i), many.get((i + 1) % many.size()));
+            rows.add(equalRow("Lunch " + i, "10.00", manyGroup, many.get(i), pair));
+        }
+        SqlStats large = SqlStatementAssertions.capture(() ->
+                importQuietly(importer, many.get(0), rows.toArray(String[]::new)));
+
+        assertEquals(small.getSelects(), large.getSelects(), () -> "Lookups grew with the rows: " + small + " vs " + large);
+        assertEquals(0, large.getCollectionLoads(), () -> "Lazy collection initialization: " + large);
+    }
+
+    @Test
+    void eachChunkCommitsOnItsOwn() throws IOException {
+        List<Long> users = signup("chunks", 2);
+        Long groupId = createGroup(users);
+        String tooLong = "x".repeat(300);
+
+        ImportResultResponse result = importer(2, 100).importJson(json(
+                equalRow("One", "10.00", groupId, users.get(0), users),
+                equalRow("Two", "10.00", groupId, users.get(0), users),
+                equalRow("Three", "10.00", groupId, users.get(0), users),
+                equalRow(tooLong, "10.00", groupId, users.get(0), users),
+                equalRow("Five", "10.00", groupId, users.get(1), users)), users.get(0), false);
+
+        // The second chunk fails on insert; the first and last are saved
+        assertEquals(3, result.getImported());
+        assertEquals(List.of(3, 4), result.getErrors().stream().map(RowError::getRow).toList());
+        assertTrue(result.getErrors().get(0).getMessage().startsWith("Not saved, batch failed"));
+        assertEquals(List.of("Five", "One", "Two"), expenseRepository.findByGroupId(groupId).stream()
+                .map(Expense::getDescription).sorted().toList());
+        assertEquals(0, pairBalanceService.reconcile());
+    }
+
+    @Test
+    void chunkInsertsAreBatched() {
+        List<Long> users = signup("batched", 2);
+        Long groupId = createGroup(users);
+        String[] rows = new String[40];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = equalRow("Coffee " + i, "4.00", groupId, users.get(i % 2), users);
+        }
+
+        SqlStats stats = SqlStatementAssertions.capture(() -> importQuietly(importer(500, 100), users.get(0), rows));
+
+        assertEquals(40, expenseRepository.findByGroupId(groupId).size());
+        // Expenses, participants and ledger rows go out as JDBC batches, not one insert per row
+        assertTrue(stats.getInserts() < 20, () -> "Inserts not batched: " + stats);
+    }
+
+    @Test
+    void rowsBeyondMaxRowsRejectTheWholeImport() {
+        List<Long> users = signup("limit", 2);
+        Long groupId = createGroup(users);
+        String[] rows = new String[4];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = equalRow("Snack " + i, "2.00", groupId, users.get(0), users);
+        }
+
+        InvalidRequestException e = assertThrows(InvalidRequestException.class,
+                () -> importer(500, 3).importJson(json(rows), users.get(0), false));
+
+        assertEquals("Import is limited to 3 rows", e.getMessage());
+        assertTrue(expenseRepository.findByGroupId(groupId).isEmpty());
+    }
+
+    private ExpenseImportService importer(int chunkSize, int maxRows) {
+        ExpenseImportService importer = new ExpenseImportService(expenseSplitService, ledgerService, bulkLoadService,
+                businessMetrics, expenseRepository, userRepository, groupRepository, objectMapper, validator,
+                transactionTemplate);
+        ReflectionTestUtils.setField(importer, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(importer, "maxRows", maxRows);
+        return importer;
+    }
+
+    private static void importQuietly(ExpenseImportService importer, Long userId, String... rows) {
+        try {
+            ImportResultResponse result = importer.importJson(json(rows), userId, false);
+            assertEquals(List.of(), result.getErrors());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ByteArrayInputStream json(String... rows) {
+        return new ByteArrayInputStream(("[" + String.join(",", rows) + "]").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String equalRow(String description, String amount, Long groupId, Long payerId, List<Long> participantIds) {
+        return "{\"description\":\"" + description + "\",\"amount\":" + amount + ",\"groupId\":" + groupId +
+                ",\"splitType\":\"EQUAL\",\"paidByUserId\":" + payerId + ",\"participantIds\":[" +
+                participantIds.stream().map(String::valueOf).collect(Collectors.joining(",")) + "]}";
+    }
+}
@@ -0,0 +1,107 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.exception.ResourceNotFoundException;
+import com.splitwise.sim.repository.ExpenseRepository;
+import com.splitwise.sim.repository.WalletTransactionRepository;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpenseSplitServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Autowired
+    private WalletTransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void amountChangeAdjustsEveryShare() {
+        List<Long> users = signup("amount", 3);
+        Long groupId = createGroup(users);
+        Long expenseId = addExpense(groupId, users.get(0), "90.00", users);
+
+        expenseSplitService.updateExpense(expenseId, equalSplit(groupId, "120.00", users), users.get(0));
+
+        assertEquals(Map.of(users.get(0), money("80.00"), users.get(1), money("-40.00"), users.get(2), money("-40.00")),
+                groupNets(groupId));
+        // Two split pairs plus one compensating pair per changed share
+        assertEquals(8, ledgerRows(expenseId));
+    }
+
+    @Test
+    void participantChangeMovesTheShare() {
+        List<Long> users = signup("participants", 3);
+        Long groupId = createGroup(users);
+        Long expenseId = addExpense(groupId, users.get(0), "90.00", users);
+
+        expenseSplitService.updateExpense(expenseId,
+                equalSplit(groupId, "90.00", List.of(users.get(0), users.get(1))), users.get(0));
+
+        assertEquals(Map.of(users.get(0), money("45.00"), users.get(1), money("-45.00"), users.get(2), money("0.00")),
+                groupNets(groupId));
+        assertEquals(8, ledgerRows(expenseId));
+    }
+
+    @Test
+    void deleteReversesWhatIsOwed() {
+        List<Long> users = signup("delete", 3);
+        Long groupId = createGroup(users);
+        Long expenseId = addExpense(groupId, users.get(0), "90.00", users);
+        expenseSplitService.updateExpense(expenseId, equalSplit(groupId, "60.00", users), users.get(0));
+
+        expenseSplitService.deleteExpense(expenseId, users.get(0));
+
+        groupNets(groupId).values().forEach(net -> assertEquals(0, net.signum()));
+        assertTrue(expenseRepository.findByIdAndDeletedAtIsNull(expenseId).isEmpty());
+        assertThrows(ResourceNotFoundException.class, () -> expenseSplitService.deleteExpense(expenseId, users.get(0)));
+    }
+
+    @Test
+    void secondEditOnlyWritesTheDifferenceFromTheFirst() {
+        List<Long> users = signup("second", 3);
+        Long groupId = createGroup(users);
+        Long expenseId = addExpense(groupId, users.get(0), "90.00", users);
+
+        expenseSplitService.updateExpense(expenseId, equalSplit(groupId, "120.00", users), users.get(0));
+        int afterFirstEdit = ledgerRows(expenseId);
+        expenseSplitService.updateExpense(expenseId, equalSplit(groupId, "120.00", users), users.get(0));
+        assertEquals(afterFirstEdit, ledgerRows(expenseId));
+
+        expenseSplitService.updateExpense(expenseId,
+                equalSplit(groupId, "60.00", List.of(users.get(0), users.get(2))), users.get(0));
+
+        assertEquals(Map.of(users.get(0), money("30.00"), users.get(1), money("0.00"), users.get(2), money("-30.00")),
+                groupNets(groupId));
+        assertEquals(afterFirstEdit + 4, ledgerRows(expenseId));
+    }
+
+    private Map<Long, BigDecimal> groupNets(Long groupId) {
+        Map<Long, BigDecimal> nets = new HashMap<>();
+        for (Object[] row : transactionRepository.sumNetByGroupUpTo(groupId, LocalDateTime.now().plusMinutes(1))) {
+            nets.put((Long) row[0], ((BigDecimal) row[1]).setScale(2));
+        }
+        return nets;
+    }
+
+    private int ledgerRows(Long expenseId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wallet_transactions WHERE expense_id = ?",
+                Integer.class, expenseId);
+    }
+
+    private static BigDecimal money(String amount) {
+        return new BigDecimal(amount);
+    }
+}
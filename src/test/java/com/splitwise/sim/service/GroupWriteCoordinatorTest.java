@@ -0,0 +1,133 @@
+package com.splitwise.sim.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupWriteCoordinatorTest {
+
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private final GroupWriteCoordinator coordinator =
+            new GroupWriteCoordinator(transactionManager, 16, 3, Duration.ZERO);
+
+    @Test
+    void retriesConflictsInANewTransaction() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = coordinator.execute(1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale group");
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, transactionManager.rollbacks.get());
+        assertEquals(1, transactionManager.commits.get());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(OptimisticLockingFailureException.class, () -> coordinator.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale group");
+        }));
+        assertEquals(3, attempts.get());
+
+        attempts.set(0);
+        assertThrows(IllegalStateException.class, () -> coordinator.execute(1L, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not a conflict");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void writersOfTheSameGroupTakeTurns() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 64; i++) {
+                writes.add(executor.submit(() -> coordinator.execute(7L, () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    return inside.decrementAndGet();
+                })));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, maxInside.get());
+        assertEquals(64, transactionManager.commits.get());
+    }
+
+    @Test
+    void writesSpanningGroupsLockEveryGroupWithoutDeadlock() throws Exception {
+        AtomicInteger insideGroup2 = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        List<List<Long>> groupSets = List.of(List.of(1L, 2L), List.of(2L, 1L), List.of(2L));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < 96; i++) {
+                List<Long> groupIds = groupSets.get(i % groupSets.size());
+                writes.add(executor.submit(() -> coordinator.execute(groupIds, () -> {
+                    maxInside.accumulateAndGet(insideGroup2.incrementAndGet(), Math::max);
+                    Thread.yield();
+                    return insideGroup2.decrementAndGet();
+                })));
+            }
+            for (Future<?> write : writes) {
+                write.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, maxInside.get());
+        assertEquals(96, transactionManager.commits.get());
+    }
+
+    private static final class CountingTransactionManager implements PlatformTransactionManager {
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
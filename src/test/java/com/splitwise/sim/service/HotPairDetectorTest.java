@@ -0,0 +1,101 @@
+package com.splitwise.sim.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotPairDetectorTest {
+
+    private final HotPairDetector detector =
+            new HotPairDetector(8, 3, Duration.ofMinutes(1), Duration.ofMinutes(10));
+
+    @Test
+    void pairStaysOnStripeZeroUntilItCrossesTheThreshold() {
+        assertEquals(0, detector.stripeFor(1, 2));
+        assertEquals(0, detector.stripeFor(1, 2));
+        assertEquals(0, detector.hotPairCount());
+
+        int stripe = detector.stripeFor(1, 2);
+
+        assertEquals(1, detector.hotPairCount());
+        assertTrue(stripe >= 0 && stripe < 8);
+        assertEquals(0, detector.stripeFor(1, 3), "other pairs are not affected");
+    }
+
+    @Test
+    void oneTransactionKeepsToOneStripeOfAPair() {
+        for (int i = 0; i < 3; i++) {
+            detector.stripeFor(1, 2);
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            int stripe = detector.stripeFor(1, 2);
+            for (int i = 0; i < 20; i++) {
+                assertEquals(stripe, detector.stripeFor(1, 2));
+            }
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertFalse(TransactionSynchronizationManager.hasResource(detector));
+    }
+
+    @Test
+    void expiredPairsAreSweptWhenTheWindowRolls() throws Exception {
+        HotPairDetector shortLived = new HotPairDetector(8, 3, Duration.ofMillis(1), Duration.ofMillis(1));
+        for (int i = 0; i < 3; i++) {
+            shortLived.stripeFor(1, 2);
+        }
+        assertEquals(1, shortLived.hotPairCount());
+
+        Thread.sleep(5);
+        shortLived.stripeFor(3, 4);
+
+        assertEquals(0, shortLived.hotPairCount());
+    }
+
+    @Test
+    void concurrentWritersSpreadOverStripes() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            detector.stripeFor(1, 2);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            Set<Integer> stripes = new HashSet<>();
+            for (int i = 0; i < 16; i++) {
+                Future<Integer> stripe = executor.submit(() -> detector.stripeFor(1, 2));
+                stripes.add(stripe.get());
+            }
+            assertTrue(stripes.size() > 1, "stripes used: " + stripes);
+            assertTrue(stripes.stream().allMatch(s -> s >= 0 && s < 8));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void disablingSendsEverythingBackToStripeZero() {
+        for (int i = 0; i < 3; i++) {
+            detector.stripeFor(1, 2);
+        }
+
+        detector.setEnabled(false);
+
+        assertEquals(0, detector.hotPairCount());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, detector.stripeFor(1, 2));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.splitwise.sim.service;
+
+import com.splitwise.sim.dto.balance.PairBalanceResponse;
+import com.splitwise.sim.entity.PairBalance;
+import com.splitwise.sim.repository.PairBalanceRepository;
+import com.splitwise.sim.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PairBalanceServiceTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private PairBalanceService pairBalanceService;
+
+    @Autowired
+    private PairBalanceRepository pairBalanceRepository;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void positiveNetMeansTheHigherUserOwesTheLower() {
+        List<Long> users = signup("sign", 2);
+        Long low = users.get(0);
+        Long high = users.get(1);
+
+        pairBalanceService.recordTransfer(high, low, new BigDecimal("10.00"));
+        assertMoney("10.00", storedNet(low, high));
+        pairBalanceService.recordTransfer(low, high, new BigDecimal("4.00"));
+        assertMoney("6.00", storedNet(low, high));
+
+        // Seen from either side: positive = the counterparty owes me
+        assertMoney("6.00", pairBalanceService.getBalanceWith(low, high).getNetAmount());
+        assertMoney("-6.00", pairBalanceService.getBalanceWith(high, low).getNetAmount());
+    }
+
+    @Test
+    void batchedTransfersFoldBothDirectionsIntoOneUpsertPerPair() {
+        List<Long> users = signup("batch", 3);
+        ledgerService.recordDoubleEntries(List.of(
+                transfer(users.get(2), users.get(0), "10.00"),
+                transfer(users.get(0), users.get(2), "4.00"),
+                transfer(users.get(1), users.get(2), "3.00"),
+                transfer(users.get(2), users.get(1), "3.00")));
+
+        assertMoney("6.00", storedNet(users.get(0), users.get(2)));
+        assertEquals(0, pairBalanceRepository.findByUserLowIdAndUserHighId(users.get(1), users.get(2)).size());
+    }
+
+    @Test
+    void stripesOfAPairAreSummed() {
+        List<Long> users = signup("stripes", 2);
+        Long low = users.get(0);
+        Long high = users.get(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            pairBalanceRepository.applyDelta(low, high, 0, new BigDecimal("5.00"));
+            pairBalanceRepository.applyDelta(low, high, 3, new BigDecimal("2.50"));
+            pairBalanceRepository.applyDelta(low, high, 7, new BigDecimal("-1.25"));
+        });
+
+        assertEquals(3, pairBalanceRepository.findByUserLowIdAndUserHighId(low, high).size());
+        assertMoney("6.25", pairBalanceService.getBalanceWith(low, high).getNetAmount());
+        List<PairBalanceResponse> highView = pairBalanceService.getNonZeroBalances(high);
+        assertEquals(1, highView.size());
+        assertEquals(low, highView.get(0).getCounterpartyId());
+        assertMoney("-6.25", highView.get(0).getNetAmount());
+    }
+
+    @Test
+    void reconcileRepairsDriftedAndMissingPairs() {
+        List<Long> users = signup("drift", 3);
+        Long groupId = createGroup(users);
+        addExpense(groupId, users.get(0), "90.00", users);
+        pairBalanceService.reconcile();
+
+        // One pair off by 5 on a second stripe, the other gone from the table
+        transactionTemplate.executeWithoutResult(status ->
+                pairBalanceRepository.applyDelta(users.get(0), users.get(1), 2, new BigDecimal("5.00")));
+        jdbcTemplate.update("DELETE FROM pair_balances WHERE user_low = ? AND user_high = ?", users.get(0), users.get(2));
+
+        assertEquals(2, pairBalanceService.reconcile());
+
+        assertMoney("30.00", pairBalanceService.getBalanceWith(users.get(0), users.get(1)).getNetAmount());
+        assertMoney("30.00", pairBalanceService.getBalanceWith(users.get(0), users.get(2)).getNetAmount());
+        assertEquals(0, pairBalanceService.reconcile());
+    }
+
+    private BigDecimal storedNet(Long low, Long high) {
+        return pairBalanceRepository.findByUserLowIdAndUserHighId(low, high).stream()
+                .map(PairBalance::getNetAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static LedgerService.Transfer transfer(Long fromUserId, Long toUserId, String amount) {
+        return new LedgerService.Transfer(fromUserId, toUserId, new BigDecimal(amount), "Transfer", null, null);
+    }
+
+    private static void assertMoney(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), "expected " + expected + " but was " + actual);
+    }
+}
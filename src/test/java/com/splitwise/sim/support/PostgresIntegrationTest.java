@@ -0,0 +1,104 @@
+package com.splitwise.sim.support;
+
+import com.splitwise.sim.dto.auth.SignupRequest;
+import com.splitwise.sim.dto.expense.CreateExpenseRequest;
+import com.splitwise.sim.dto.group.GroupRequest;
+import com.splitwise.sim.service.ExpenseSplitService;
+import com.splitwise.sim.service.GroupService;
+import com.splitwise.sim.service.UserService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Service tests against a real Postgres. All subclasses share one embedded server and, as long
+ * as they add no configuration of their own, one application context; tests create their own
+ * users and groups instead of cleaning up, so they do not depend on each other.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.com.splitwise.sim=WARN"
+})
+public abstract class PostgresIntegrationTest {
+
+    private static final EmbeddedPostgres POSTGRES = startPostgres();
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    protected GroupService groupService;
+
+    @Autowired
+    protected ExpenseSplitService expenseSplitService;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> POSTGRES.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+    }
+
+    protected Long signup(String name) {
+        String username = name + USERS.incrementAndGet();
+        SignupRequest request = new SignupRequest();
+        request.setUsername(username);
+        request.setEmail(username + "@example.com");
+        request.setPassword("password");
+        return userService.createUser(request).getId();
+    }
+
+    protected List<Long> signup(String name, int count) {
+        Long[] ids = new Long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = signup(name);
+        }
+        return Arrays.asList(ids);
+    }
+
+    /**
+     * A group created by the first user with the others as members
+     */
+    protected Long createGroup(List<Long> memberIds) {
+        GroupRequest request = new GroupRequest();
+        request.setName("Group of " + memberIds.get(0));
+        request.setMemberIds(new HashSet<>(memberIds.subList(1, memberIds.size())));
+        return groupService.createGroup(request, memberIds.get(0)).getId();
+    }
+
+    /**
+     * An equal split of the amount between the participants, paid by the payer
+     */
+    protected Long addExpense(Long groupId, Long payerId, String amount, List<Long> participantIds) {
+        return expenseSplitService.createExpense(equalSplit(groupId, amount, participantIds), payerId).getId();
+    }
+
+    protected CreateExpenseRequest equalSplit(Long groupId, String amount, List<Long> participantIds) {
+        CreateExpenseRequest request = new CreateExpenseRequest();
+        request.setDescription("Dinner");
+        request.setAmount(new BigDecimal(amount));
+        request.setGroupId(groupId);
+        request.setSplitType("EQUAL");
+        request.setParticipantIds(new HashSet<>(participantIds));
+        return request;
+    }
+
+    private static EmbeddedPostgres startPostgres() {
+        try {
+            return EmbeddedPostgres.builder().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
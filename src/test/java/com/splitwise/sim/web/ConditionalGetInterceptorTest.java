@@ -0,0 +1,152 @@
+package com.splitwise.sim.web;
+
+import com.splitwise.sim.datasource.ReadYourWritesFilter;
+import com.splitwise.sim.service.ResourceVersionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConditionalGetInterceptorTest {
+
+    private final Map<Long, Long> groupVersions = new HashMap<>(Map.of(42L, 7L));
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger primaryLookups = new AtomicInteger();
+    private final ConditionalGetInterceptor interceptor = new ConditionalGetInterceptor(
+            new ResourceVersionService(null, null) {
+                @Override
+                public Optional<Long> groupVersion(Long groupId) {
+                    lookups.incrementAndGet();
+                    if (ReadYourWritesFilter.isPinnedToPrimary()) {
+                        primaryLookups.incrementAndGet();
+                    }
+                    return Optional.ofNullable(groupVersions.get(groupId));
+                }
+
+                @Override
+                public Optional<VersionedUser> userVersion(String username) {
+                    lookups.incrementAndGet();
+                    return "alice".equals(username) ? Optional.of(new VersionedUser(5L, 3L)) : Optional.empty();
+                }
+            });
+
+    // Requests let through to the handler stay pinned until afterCompletion, which these tests skip
+    @AfterEach
+    void endRequest() {
+        ReadYourWritesFilter.unpin();
+    }
+
+    @Test
+    void answersMatchingEtagWith304() throws Exception {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(groupRequest("42"), first, handler("groupBalances")));
+        assertEquals("W/\"g42-7\"", first.getHeader("ETag"));
+        assertEquals("private, no-cache", first.getHeader("Cache-Control"));
+
+        MockHttpServletRequest revalidation = groupRequest("42");
+        revalidation.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse notModified = new MockHttpServletResponse();
+        assertFalse(interceptor.preHandle(revalidation, notModified, handler("groupBalances")));
+        assertEquals(304, notModified.getStatus());
+
+        groupVersions.put(42L, 8L);
+        MockHttpServletResponse changed = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(revalidation, changed, handler("groupBalances")));
+        assertEquals("W/\"g42-8\"", changed.getHeader("ETag"));
+    }
+
+    @Test
+    void userEtagIdentifiesTheCaller() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/wallet/balance");
+        request.setUserPrincipal(() -> "alice");
+        request.addHeader("If-None-Match", "W/\"u5-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, handler("walletBalance")));
+        assertEquals(304, response.getStatus());
+
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", "/api/v1/wallet/balance");
+        other.setUserPrincipal(() -> "bob");
+        other.addHeader("If-None-Match", "W/\"u5-3\"");
+        assertTrue(interceptor.preHandle(other, new MockHttpServletResponse(), handler("walletBalance")));
+    }
+
+    @Test
+    void leavesOtherRequestsToTheHandler() throws Exception {
+        MockHttpServletRequest unknownGroup = groupRequest("99");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(interceptor.preHandle(unknownGroup, response, handler("groupBalances")));
+        assertNull(response.getHeader("ETag"));
+
+        lookups.set(0);
+        MockHttpServletRequest pointInTime = groupRequest("42");
+        pointInTime.setQueryString("asOf=2024-01-01T00:00:00");
+        assertTrue(interceptor.preHandle(pointInTime, new MockHttpServletResponse(), handler("groupBalances")));
+        assertTrue(interceptor.preHandle(groupRequest("42"), new MockHttpServletResponse(), handler("notVersioned")));
+        assertEquals(0, lookups.get());
+    }
+
+    @Test
+    void versionAndBodyAreReadOnThePrimary() throws Exception {
+        MockHttpServletRequest request = groupRequest("42");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, handler("groupBalances")));
+        assertEquals(1, primaryLookups.get());
+        // The handler builds the body while the request is still pinned
+        assertTrue(ReadYourWritesFilter.isPinnedToPrimary());
+        interceptor.afterCompletion(request, response, handler("groupBalances"), null);
+        assertFalse(ReadYourWritesFilter.isPinnedToPrimary());
+
+        MockHttpServletRequest revalidation = groupRequest("42");
+        revalidation.addHeader("If-None-Match", "W/\"g42-7\"");
+        assertFalse(interceptor.preHandle(revalidation, new MockHttpServletResponse(), handler("groupBalances")));
+        assertEquals(2, primaryLookups.get());
+        assertFalse(ReadYourWritesFilter.isPinnedToPrimary(), "304 left the thread pinned");
+    }
+
+    @Test
+    void leavesAnExistingPinInPlace() throws Exception {
+        ReadYourWritesFilter.pinToPrimary();
+        try {
+            MockHttpServletRequest request = groupRequest("42");
+            request.addHeader("If-None-Match", "W/\"g42-7\"");
+            assertFalse(interceptor.preHandle(request, new MockHttpServletResponse(), handler("groupBalances")));
+            assertTrue(ReadYourWritesFilter.isPinnedToPrimary());
+        } finally {
+            ReadYourWritesFilter.unpin();
+        }
+    }
+
+    private static MockHttpServletRequest groupRequest(String groupId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/groups/" + groupId + "/balance");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("groupId", groupId));
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getMethod(name));
+    }
+
+    public static class Endpoints {
+        @ConditionalGet(ConditionalGet.Scope.GROUP)
+        public void groupBalances() {
+        }
+
+        @ConditionalGet(ConditionalGet.Scope.USER)
+        public void walletBalance() {
+        }
+
+        public void notVersioned() {
+        }
+    }
+}
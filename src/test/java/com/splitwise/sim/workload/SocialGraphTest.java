@@ -0,0 +1,58 @@
+package com.splitwise.sim.workload;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SocialGraphTest {
+
+    @Test
+    void sameSeedGivesSameGraph() {
+        SocialGraph first = SocialGraph.preferentialAttachment(2_000, 8, new SplittableRandom(7));
+        SocialGraph second = SocialGraph.preferentialAttachment(2_000, 8, new SplittableRandom(7));
+
+        assertEquals(first.edgeCount(), second.edgeCount());
+        for (int user = 0; user < first.size(); user++) {
+            assertEquals(first.degree(user), second.degree(user));
+        }
+        assertArrayEquals(first.groupMembers(3, 10, new SplittableRandom(1)),
+                second.groupMembers(3, 10, new SplittableRandom(1)));
+    }
+
+    @Test
+    void degreesAreHeavyTailed() {
+        SocialGraph graph = SocialGraph.preferentialAttachment(20_000, 8, new SplittableRandom(42));
+
+        int[] degrees = new int[graph.size()];
+        for (int user = 0; user < graph.size(); user++) {
+            degrees[user] = graph.degree(user);
+        }
+        Arrays.sort(degrees);
+        double mean = 2.0 * graph.edgeCount() / graph.size();
+
+        assertEquals(8.0, mean, 0.5);
+        // A power law has hubs far above the mean, a random graph does not
+        assertTrue(degrees[degrees.length - 1] > 20 * mean, "max degree " + degrees[degrees.length - 1]);
+        assertTrue(degrees[degrees.length / 2] < mean, "median degree " + degrees[degrees.length / 2]);
+    }
+
+    @Test
+    void groupMembersAreDistinctAndStartWithCreator() {
+        SocialGraph graph = SocialGraph.preferentialAttachment(500, 4, new SplittableRandom(3));
+
+        int[] members = graph.groupMembers(17, 30, new SplittableRandom(5));
+
+        assertEquals(30, members.length);
+        assertEquals(17, members[0]);
+        Set<Integer> distinct = new HashSet<>();
+        for (int member : members) {
+            distinct.add(member);
+        }
+        assertEquals(30, distinct.size());
+    }
+}